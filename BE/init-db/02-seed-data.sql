@@ -135,7 +135,7 @@ INSERT INTO vehicles(household_id, type, plate, brand, color, status) VALUES
 (4, 'Car', '30A-11122', 'Hyundai Tucson', 'Đen', 'ACTIVE'),
 -- Hộ 5: 1 xe máy, 1 xe đạp điện
 (5, 'Motorbike', '29B1-44444', 'Vespa Primavera', 'Hồng', 'ACTIVE'),
-(5, 'Electric Bike', '29X-55555', 'VinFast', 'Trắng', 'ACTIVE'),
+(5, 'Bicycle', '29X-55555', 'VinFast', 'Trắng', 'ACTIVE'),
 -- Hộ 6: 1 ô tô, 2 xe máy
 (6, 'Car', '30A-33344', 'Kia Seltos', 'Bạc', 'ACTIVE'),
 (6, 'Motorbike', '29B1-66666', 'Honda Air Blade', 'Đen', 'ACTIVE'),
@@ -47,7 +47,7 @@ INSERT INTO vehicles(household_id, type, plate, brand, color, status) VALUES
 (3, 'Motorbike', '29B1-33333', 'Honda Lead', 'Trang', 'ACTIVE'),
 (4, 'Car', '30A-11122', 'Hyundai Tucson', 'Den', 'ACTIVE'),
 (5, 'Motorbike', '29B1-44444', 'Vespa Primavera', 'Hong', 'ACTIVE'),
-(5, 'Electric Bike', '29X-55555', 'VinFast', 'Trang', 'ACTIVE'),
+(5, 'Bicycle', '29X-55555', 'VinFast', 'Trang', 'ACTIVE'),
 (6, 'Car', '30A-33344', 'Kia Seltos', 'Bac', 'ACTIVE'),
 (6, 'Motorbike', '29B1-66666', 'Honda Air Blade', 'Den', 'ACTIVE'),
 (6, 'Motorbike', '29B1-66667', 'Yamaha NVX', 'Do', 'ACTIVE'),
@@ -0,0 +1,22 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 6: Job sinh công nợ theo kỳ thu (chạy nền, có checkpoint)
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS obligation_generation_jobs (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+  total_rows BIGINT NOT NULL DEFAULT 0,
+  processed_rows BIGINT NOT NULL DEFAULT 0,
+  inserted_rows BIGINT NOT NULL DEFAULT 0,
+  last_household_id BIGINT UNSIGNED NOT NULL DEFAULT 0,
+  error_message VARCHAR(500) NULL,
+  started_at DATETIME NULL,
+  finished_at DATETIME NULL,
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME NULL DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_generation_jobs_period_status (fee_period_id, status),
+  CONSTRAINT fk_generation_jobs_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
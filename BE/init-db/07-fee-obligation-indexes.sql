@@ -0,0 +1,21 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 7: Index phục vụ phân trang keyset danh sách công nợ
+-- ============================================================
+
+-- Mỗi bộ lọc "=" cần một index kết thúc bằng id để ORDER BY id DESC đi theo index
+-- và dừng sau limit dòng, không filesort cả tập kết quả:
+--   chỉ kỳ thu        -> idx_obligation_period (fee_period_id) ở file 1, InnoDB tự gắn id vào cuối
+--   chỉ hộ dân        -> idx_obligation_household (household_id) ở file 1
+--   kỳ + trạng thái   -> idx_obligation_period_status
+--   hộ + trạng thái   -> idx_obligation_household_status
+--   chỉ khoản thu     -> idx_obligation_item
+--   khoản thu + kỳ    -> idx_obligation_item_period
+-- Khoảng hạn nộp là điều kiện range nên không index nào vừa lọc vừa giữ thứ tự id:
+-- MySQL quét ngược PRIMARY và dừng khi đủ trang, idx_obligation_due_date chỉ dùng khi khoảng hẹp.
+ALTER TABLE fee_obligations
+  ADD KEY idx_obligation_period_status (fee_period_id, status, id),
+  ADD KEY idx_obligation_household_status (household_id, status, id),
+  ADD KEY idx_obligation_item (fee_item_id, id),
+  ADD KEY idx_obligation_item_period (fee_item_id, fee_period_id, id),
+  ADD KEY idx_obligation_due_date (due_date);
@@ -0,0 +1,30 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 8: Sổ thu tiền (chỉ ghi thêm, không sửa/xóa)
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS payments (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  fee_obligation_id BIGINT UNSIGNED NOT NULL,
+  household_id BIGINT UNSIGNED NOT NULL,
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  amount DECIMAL(12,2) NOT NULL,
+  payment_method VARCHAR(30) NULL,
+  payer_name VARCHAR(120) NULL,
+  cashier VARCHAR(50) NULL,
+  note VARCHAR(255) NULL,
+  paid_at DATETIME NOT NULL,
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_payments_paid_at (paid_at),
+  KEY idx_payments_cashier_paid_at (cashier, paid_at),
+  KEY idx_payments_obligation (fee_obligation_id),
+  KEY idx_payments_household_paid_at (household_id, paid_at),
+  CONSTRAINT fk_payments_obligation FOREIGN KEY (fee_obligation_id) REFERENCES fee_obligations(id) ON DELETE RESTRICT ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Chuyển số tiền đã thu hiện có thành một dòng sổ cho mỗi công nợ
+INSERT INTO payments(fee_obligation_id, household_id, fee_period_id, amount, payment_method, payer_name, paid_at)
+SELECT id, household_id, fee_period_id, paid_amount, payment_method, payer_name, COALESCE(paid_at, updated_at, created_at)
+FROM fee_obligations
+WHERE paid_amount > 0;
@@ -0,0 +1,14 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 9: Quá hạn thanh toán và phí phạt chậm nộp
+-- ============================================================
+
+-- Job quá hạn quét theo (status, due_date): chỉ chạm các dòng vừa đến hạn,
+-- không phụ thuộc tổng số công nợ. Index (status) cũ là tiền tố của index mới.
+ALTER TABLE fee_obligations
+  ADD KEY idx_obligation_status_due (status, due_date),
+  DROP KEY idx_obligation_status;
+
+-- Khoản thu dùng cho phí phạt. Để INACTIVE để job sinh công nợ hàng kỳ không tính khoản này.
+INSERT IGNORE INTO fee_items(name, type, unit, cost, status, description) VALUES
+('Phí phạt chậm nộp', 'PENALTY', 'FIXED', 0, 'INACTIVE', 'Phí phạt tự động cộng khi công nợ quá hạn');
@@ -0,0 +1,38 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 10: Bảng tổng hợp số phải thu / đã thu theo kỳ và theo hộ
+-- ============================================================
+
+-- Cập nhật cộng dồn trong cùng transaction với mọi thay đổi trên fee_obligations,
+-- báo cáo chỉ đọc bảng này thay vì SUM trên toàn bộ công nợ.
+CREATE TABLE IF NOT EXISTS fee_household_rollups (
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  household_id BIGINT UNSIGNED NOT NULL,
+  expected_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+  paid_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (fee_period_id, household_id),
+  KEY idx_household_rollups_household (household_id),
+  CONSTRAINT fk_household_rollups_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE,
+  CONSTRAINT fk_household_rollups_household FOREIGN KEY (household_id) REFERENCES households(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS fee_period_rollups (
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  expected_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  paid_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (fee_period_id),
+  CONSTRAINT fk_period_rollups_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Dựng dữ liệu ban đầu từ công nợ hiện có
+INSERT INTO fee_household_rollups(fee_period_id, household_id, expected_total, paid_total)
+SELECT fee_period_id, household_id, SUM(expected_amount), SUM(paid_amount)
+FROM fee_obligations
+GROUP BY fee_period_id, household_id;
+
+INSERT INTO fee_period_rollups(fee_period_id, expected_total, paid_total)
+SELECT fee_period_id, SUM(expected_amount), SUM(paid_amount)
+FROM fee_obligations
+GROUP BY fee_period_id;
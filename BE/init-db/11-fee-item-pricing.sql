@@ -0,0 +1,19 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 11: Cấu hình tính phí theo đơn vị tính của khoản thu
+-- ============================================================
+
+-- Khoản thu đơn vị SLOT chỉ tính trên số xe đúng loại của hộ (NULL = mọi loại xe)
+ALTER TABLE fee_items
+  ADD COLUMN vehicle_type VARCHAR(30) NULL AFTER unit;
+
+-- Loại xe chuẩn: Car / Motorbike / Bicycle (Vehicle.TYPES). Dữ liệu cũ ghi xe đạp điện là 'Electric Bike',
+-- không đổi thì hộ có xe đạp điện không bao giờ khớp khoản 'Phí gửi xe đạp điện'
+UPDATE vehicles SET type = 'Bicycle' WHERE UPPER(type) IN ('ELECTRIC BIKE', 'BICYCLE');
+UPDATE vehicles SET type = 'Motorbike' WHERE UPPER(type) = 'MOTORBIKE';
+UPDATE vehicles SET type = 'Car' WHERE UPPER(type) = 'CAR';
+
+UPDATE fee_items SET vehicle_type = 'MOTORBIKE' WHERE name = 'Phí gửi xe máy';
+UPDATE fee_items SET vehicle_type = 'CAR' WHERE name = 'Phí gửi ô tô';
+UPDATE fee_items SET vehicle_type = 'BICYCLE' WHERE name = 'Phí gửi xe đạp điện';
+
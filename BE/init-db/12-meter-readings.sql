@@ -0,0 +1,60 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 12: Chỉ số công tơ điện / nước và biểu giá bậc thang
+-- ============================================================
+
+-- Chỉ số chốt cuối kỳ của từng căn hộ cho mỗi khoản thu theo công tơ (KWH, M3)
+CREATE TABLE IF NOT EXISTS meter_readings (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  apartment_id BIGINT UNSIGNED NOT NULL,
+  fee_item_id BIGINT UNSIGNED NOT NULL,
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  reading_value DECIMAL(12,2) NOT NULL,
+  read_at DATE NULL,
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME NULL DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_meter_readings_apartment_item_period (apartment_id, fee_item_id, fee_period_id),
+  KEY idx_meter_readings_item_period (fee_item_id, fee_period_id),
+  CONSTRAINT fk_meter_readings_apartment FOREIGN KEY (apartment_id) REFERENCES apartments(id) ON DELETE CASCADE,
+  CONSTRAINT fk_meter_readings_fee_item FOREIGN KEY (fee_item_id) REFERENCES fee_items(id) ON DELETE RESTRICT,
+  CONSTRAINT fk_meter_readings_fee_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Biểu giá bậc thang: up_to là mức tiêu thụ cộng dồn cao nhất của bậc (NULL = không giới hạn)
+CREATE TABLE IF NOT EXISTS fee_item_tiers (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  fee_item_id BIGINT UNSIGNED NOT NULL,
+  tier_order INT NOT NULL,
+  up_to DECIMAL(12,2) NULL,
+  unit_price DECIMAL(12,2) NOT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_fee_item_tiers_order (fee_item_id, tier_order),
+  CONSTRAINT fk_fee_item_tiers_fee_item FOREIGN KEY (fee_item_id) REFERENCES fee_items(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Giá điện sinh hoạt bậc thang (EVN)
+INSERT INTO fee_item_tiers(fee_item_id, tier_order, up_to, unit_price)
+SELECT f.id, t.tier_order, t.up_to, t.unit_price
+FROM fee_items f
+JOIN (
+  SELECT 1 AS tier_order, 50 AS up_to, 1893 AS unit_price
+  UNION ALL SELECT 2, 100, 1956
+  UNION ALL SELECT 3, 200, 2271
+  UNION ALL SELECT 4, 300, 2860
+  UNION ALL SELECT 5, 400, 3197
+  UNION ALL SELECT 6, NULL, 3302
+) t
+WHERE f.name = 'Tiền điện';
+
+-- Giá nước sinh hoạt bậc thang
+INSERT INTO fee_item_tiers(fee_item_id, tier_order, up_to, unit_price)
+SELECT f.id, t.tier_order, t.up_to, t.unit_price
+FROM fee_items f
+JOIN (
+  SELECT 1 AS tier_order, 10 AS up_to, 8500 AS unit_price
+  UNION ALL SELECT 2, 20, 9900
+  UNION ALL SELECT 3, 30, 16000
+  UNION ALL SELECT 4, NULL, 27000
+) t
+WHERE f.name = 'Tiền nước';
@@ -0,0 +1,23 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 13: Lịch sử đơn giá khoản thu theo ngày hiệu lực
+-- ============================================================
+
+-- Mỗi lần đổi đơn giá tạo một phiên bản mới, phiên bản cũ được đóng ở ngày trước ngày hiệu lực mới
+CREATE TABLE IF NOT EXISTS fee_item_prices (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  fee_item_id BIGINT UNSIGNED NOT NULL,
+  cost DECIMAL(12,2) NOT NULL,
+  effective_from DATE NOT NULL,
+  effective_to DATE NULL,
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_fee_item_prices_item_from (fee_item_id, effective_from),
+  CONSTRAINT fk_fee_item_prices_fee_item FOREIGN KEY (fee_item_id) REFERENCES fee_items(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Đơn giá hiện tại áp dụng cho mọi kỳ cũ, giữ nguyên kết quả sinh công nợ trước đây
+INSERT INTO fee_item_prices(fee_item_id, cost, effective_from, effective_to)
+SELECT f.id, f.cost, '2000-01-01', NULL
+FROM fee_items f
+WHERE NOT EXISTS (SELECT 1 FROM fee_item_prices p WHERE p.fee_item_id = f.id);
@@ -0,0 +1,71 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 14: Số liệu chốt sổ kỳ thu (ghi một lần khi chốt, không thay đổi)
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS fee_period_closings (
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  period_name VARCHAR(50) NOT NULL,
+  expected_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  paid_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  obligation_count INT NOT NULL DEFAULT 0,
+  paid_count INT NOT NULL DEFAULT 0,
+  household_count INT NOT NULL DEFAULT 0,
+  closed_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (fee_period_id),
+  UNIQUE KEY uk_period_closings_name (period_name),
+  CONSTRAINT fk_period_closings_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS fee_period_item_totals (
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  fee_item_id BIGINT UNSIGNED NOT NULL,
+  fee_item_name VARCHAR(120) NOT NULL,
+  obligation_count INT NOT NULL DEFAULT 0,
+  paid_count INT NOT NULL DEFAULT 0,
+  expected_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  paid_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (fee_period_id, fee_item_id),
+  CONSTRAINT fk_period_item_totals_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Lưu kèm mã hộ, chủ hộ và căn hộ tại thời điểm chốt để báo cáo cũ không phụ thuộc dữ liệu hộ hiện tại
+CREATE TABLE IF NOT EXISTS fee_period_household_totals (
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  household_id BIGINT UNSIGNED NOT NULL,
+  household_code VARCHAR(20) NOT NULL,
+  owner_name VARCHAR(120) NULL,
+  block VARCHAR(10) NULL,
+  floor VARCHAR(10) NULL,
+  unit VARCHAR(10) NULL,
+  expected_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+  paid_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (fee_period_id, household_id),
+  CONSTRAINT fk_period_household_totals_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Chốt số liệu cho các kỳ đã CLOSED trước khi có bảng này
+INSERT INTO fee_period_closings(fee_period_id, period_name, expected_total, paid_total, obligation_count, paid_count, household_count)
+SELECT p.id, p.name, COALESCE(SUM(o.expected_amount), 0), COALESCE(SUM(o.paid_amount), 0),
+  COUNT(o.id), COALESCE(SUM(o.status = 'PAID'), 0), COUNT(DISTINCT o.household_id)
+FROM fee_periods p
+LEFT JOIN fee_obligations o ON o.fee_period_id = p.id
+WHERE p.status = 'CLOSED'
+GROUP BY p.id, p.name;
+
+INSERT INTO fee_period_item_totals(fee_period_id, fee_item_id, fee_item_name, obligation_count, paid_count, expected_total, paid_total)
+SELECT o.fee_period_id, o.fee_item_id, MAX(o.fee_item_name), COUNT(*), SUM(o.status = 'PAID'), SUM(o.expected_amount), SUM(o.paid_amount)
+FROM fee_obligations o
+JOIN fee_periods p ON p.id = o.fee_period_id AND p.status = 'CLOSED'
+GROUP BY o.fee_period_id, o.fee_item_id;
+
+INSERT INTO fee_period_household_totals(fee_period_id, household_id, household_code, owner_name, block, floor, unit, expected_total, paid_total)
+SELECT t.fee_period_id, h.id, h.household_id, h.owner_name, a.block, a.floor, a.unit, t.expected_total, t.paid_total
+FROM (
+  SELECT o.fee_period_id, o.household_id, SUM(o.expected_amount) AS expected_total, SUM(o.paid_amount) AS paid_total
+  FROM fee_obligations o
+  JOIN fee_periods p ON p.id = o.fee_period_id AND p.status = 'CLOSED'
+  GROUP BY o.fee_period_id, o.household_id
+) t
+JOIN households h ON h.id = t.household_id
+LEFT JOIN apartments a ON a.id = h.apartment_id;
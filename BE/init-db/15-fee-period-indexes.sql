@@ -0,0 +1,10 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 15: Index cho thống kê N kỳ gần nhất
+-- ============================================================
+
+-- ORDER BY start_date DESC LIMIT N đọc N dòng cuối index thay vì sắp xếp cả bảng;
+-- (status, start_date) cho "kỳ CLOSED / OPEN mới nhất" chỉ đọc một dòng.
+ALTER TABLE fee_periods
+  ADD KEY idx_fee_periods_start_date (start_date),
+  ADD KEY idx_fee_periods_status_start (status, start_date);
@@ -0,0 +1,27 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 16: Chuỗi số tiền thu theo ngày / khoản thu / tòa
+-- ============================================================
+
+-- Cộng dồn trong cùng transaction với mỗi lần ghi sổ thu (payments),
+-- biểu đồ thu theo ngày / tuần chỉ đọc bảng này, không quét công nợ.
+-- block = '' khi hộ không gắn căn hộ.
+CREATE TABLE IF NOT EXISTS fee_collection_daily (
+  collect_date DATE NOT NULL,
+  fee_item_id BIGINT UNSIGNED NOT NULL,
+  block VARCHAR(10) NOT NULL DEFAULT '',
+  amount DECIMAL(16,2) NOT NULL DEFAULT 0,
+  payment_count INT NOT NULL DEFAULT 0,
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (collect_date, fee_item_id, block),
+  KEY idx_collection_daily_item_date (fee_item_id, collect_date)
+) ENGINE=InnoDB;
+
+-- Dựng dữ liệu ban đầu từ sổ thu hiện có
+INSERT INTO fee_collection_daily(collect_date, fee_item_id, block, amount, payment_count)
+SELECT DATE(p.paid_at), o.fee_item_id, COALESCE(a.block, ''), SUM(p.amount), COUNT(*)
+FROM payments p
+JOIN fee_obligations o ON o.id = p.fee_obligation_id
+JOIN households h ON h.id = p.household_id
+LEFT JOIN apartments a ON a.id = h.apartment_id
+GROUP BY DATE(p.paid_at), o.fee_item_id, COALESCE(a.block, '');
@@ -0,0 +1,25 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 17: Job xuất báo cáo (CSV/XLSX chạy nền, file kết quả dùng lại theo phiên bản dữ liệu)
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS report_export_jobs (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  report_type VARCHAR(30) NOT NULL,
+  fee_period_id BIGINT UNSIGNED NOT NULL,
+  format VARCHAR(10) NOT NULL,
+  data_version VARCHAR(120) NOT NULL,
+  status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+  file_path VARCHAR(255) NULL,
+  row_count BIGINT NOT NULL DEFAULT 0,
+  file_size BIGINT NOT NULL DEFAULT 0,
+  error_message VARCHAR(500) NULL,
+  started_at DATETIME NULL,
+  finished_at DATETIME NULL,
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at DATETIME NULL DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_export_jobs_key (report_type, fee_period_id, format, data_version, status),
+  KEY idx_export_jobs_status (status),
+  CONSTRAINT fk_export_jobs_period FOREIGN KEY (fee_period_id) REFERENCES fee_periods(id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
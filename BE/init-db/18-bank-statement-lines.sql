@@ -0,0 +1,14 @@
+-- ============================================================
+-- DATABASE: Quản lý Chung cư BlueSky
+-- File 18: Dòng sao kê ngân hàng đã nhập (chống ghi trùng khi nhập lại file)
+-- ============================================================
+
+-- line_ref: SHA-256 của (ngày, số tiền, nội dung, người chuyển, thứ tự xuất hiện trong file),
+-- ghi trong cùng transaction với các dòng sổ thu của dòng sao kê đó.
+CREATE TABLE IF NOT EXISTS bank_statement_lines (
+  line_ref CHAR(64) NOT NULL,
+  amount DECIMAL(16,2) NOT NULL,
+  payment_count INT NOT NULL DEFAULT 0,
+  imported_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (line_ref)
+) ENGINE=InnoDB;
@@ -0,0 +1,35 @@
+package com.hoangdo.quanlichungcu.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor obligationGenerationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        
+        // Mỗi kỳ thu chỉ có một job chạy, vài luồng là đủ
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("obligation-gen-");
+        
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor reportExportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        // Mỗi job giữ một kết nối DB suốt lúc đọc con trỏ, giới hạn số job chạy cùng lúc
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("report-export-");
+
+        return executor;
+    }
+}
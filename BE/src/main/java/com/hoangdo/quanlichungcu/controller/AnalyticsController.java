@@ -0,0 +1,33 @@
+package com.hoangdo.quanlichungcu.controller;
+
+import com.hoangdo.quanlichungcu.dto.PeriodTrendDTO;
+import com.hoangdo.quanlichungcu.service.PeriodSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final PeriodSnapshotService periodSnapshotService;
+
+    // Xu hướng nhiều năm của các kỳ đã chốt, đọc từ file chụp theo cột
+    @GetMapping("/periods/history")
+    public ResponseEntity<List<PeriodTrendDTO>> getHistory(
+            @RequestParam(defaultValue = "36") int months,
+            @RequestParam(required = false) Long feeItemId,
+            @RequestParam(required = false) Long householdId) {
+        return ResponseEntity.ok(periodSnapshotService.getHistory(months, feeItemId, householdId));
+    }
+
+    @PostMapping("/snapshots/{periodId}")
+    public ResponseEntity<Map<String, Integer>> exportSnapshot(@PathVariable Long periodId) {
+        return ResponseEntity.ok(Map.of("rows", periodSnapshotService.export(periodId)));
+    }
+}
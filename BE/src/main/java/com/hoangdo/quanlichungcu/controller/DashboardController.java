@@ -2,9 +2,12 @@ package com.hoangdo.quanlichungcu.controller;
 
 import com.hoangdo.quanlichungcu.dto.DashboardDTO;
 import com.hoangdo.quanlichungcu.service.DashboardService;
+import com.hoangdo.quanlichungcu.service.DashboardStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -13,9 +16,16 @@ import org.springframework.web.bind.annotation.*;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardStreamService dashboardStreamService;
 
     @GetMapping
     public ResponseEntity<DashboardDTO> getDashboard() {
         return ResponseEntity.ok(dashboardService.getDashboardData());
     }
+    
+    // Server-Sent Events: "snapshot" khi vừa kết nối, sau đó "delta" mỗi khi có thu tiền / đổi công nợ / hộ
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return dashboardStreamService.subscribe();
+    }
 }
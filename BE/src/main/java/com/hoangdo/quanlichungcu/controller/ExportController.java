@@ -0,0 +1,54 @@
+package com.hoangdo.quanlichungcu.controller;
+
+import com.hoangdo.quanlichungcu.dto.ReportExportJobDTO;
+import com.hoangdo.quanlichungcu.service.ReportExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ReportExportService reportExportService;
+
+    @PostMapping
+    public ResponseEntity<ReportExportJobDTO> submit(
+            @RequestParam(defaultValue = "PERIOD_LEDGER") String type,
+            @RequestParam Long periodId,
+            @RequestParam(defaultValue = "CSV") String format) {
+        ReportExportJobDTO job = reportExportService.submit(type, periodId, format);
+        // File đã có sẵn thì tải được ngay
+        HttpStatus status = "DONE".equals(job.getStatus()) ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportExportJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reportExportService.findById(id));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@PathVariable Long id) {
+        Path file = reportExportService.getFile(id);
+        String fileName = file.getFileName().toString();
+        return ResponseEntity.ok()
+                .contentType(fileName.endsWith(".xlsx") ? XLSX : CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -1,12 +1,16 @@
 package com.hoangdo.quanlichungcu.controller;
 
 import com.hoangdo.quanlichungcu.dto.FeeItemDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemPriceDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemTierDTO;
 import com.hoangdo.quanlichungcu.service.FeeItemService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,6 +26,14 @@ public class FeeItemController {
         return ResponseEntity.ok(feeItemService.findAll());
     }
 
+    // Đơn giá mọi khoản thu tại một kỳ (vd: giá áp dụng cho T03/2025) hoặc một ngày
+    @GetMapping("/prices")
+    public ResponseEntity<List<FeeItemPriceDTO>> getPricesAt(
+            @RequestParam(required = false) Long periodId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(feeItemService.findPricesAt(periodId, date));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<FeeItemDTO> getById(@PathVariable Long id) {
         return ResponseEntity.ok(feeItemService.findById(id));
@@ -52,4 +64,19 @@ public class FeeItemController {
         feeItemService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/{id}/tiers")
+    public ResponseEntity<List<FeeItemTierDTO>> getTiers(@PathVariable Long id) {
+        return ResponseEntity.ok(feeItemService.findTiers(id));
+    }
+
+    @PutMapping("/{id}/tiers")
+    public ResponseEntity<List<FeeItemTierDTO>> replaceTiers(@PathVariable Long id, @RequestBody List<FeeItemTierDTO> tiers) {
+        return ResponseEntity.ok(feeItemService.replaceTiers(id, tiers));
+    }
+
+    @GetMapping("/{id}/prices")
+    public ResponseEntity<List<FeeItemPriceDTO>> getPriceHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(feeItemService.findPriceHistory(id));
+    }
 }
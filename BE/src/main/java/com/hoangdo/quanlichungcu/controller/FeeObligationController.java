@@ -1,12 +1,23 @@
 package com.hoangdo.quanlichungcu.controller;
 
+import com.hoangdo.quanlichungcu.dto.BatchPaymentDTO;
+import com.hoangdo.quanlichungcu.dto.CursorPageDTO;
 import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationFilter;
+import com.hoangdo.quanlichungcu.dto.FeeObligationSummaryDTO;
+import com.hoangdo.quanlichungcu.dto.ObligationGenerationJobDTO;
+import com.hoangdo.quanlichungcu.dto.OverdueRunDTO;
+import com.hoangdo.quanlichungcu.dto.PaymentDTO;
 import com.hoangdo.quanlichungcu.service.FeeObligationService;
+import com.hoangdo.quanlichungcu.service.ObligationGenerationJobService;
+import com.hoangdo.quanlichungcu.service.OverdueService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,10 +27,35 @@ import java.util.List;
 public class FeeObligationController {
 
     private final FeeObligationService feeObligationService;
+    private final ObligationGenerationJobService obligationGenerationJobService;
+    private final OverdueService overdueService;
 
     @GetMapping
-    public ResponseEntity<List<FeeObligationDTO>> getAll() {
-        return ResponseEntity.ok(feeObligationService.findAll());
+    public ResponseEntity<CursorPageDTO<FeeObligationDTO>> getAll(
+            @RequestParam(required = false) Long periodId,
+            @RequestParam(required = false) Long householdId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long feeItemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        FeeObligationFilter filter = buildFilter(periodId, householdId, status, feeItemId, dueFrom, dueTo, keyword);
+        return ResponseEntity.ok(feeObligationService.search(filter, cursor, limit));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<FeeObligationSummaryDTO> getSummary(
+            @RequestParam(required = false) Long periodId,
+            @RequestParam(required = false) Long householdId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long feeItemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(required = false) String keyword) {
+        FeeObligationFilter filter = buildFilter(periodId, householdId, status, feeItemId, dueFrom, dueTo, keyword);
+        return ResponseEntity.ok(feeObligationService.summarize(filter));
     }
 
     @GetMapping("/{id}")
@@ -53,14 +89,34 @@ public class FeeObligationController {
     }
 
     @PatchMapping("/{id}/pay")
-    public ResponseEntity<FeeObligationDTO> pay(@PathVariable Long id, @RequestBody FeeObligationDTO paymentInfo) {
-        return ResponseEntity.ok(feeObligationService.pay(id, paymentInfo));
+    public ResponseEntity<FeeObligationDTO> pay(@PathVariable Long id, @RequestBody PaymentDTO payment) {
+        return ResponseEntity.ok(feeObligationService.pay(id, payment));
+    }
+
+    @PostMapping("/pay-batch")
+    public ResponseEntity<List<FeeObligationDTO>> payBatch(@RequestBody BatchPaymentDTO request) {
+        return ResponseEntity.ok(feeObligationService.payBatch(request));
+    }
+
+    @PostMapping("/overdue/run")
+    public ResponseEntity<OverdueRunDTO> runOverdue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(overdueService.processOverdue(date != null ? date : LocalDate.now()));
+    }
+
+    @GetMapping("/{id}/payments")
+    public ResponseEntity<List<PaymentDTO>> getPayments(@PathVariable Long id) {
+        return ResponseEntity.ok(feeObligationService.findPayments(id));
     }
 
     @PostMapping("/generate/{periodId}")
-    public ResponseEntity<Void> generateForPeriod(@PathVariable Long periodId) {
-        feeObligationService.generateObligationsForPeriod(periodId);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<ObligationGenerationJobDTO> generateForPeriod(@PathVariable Long periodId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(obligationGenerationJobService.submit(periodId));
+    }
+
+    @GetMapping("/generate/{jobId}")
+    public ResponseEntity<ObligationGenerationJobDTO> getGenerationJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(obligationGenerationJobService.findById(jobId));
     }
 
     @DeleteMapping("/{id}")
@@ -68,4 +124,17 @@ public class FeeObligationController {
         feeObligationService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    private FeeObligationFilter buildFilter(Long periodId, Long householdId, String status, Long feeItemId,
+                                            LocalDate dueFrom, LocalDate dueTo, String keyword) {
+        return FeeObligationFilter.builder()
+                .feePeriodId(periodId)
+                .householdId(householdId)
+                .status(status)
+                .feeItemId(feeItemId)
+                .dueFrom(dueFrom)
+                .dueTo(dueTo)
+                .keyword(keyword)
+                .build();
+    }
 }
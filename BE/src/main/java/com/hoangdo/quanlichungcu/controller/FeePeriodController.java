@@ -1,8 +1,11 @@
 package com.hoangdo.quanlichungcu.controller;
 
 import com.hoangdo.quanlichungcu.dto.FeePeriodDTO;
-import com.hoangdo.quanlichungcu.service.FeeObligationService;
+import com.hoangdo.quanlichungcu.dto.ObligationGenerationJobDTO;
+import com.hoangdo.quanlichungcu.dto.ObligationTopUpResultDTO;
+import com.hoangdo.quanlichungcu.dto.PeriodRolloverResultDTO;
 import com.hoangdo.quanlichungcu.service.FeePeriodService;
+import com.hoangdo.quanlichungcu.service.ObligationGenerationJobService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +20,7 @@ import java.util.List;
 public class FeePeriodController {
 
     private final FeePeriodService feePeriodService;
-    private final FeeObligationService feeObligationService;
+    private final ObligationGenerationJobService obligationGenerationJobService;
 
     @GetMapping
     public ResponseEntity<List<FeePeriodDTO>> getAll() {
@@ -56,15 +59,26 @@ public class FeePeriodController {
     }
 
     @PostMapping("/{id}/generate")
-    public ResponseEntity<Void> generateObligations(@PathVariable Long id) {
-        feeObligationService.generateObligationsForPeriod(id);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<ObligationGenerationJobDTO> generateObligations(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(obligationGenerationJobService.submit(id));
+    }
+
+    // Bổ sung công nợ cho hộ mới / khoản thu mới giữa kỳ, chạy đồng bộ
+    @PostMapping("/{id}/generate/top-up")
+    public ResponseEntity<ObligationTopUpResultDTO> topUpObligations(@PathVariable Long id) {
+        return ResponseEntity.ok(obligationGenerationJobService.topUp(id));
+    }
+
+    // Mở kỳ tháng kế tiếp từ cấu trúc công nợ của kỳ này
+    @PostMapping("/{id}/rollover")
+    public ResponseEntity<PeriodRolloverResultDTO> rollover(
+            @PathVariable Long id,
+            @RequestParam(required = false) String mode) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(feePeriodService.rollover(id, mode));
     }
 
     @PatchMapping("/{id}/close")
     public ResponseEntity<FeePeriodDTO> closePeriod(@PathVariable Long id) {
-        FeePeriodDTO dto = feePeriodService.findById(id);
-        dto.setStatus("CLOSED");
-        return ResponseEntity.ok(feePeriodService.update(id, dto));
+        return ResponseEntity.ok(feePeriodService.close(id));
     }
 }
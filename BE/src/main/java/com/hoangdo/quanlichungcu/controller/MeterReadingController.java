@@ -0,0 +1,31 @@
+package com.hoangdo.quanlichungcu.controller;
+
+import com.hoangdo.quanlichungcu.dto.MeterReadingDTO;
+import com.hoangdo.quanlichungcu.dto.MeterReadingImportResultDTO;
+import com.hoangdo.quanlichungcu.service.MeterReadingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/meter-readings")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MeterReadingController {
+
+    private final MeterReadingService meterReadingService;
+
+    @GetMapping
+    public ResponseEntity<List<MeterReadingDTO>> getByPeriodAndFeeItem(
+            @RequestParam Long periodId,
+            @RequestParam Long feeItemId) {
+        return ResponseEntity.ok(meterReadingService.findByPeriodAndFeeItem(periodId, feeItemId));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<MeterReadingImportResultDTO> importReadings(@RequestBody List<MeterReadingDTO> readings) {
+        return ResponseEntity.ok(meterReadingService.importReadings(readings));
+    }
+}
@@ -0,0 +1,32 @@
+package com.hoangdo.quanlichungcu.controller;
+
+import com.hoangdo.quanlichungcu.dto.ReconciliationReportDTO;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
+import com.hoangdo.quanlichungcu.service.BankReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReconciliationController {
+
+    private final BankReconciliationService bankReconciliationService;
+
+    @PostMapping("/bank-statements")
+    public ResponseEntity<ReconciliationReportDTO> importBankStatement(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("File sao kê trống");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(bankReconciliationService.importBankStatement(in));
+        }
+    }
+}
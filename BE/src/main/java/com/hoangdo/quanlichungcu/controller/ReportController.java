@@ -1,18 +1,31 @@
 package com.hoangdo.quanlichungcu.controller;
 
+import com.hoangdo.quanlichungcu.dto.ArrearsAgingReportDTO;
+import com.hoangdo.quanlichungcu.dto.CashierCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.CollectionBackfillResultDTO;
+import com.hoangdo.quanlichungcu.dto.CollectionPointDTO;
+import com.hoangdo.quanlichungcu.dto.DailyCollectionDTO;
 import com.hoangdo.quanlichungcu.dto.DashboardAnalyticsDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.ReportCacheStatsDTO;
 import com.hoangdo.quanlichungcu.dto.ReportSummaryDTO;
+import com.hoangdo.quanlichungcu.service.FeeRollupService;
 import com.hoangdo.quanlichungcu.service.ReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/reports")
 @RequiredArgsConstructor
 public class ReportController {
 
     private final ReportService reportService;
+    private final FeeRollupService feeRollupService;
 
     @GetMapping("/summary")
     public ResponseEntity<ReportSummaryDTO> getSummary(
@@ -21,7 +34,65 @@ public class ReportController {
     }
     
     @GetMapping("/analytics")
-    public ResponseEntity<DashboardAnalyticsDTO> getAnalytics() {
-        return ResponseEntity.ok(reportService.getDashboardAnalytics());
+    public ResponseEntity<DashboardAnalyticsDTO> getAnalytics(
+            @RequestParam(defaultValue = "5") int periods,
+            @RequestParam(defaultValue = "5") int topN,
+            @RequestParam(defaultValue = "5") int bottomN) {
+        return ResponseEntity.ok(reportService.getDashboardAnalytics(periods, topN, bottomN));
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ReportCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(reportService.getCacheStats());
+    }
+    
+    @GetMapping("/collections/daily")
+    public ResponseEntity<List<DailyCollectionDTO>> getDailyCollections(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getDailyCollections(from, to));
+    }
+    
+    @GetMapping("/collections/by-cashier")
+    public ResponseEntity<List<CashierCollectionDTO>> getCollectionsByCashier(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getCollectionsByCashier(from, to));
+    }
+    
+    @GetMapping("/collections/timeseries")
+    public ResponseEntity<List<CollectionPointDTO>> getCollectionTimeseries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) Long feeItemId,
+            @RequestParam(required = false) String block) {
+        return ResponseEntity.ok(reportService.getCollectionTimeseries(from, to, granularity, feeItemId, block));
+    }
+    
+    @PostMapping("/collections/timeseries/rebuild")
+    public ResponseEntity<CollectionBackfillResultDTO> rebuildCollectionTimeseries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(feeRollupService.rebuildCollections(from, to));
+    }
+    
+    @GetMapping("/periods/{periodId}/fee-items")
+    public ResponseEntity<List<FeeItemCollectionDTO>> getFeeItemCollections(@PathVariable Long periodId) {
+        return ResponseEntity.ok(reportService.getFeeItemCollections(periodId));
+    }
+    
+    @GetMapping("/arrears-aging")
+    public ResponseEntity<ArrearsAgingReportDTO> getArrearsAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) String block,
+            @RequestParam(required = false) String floor) {
+        return ResponseEntity.ok(reportService.getArrearsAging(asOf != null ? asOf : LocalDate.now(), block, floor));
+    }
+    
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups(@RequestParam(required = false) Long periodId) {
+        feeRollupService.rebuild(periodId);
+        return ResponseEntity.noContent().build();
     }
 }
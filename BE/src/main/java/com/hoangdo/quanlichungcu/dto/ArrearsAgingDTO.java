@@ -0,0 +1,25 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArrearsAgingDTO {
+    private Long householdId;
+    private String householdCode;
+    private String ownerName;
+    private String block;
+    private String floor;
+    private String unit;
+    private BigDecimal notDue;        // Chưa đến hạn (hoặc không có hạn nộp)
+    private BigDecimal days0To30;     // Quá hạn 0-30 ngày
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal daysOver90;
+    private BigDecimal totalOutstanding;
+    private Long obligationCount;
+}
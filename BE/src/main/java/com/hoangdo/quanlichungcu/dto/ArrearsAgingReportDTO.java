@@ -0,0 +1,18 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArrearsAgingReportDTO {
+    private LocalDate asOf;
+    private String block;
+    private String floor;
+    private ArrearsAgingDTO totals;   // Cộng dồn mọi hộ trong báo cáo
+    private List<ArrearsAgingDTO> households;
+}
@@ -0,0 +1,21 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentDTO {
+    // Cách 1: danh sách (feeObligationId, paidAmount)
+    private List<PaymentDTO> items;
+    // Cách 2: thu hết phần còn nợ của hộ trong kỳ
+    private Long householdId;
+    private Long feePeriodId;
+    private String payerName;
+    private String paymentMethod;
+    private String cashier;
+    private String note;
+}
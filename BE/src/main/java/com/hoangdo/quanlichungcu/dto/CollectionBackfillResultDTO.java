@@ -0,0 +1,16 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionBackfillResultDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int rows;           // Số dòng (ngày, khoản thu, tòa) được ghi lại
+    private long elapsedMillis;
+}
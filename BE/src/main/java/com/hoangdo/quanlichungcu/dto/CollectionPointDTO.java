@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionPointDTO {
+    private LocalDate bucketStart;
+    private LocalDate bucketEnd;      // Ngày cuối của khoảng (tính cả ngày này)
+    private BigDecimal amount;
+    private Long paymentCount;
+}
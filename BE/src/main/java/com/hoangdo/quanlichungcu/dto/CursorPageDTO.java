@@ -0,0 +1,15 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // null khi đã hết dữ liệu
+    private int limit;
+}
@@ -0,0 +1,16 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyCollectionDTO {
+    private LocalDate date;
+    private BigDecimal totalCollected;
+    private Long paymentCount;
+}
@@ -12,8 +12,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class DashboardAnalyticsDTO {
-    private List<PeriodStatDTO> last5PeriodStats;
+    private List<PeriodStatDTO> periodStats;   // N kỳ gần nhất, từ cũ đến mới
     private HouseholdPaymentStatDTO bestPayingHousehold;
     private HouseholdPaymentStatDTO worstPayingHousehold;
+    private List<HouseholdPaymentStatDTO> topPayingHouseholds;     // Tỷ lệ cao nhất trước
+    private List<HouseholdPaymentStatDTO> bottomPayingHouseholds;  // Tỷ lệ thấp nhất trước
     private String previousPeriodName;
 }
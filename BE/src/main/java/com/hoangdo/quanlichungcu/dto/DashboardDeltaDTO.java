@@ -0,0 +1,24 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardDeltaDTO {
+    private long seq;                        // Tăng dần theo mỗi lần đẩy, client thấy hụt số thì tải lại
+    private LocalDateTime at;
+    private boolean snapshot;                // true = bản đầy đủ gửi khi vừa kết nối hoặc sau khi đọc lại từ DB
+    private BigDecimal collectedDelta;       // Số đã thu tăng thêm kể từ lần đẩy trước
+    private BigDecimal totalReceivable;
+    private BigDecimal totalCollected;
+    private BigDecimal collectionRate;
+    private long totalHouseholds;
+    private List<PeriodStatDTO> periods;     // Các kỳ có thay đổi (snapshot: mọi kỳ)
+    private List<HouseholdPaymentStatDTO> newlyPaidHouseholds;
+}
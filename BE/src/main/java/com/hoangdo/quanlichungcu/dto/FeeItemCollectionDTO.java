@@ -0,0 +1,18 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeItemCollectionDTO {
+    private Long feeItemId;
+    private String feeItemName;
+    private Long obligationCount;
+    private Long paidCount;
+    private BigDecimal expectedTotal;
+    private BigDecimal paidTotal;
+}
@@ -3,6 +3,7 @@ package com.hoangdo.quanlichungcu.dto;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,7 +15,9 @@ public class FeeItemDTO {
     private String name;
     private String type;
     private String unit;
+    private String vehicleType;
     private BigDecimal cost;
+    private LocalDate effectiveFrom; // Ngày đơn giá mới có hiệu lực khi đổi giá, mặc định hôm nay
     private String status;
     private String description;
     private LocalDateTime createdAt;
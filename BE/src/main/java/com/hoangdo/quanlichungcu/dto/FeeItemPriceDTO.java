@@ -0,0 +1,18 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeItemPriceDTO {
+    private Long feeItemId;
+    private String feeItemName;
+    private BigDecimal cost;
+    private LocalDate effectiveFrom;
+    private LocalDate effectiveTo;
+}
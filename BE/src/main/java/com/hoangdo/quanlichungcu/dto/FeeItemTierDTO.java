@@ -0,0 +1,15 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeItemTierDTO {
+    private Integer tierOrder;
+    private BigDecimal upTo;
+    private BigDecimal unitPrice;
+}
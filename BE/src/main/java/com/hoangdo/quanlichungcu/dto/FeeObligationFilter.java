@@ -0,0 +1,19 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeObligationFilter {
+    private Long feePeriodId;
+    private Long householdId;
+    private String status;
+    private Long feeItemId;
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+    private String keyword; // Mã hộ / tên chủ hộ / tên khoản thu chứa chuỗi này
+}
@@ -0,0 +1,19 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeObligationSummaryDTO {
+    private Long obligationCount;
+    private Long paidCount;
+    private Long partialCount;
+    private Long unpaidCount;
+    private Long overdueCount;
+    private BigDecimal expectedTotal;
+    private BigDecimal paidTotal;
+}
@@ -0,0 +1,21 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MeterReadingDTO {
+    private Long id;
+    private Long apartmentId;
+    private Long feeItemId;
+    private Long feePeriodId;
+    private BigDecimal readingValue;
+    private LocalDate readAt;
+    // Công tơ vừa thay: chỉ số là chỉ số mở đầu của công tơ mới, được phép nhỏ hơn chỉ số kỳ trước
+    private Boolean meterReplaced;
+}
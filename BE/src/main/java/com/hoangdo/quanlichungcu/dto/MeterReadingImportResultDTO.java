@@ -0,0 +1,12 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MeterReadingImportResultDTO {
+    private int imported;
+    private long elapsedMillis;
+}
@@ -0,0 +1,23 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ObligationGenerationJobDTO {
+    private Long jobId;
+    private Long feePeriodId;
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED
+    private long totalRows;
+    private long rowsDone;
+    private long rowsInserted;
+    private long rowsRemaining;
+    private double rowsPerSecond;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
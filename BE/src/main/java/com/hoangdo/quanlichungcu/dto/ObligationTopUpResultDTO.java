@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ObligationTopUpResultDTO {
+    private Long feePeriodId;
+    private int existingPairs;     // Số cặp (hộ, khoản thu) đã có công nợ trước khi bổ sung
+    private int newHouseholds;     // Hộ đang hoạt động chưa có công nợ nào trong kỳ
+    private int newFeeItems;       // Khoản thu đang áp dụng chưa có công nợ nào trong kỳ
+    private int householdsChecked;
+    private long inserted;
+    private long elapsedMillis;
+}
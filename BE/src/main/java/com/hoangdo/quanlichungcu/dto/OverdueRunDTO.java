@@ -0,0 +1,16 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OverdueRunDTO {
+    private LocalDate runDate;
+    private int overdueMarked;
+    private int lateFeeRows;
+    private long elapsedMillis;
+}
@@ -0,0 +1,23 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentDTO {
+    private Long id;
+    private Long feeObligationId;
+    private Long householdId;
+    private Long feePeriodId;
+    private BigDecimal paidAmount;
+    private String payerName;
+    private String paymentMethod;
+    private String cashier; // Người thu tiền
+    private String note;
+    private LocalDateTime paidAt;
+}
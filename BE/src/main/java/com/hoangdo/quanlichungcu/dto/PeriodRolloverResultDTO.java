@@ -0,0 +1,15 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PeriodRolloverResultDTO {
+    private Long sourcePeriodId;
+    private FeePeriodDTO period;
+    private String mode;           // REPRICE: tính lại theo đơn giá kỳ mới, CARRY: giữ nguyên số tiền kỳ trước
+    private int cloned;
+    private long elapsedMillis;
+}
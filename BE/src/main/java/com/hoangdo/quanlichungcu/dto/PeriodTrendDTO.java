@@ -0,0 +1,22 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PeriodTrendDTO {
+    private Long periodId;
+    private String periodName;
+    private LocalDate startDate;
+    private BigDecimal totalReceivable;
+    private BigDecimal totalCollected;
+    private Double collectionRate;
+    private Long obligationCount;
+    private Long paidCount;
+    private Long householdCount;
+}
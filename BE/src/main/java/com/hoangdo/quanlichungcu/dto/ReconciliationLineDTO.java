@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationLineDTO {
+    private long lineNumber;
+    private String date;
+    private BigDecimal amount;
+    private String reference;
+    private String reason; // Lý do không khớp / không rõ ràng
+}
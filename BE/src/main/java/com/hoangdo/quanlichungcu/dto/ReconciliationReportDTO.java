@@ -0,0 +1,22 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReportDTO {
+    private long totalLines;
+    private long matchedLines;
+    private long paymentsApplied;
+    private BigDecimal totalMatchedAmount;
+    private List<ReconciliationLineDTO> unmatched;
+    private List<ReconciliationLineDTO> ambiguous;
+    private List<ReconciliationLineDTO> duplicates; // Dòng đã nhập ở lần trước, không ghi lại
+    private List<ReconciliationLineDTO> failed; // Dòng thuộc lô ghi lỗi, có thể nhập lại
+    private long elapsedMillis;
+}
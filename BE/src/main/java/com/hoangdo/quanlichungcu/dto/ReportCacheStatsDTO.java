@@ -0,0 +1,20 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportCacheStatsDTO {
+    private long hits;
+    private long misses;
+    private double hitRate;         // % số lần đọc trúng cache
+    private long evictedBySize;
+    private long expired;
+    private long invalidated;       // Số khóa bị xóa do sự kiện thay đổi dữ liệu
+    private int size;
+    private int maxEntries;
+    private long ttlMillis;
+    private long loadMillisSaved;   // Ước lượng thời gian tính toán tiết kiệm được nhờ cache
+}
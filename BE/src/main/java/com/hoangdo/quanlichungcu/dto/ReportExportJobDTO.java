@@ -0,0 +1,25 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportExportJobDTO {
+    private Long jobId;
+    private String reportType; // PERIOD_LEDGER
+    private Long feePeriodId;
+    private String format; // CSV, XLSX
+    private String dataVersion;
+    private String status; // PENDING, RUNNING, DONE, FAILED, EXPIRED
+    private long rowCount;
+    private long fileSize;
+    private String fileName;
+    private boolean cached; // true = dùng lại file đã xuất cho cùng phiên bản dữ liệu
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
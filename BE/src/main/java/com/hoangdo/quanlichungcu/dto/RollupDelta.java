@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Phần chênh lệch cộng vào bảng tổng hợp cho một cặp (kỳ, hộ)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupDelta {
+    private Long feePeriodId;
+    private Long householdId;
+    private BigDecimal expected;
+    private BigDecimal paid;
+}
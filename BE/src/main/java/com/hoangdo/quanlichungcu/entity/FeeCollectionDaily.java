@@ -0,0 +1,51 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fee_collection_daily")
+@IdClass(FeeCollectionDaily.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeCollectionDaily {
+
+    @Id
+    @Column(name = "collect_date")
+    private LocalDate collectDate;
+
+    @Id
+    @Column(name = "fee_item_id")
+    private Long feeItemId;
+
+    // '' khi hộ không gắn căn hộ
+    @Id
+    @Column(length = 10)
+    private String block;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Column(name = "payment_count", nullable = false)
+    private Integer paymentCount = 0;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate collectDate;
+        private Long feeItemId;
+        private String block;
+    }
+}
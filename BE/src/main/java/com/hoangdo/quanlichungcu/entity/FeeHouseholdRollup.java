@@ -0,0 +1,44 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fee_household_rollups")
+@IdClass(FeeHouseholdRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeHouseholdRollup {
+
+    @Id
+    @Column(name = "fee_period_id")
+    private Long feePeriodId;
+
+    @Id
+    @Column(name = "household_id")
+    private Long householdId;
+
+    @Column(name = "expected_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal expectedTotal = BigDecimal.ZERO;
+
+    @Column(name = "paid_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal paidTotal = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long feePeriodId;
+        private Long householdId;
+    }
+}
@@ -30,6 +30,10 @@ public class FeeItem {
     @Column(nullable = false, length = 30)
     private String unit = "FIXED";
 
+    // Loại xe áp dụng cho khoản thu đơn vị SLOT (null = mọi loại xe)
+    @Column(name = "vehicle_type", length = 30)
+    private String vehicleType;
+
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal cost = BigDecimal.ZERO;
 
@@ -0,0 +1,40 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fee_item_prices")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeItemPrice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fee_item_id", nullable = false)
+    private Long feeItemId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal cost;
+
+    @Column(name = "effective_from", nullable = false)
+    private LocalDate effectiveFrom;
+
+    // null = còn hiệu lực
+    @Column(name = "effective_to")
+    private LocalDate effectiveTo;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
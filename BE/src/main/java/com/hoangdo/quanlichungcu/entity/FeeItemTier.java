@@ -0,0 +1,33 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "fee_item_tiers")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeeItemTier {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fee_item_id", nullable = false)
+    private Long feeItemId;
+
+    @Column(name = "tier_order", nullable = false)
+    private Integer tierOrder;
+
+    // Mức tiêu thụ cộng dồn cao nhất của bậc, null = không giới hạn
+    @Column(name = "up_to", precision = 12, scale = 2)
+    private BigDecimal upTo;
+
+    @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,42 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fee_period_closings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeePeriodClosing {
+
+    @Id
+    @Column(name = "fee_period_id")
+    private Long feePeriodId;
+
+    @Column(name = "period_name", nullable = false, length = 50)
+    private String periodName;
+
+    @Column(name = "expected_total", nullable = false, precision = 16, scale = 2)
+    private BigDecimal expectedTotal;
+
+    @Column(name = "paid_total", nullable = false, precision = 16, scale = 2)
+    private BigDecimal paidTotal;
+
+    @Column(name = "obligation_count", nullable = false)
+    private Integer obligationCount;
+
+    @Column(name = "paid_count", nullable = false)
+    private Integer paidCount;
+
+    @Column(name = "household_count", nullable = false)
+    private Integer householdCount;
+
+    @Column(name = "closed_at", insertable = false, updatable = false)
+    private LocalDateTime closedAt;
+}
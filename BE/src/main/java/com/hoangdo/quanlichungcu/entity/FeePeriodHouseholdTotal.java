@@ -0,0 +1,55 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "fee_period_household_totals")
+@IdClass(FeePeriodHouseholdTotal.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeePeriodHouseholdTotal {
+
+    @Id
+    @Column(name = "fee_period_id")
+    private Long feePeriodId;
+
+    @Id
+    @Column(name = "household_id")
+    private Long householdId;
+
+    @Column(name = "household_code", nullable = false, length = 20)
+    private String householdCode;
+
+    @Column(name = "owner_name", length = 120)
+    private String ownerName;
+
+    @Column(length = 10)
+    private String block;
+
+    @Column(length = 10)
+    private String floor;
+
+    @Column(length = 10)
+    private String unit;
+
+    @Column(name = "expected_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal expectedTotal;
+
+    @Column(name = "paid_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal paidTotal;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long feePeriodId;
+        private Long householdId;
+    }
+}
@@ -0,0 +1,49 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "fee_period_item_totals")
+@IdClass(FeePeriodItemTotal.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeePeriodItemTotal {
+
+    @Id
+    @Column(name = "fee_period_id")
+    private Long feePeriodId;
+
+    @Id
+    @Column(name = "fee_item_id")
+    private Long feeItemId;
+
+    @Column(name = "fee_item_name", nullable = false, length = 120)
+    private String feeItemName;
+
+    @Column(name = "obligation_count", nullable = false)
+    private Integer obligationCount;
+
+    @Column(name = "paid_count", nullable = false)
+    private Integer paidCount;
+
+    @Column(name = "expected_total", nullable = false, precision = 16, scale = 2)
+    private BigDecimal expectedTotal;
+
+    @Column(name = "paid_total", nullable = false, precision = 16, scale = 2)
+    private BigDecimal paidTotal;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long feePeriodId;
+        private Long feeItemId;
+    }
+}
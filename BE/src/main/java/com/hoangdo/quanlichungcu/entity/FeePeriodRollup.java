@@ -0,0 +1,30 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fee_period_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeePeriodRollup {
+
+    @Id
+    @Column(name = "fee_period_id")
+    private Long feePeriodId;
+
+    @Column(name = "expected_total", nullable = false, precision = 16, scale = 2)
+    private BigDecimal expectedTotal = BigDecimal.ZERO;
+
+    @Column(name = "paid_total", nullable = false, precision = 16, scale = 2)
+    private BigDecimal paidTotal = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+}
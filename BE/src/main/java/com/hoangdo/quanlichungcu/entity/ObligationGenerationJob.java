@@ -0,0 +1,58 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "obligation_generation_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ObligationGenerationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fee_period_id", nullable = false)
+    private Long feePeriodId;
+
+    @Column(nullable = false, length = 20)
+    private String status = "PENDING";
+
+    @Column(name = "total_rows", nullable = false)
+    private Long totalRows = 0L;
+
+    @Column(name = "processed_rows", nullable = false)
+    private Long processedRows = 0L;
+
+    @Column(name = "inserted_rows", nullable = false)
+    private Long insertedRows = 0L;
+
+    // Checkpoint: id hộ dân lớn nhất đã xử lý xong
+    @Column(name = "last_household_id", nullable = false)
+    private Long lastHouseholdId = 0L;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,53 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payments")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Payment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fee_obligation_id", nullable = false, updatable = false)
+    private Long feeObligationId;
+
+    @Column(name = "household_id", nullable = false, updatable = false)
+    private Long householdId;
+
+    @Column(name = "fee_period_id", nullable = false, updatable = false)
+    private Long feePeriodId;
+
+    @Column(nullable = false, precision = 12, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "payment_method", length = 30, updatable = false)
+    private String paymentMethod;
+
+    @Column(name = "payer_name", length = 120, updatable = false)
+    private String payerName;
+
+    @Column(length = 50, updatable = false)
+    private String cashier;
+
+    @Column(length = 255, updatable = false)
+    private String note;
+
+    @Column(name = "paid_at", nullable = false, updatable = false)
+    private LocalDateTime paidAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,64 @@
+package com.hoangdo.quanlichungcu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "report_export_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportExportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_type", nullable = false, length = 30)
+    private String reportType;
+
+    @Column(name = "fee_period_id", nullable = false)
+    private Long feePeriodId;
+
+    @Column(nullable = false, length = 10)
+    private String format; // CSV, XLSX
+
+    // Phiên bản dữ liệu của kỳ lúc tạo job, cùng phiên bản thì dùng lại file đã xuất
+    @Column(name = "data_version", nullable = false, length = 120)
+    private String dataVersion;
+
+    @Column(nullable = false, length = 20)
+    private String status = "PENDING";
+
+    @Column(name = "file_path", length = 255)
+    private String filePath;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount = 0L;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize = 0L;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
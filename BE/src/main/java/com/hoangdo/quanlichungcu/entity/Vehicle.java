@@ -6,6 +6,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Table(name = "vehicles")
@@ -16,6 +18,9 @@ import java.time.LocalDateTime;
 @Builder
 public class Vehicle {
 
+    // Loại xe lưu trong vehicles.type, dùng chung cho form FE, dữ liệu mẫu và fee_items.vehicle_type (viết hoa)
+    public static final List<String> TYPES = List.of("Car", "Motorbike", "Bicycle");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,4 +51,24 @@ public class Vehicle {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * Đưa loại xe về giá trị chuẩn trong TYPES, không phân biệt hoa thường ("Electric Bike" cũ là Bicycle)
+     * @return null nếu không thuộc danh sách
+     */
+    public static String canonicalType(String type) {
+        if (type == null) {
+            return null;
+        }
+        String upper = type.trim().toUpperCase(Locale.ROOT);
+        if ("ELECTRIC BIKE".equals(upper)) {
+            return "Bicycle";
+        }
+        for (String known : TYPES) {
+            if (known.toUpperCase(Locale.ROOT).equals(upper)) {
+                return known;
+            }
+        }
+        return null;
+    }
 }
@@ -2,8 +2,10 @@ package com.hoangdo.quanlichungcu.repository;
 
 import com.hoangdo.quanlichungcu.entity.Apartment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +17,20 @@ public interface ApartmentRepository extends JpaRepository<Apartment, Long> {
     List<Apartment> findByStatus(String status);
     
     List<Apartment> findByBlock(String block);
+    
+    /**
+     * Các số đếm của dashboard trong một câu lệnh
+     * [số hộ, số nhân khẩu, số phương tiện, số căn hộ, căn OCCUPIED, căn EMPTY]
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) FROM households), " +
+            "(SELECT COUNT(*) FROM residents), " +
+            "(SELECT COUNT(*) FROM vehicles), " +
+            "COUNT(*), " +
+            "COALESCE(SUM(CASE WHEN a.status = 'OCCUPIED' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN a.status = 'EMPTY' THEN 1 ELSE 0 END), 0) " +
+            "FROM apartments a", nativeQuery = true)
+    List<Object[]> countDashboardTotals();
+    
+    @Query("SELECT a.id FROM Apartment a WHERE a.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeeCollectionDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FeeCollectionDailyRepository extends JpaRepository<FeeCollectionDaily, FeeCollectionDaily.Key>,
+        FeeCollectionDailyRepositoryCustom {
+    
+    // [ngày, tổng tiền, số phiếu thu] mỗi ngày có thu trong khoảng, đọc theo khóa chính (collect_date, ...)
+    @Query("SELECT d.collectDate, SUM(d.amount), SUM(d.paymentCount) FROM FeeCollectionDaily d " +
+            "WHERE d.collectDate BETWEEN :from AND :to " +
+            "AND (:feeItemId IS NULL OR d.feeItemId = :feeItemId) AND (:block IS NULL OR d.block = :block) " +
+            "GROUP BY d.collectDate ORDER BY d.collectDate")
+    List<Object[]> sumByDate(LocalDate from, LocalDate to, Long feeItemId, String block);
+}
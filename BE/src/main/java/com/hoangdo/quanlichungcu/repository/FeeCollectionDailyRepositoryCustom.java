@@ -0,0 +1,26 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.Payment;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface FeeCollectionDailyRepositoryCustom {
+
+    /**
+     * Cộng các phiếu thu vừa ghi vào chuỗi theo ngày, gộp theo (ngày, khoản thu, tòa)
+     * và ghi theo thứ tự khóa để hai transaction không khóa chéo nhau
+     */
+    void applyPayments(Collection<Payment> payments);
+
+    /**
+     * Tính lại chuỗi từ sổ thu trong khoảng ngày [from, to]
+     * @return số dòng (ngày, khoản thu, tòa) được ghi lại
+     */
+    int rebuild(LocalDate from, LocalDate to);
+
+    /**
+     * Ngày của phiếu thu đầu tiên trong sổ, null nếu chưa có phiếu thu
+     */
+    LocalDate findFirstPaymentDate();
+}
@@ -0,0 +1,89 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeeCollectionDaily;
+import com.hoangdo.quanlichungcu.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class FeeCollectionDailyRepositoryCustomImpl implements FeeCollectionDailyRepositoryCustom {
+
+    private static final Comparator<FeeCollectionDaily.Key> KEY_ORDER = Comparator
+            .comparing(FeeCollectionDaily.Key::getCollectDate)
+            .thenComparing(FeeCollectionDaily.Key::getFeeItemId)
+            .thenComparing(FeeCollectionDaily.Key::getBlock);
+
+    private static final String RESOLVE_SQL =
+            "SELECT o.id, o.fee_item_id, COALESCE(a.block, '') FROM fee_obligations o " +
+            "JOIN households h ON h.id = o.household_id " +
+            "LEFT JOIN apartments a ON a.id = h.apartment_id WHERE o.id IN ";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO fee_collection_daily(collect_date, fee_item_id, block, amount, payment_count) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "amount = amount + VALUES(amount), payment_count = payment_count + VALUES(payment_count)";
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO fee_collection_daily(collect_date, fee_item_id, block, amount, payment_count) " +
+            "SELECT DATE(p.paid_at), o.fee_item_id, COALESCE(a.block, ''), SUM(p.amount), COUNT(*) " +
+            "FROM payments p " +
+            "JOIN fee_obligations o ON o.id = p.fee_obligation_id " +
+            "JOIN households h ON h.id = p.household_id " +
+            "LEFT JOIN apartments a ON a.id = h.apartment_id " +
+            "WHERE p.paid_at >= ? AND p.paid_at < ? " +
+            "GROUP BY DATE(p.paid_at), o.fee_item_id, COALESCE(a.block, '')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyPayments(Collection<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        // Khoản thu và tòa của từng công nợ: một câu lệnh cho cả lô
+        Set<Long> obligationIds = new TreeSet<>();
+        for (Payment payment : payments) {
+            obligationIds.add(payment.getFeeObligationId());
+        }
+        Map<Long, FeeCollectionDaily.Key> targets = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(obligationIds.size(), "?"));
+        jdbcTemplate.query(RESOLVE_SQL + "(" + placeholders + ")", rs -> {
+            targets.put(rs.getLong(1), new FeeCollectionDaily.Key(null, rs.getLong(2), rs.getString(3)));
+        }, obligationIds.toArray());
+
+        Map<FeeCollectionDaily.Key, Object[]> merged = new TreeMap<>(KEY_ORDER);
+        for (Payment payment : payments) {
+            FeeCollectionDaily.Key target = targets.get(payment.getFeeObligationId());
+            FeeCollectionDaily.Key key = new FeeCollectionDaily.Key(
+                    payment.getPaidAt().toLocalDate(), target.getFeeItemId(), target.getBlock());
+            Object[] totals = merged.computeIfAbsent(key, k -> new Object[]{BigDecimal.ZERO, 0});
+            totals[0] = ((BigDecimal) totals[0]).add(payment.getAmount());
+            totals[1] = (Integer) totals[1] + 1;
+        }
+
+        List<Object[]> rows = new ArrayList<>(merged.size());
+        merged.forEach((key, totals) -> rows.add(new Object[]{
+                Date.valueOf(key.getCollectDate()), key.getFeeItemId(), key.getBlock(), totals[0], totals[1]}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        jdbcTemplate.update("DELETE FROM fee_collection_daily WHERE collect_date BETWEEN ? AND ?",
+                Date.valueOf(from), Date.valueOf(to));
+        return jdbcTemplate.update(REBUILD_SQL,
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+    }
+
+    @Override
+    public LocalDate findFirstPaymentDate() {
+        Timestamp first = jdbcTemplate.queryForObject("SELECT MIN(paid_at) FROM payments", Timestamp.class);
+        return first != null ? first.toLocalDateTime().toLocalDate() : null;
+    }
+}
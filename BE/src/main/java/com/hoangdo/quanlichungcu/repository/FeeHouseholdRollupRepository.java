@@ -0,0 +1,20 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeeHouseholdRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeeHouseholdRollupRepository extends JpaRepository<FeeHouseholdRollup, FeeHouseholdRollup.Key>,
+        FeeHouseholdRollupRepositoryCustom {
+    
+    // [id hộ, mã hộ, chủ hộ, tòa, tầng, căn, tổng phải thu, tổng đã thu] của các hộ có công nợ trong kỳ
+    @Query("SELECT h.id, h.householdId, h.ownerName, a.block, a.floor, a.unit, r.expectedTotal, r.paidTotal " +
+            "FROM FeeHouseholdRollup r, Household h LEFT JOIN h.apartment a " +
+            "WHERE h.id = r.householdId AND r.feePeriodId = :periodId " +
+            "AND (r.expectedTotal <> 0 OR r.paidTotal <> 0)")
+    List<Object[]> findHouseholdStats(Long periodId);
+}
@@ -0,0 +1,36 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import com.hoangdo.quanlichungcu.entity.FeeHouseholdRollup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface FeeHouseholdRollupRepositoryCustom {
+
+    /**
+     * Cộng dồn chênh lệch vào bảng tổng hợp theo hộ và theo kỳ bằng JDBC batch
+     * @param deltas đã gộp theo (kỳ, hộ) và sắp xếp theo khóa để các transaction khóa dòng cùng thứ tự
+     */
+    void applyDeltas(List<RollupDelta> deltas);
+    
+    /**
+     * Cộng phần phí phạt sắp được sinh bởi FeeObligationRepository.accrueLateFees,
+     * phải gọi trước accrueLateFees/markOverdue trong cùng transaction
+     */
+    void accrueLateFees(LocalDate today, Long lateFeeItemId, BigDecimal rate, BigDecimal fixedAmount);
+    
+    /**
+     * Tính lại bảng tổng hợp từ fee_obligations
+     * @param feePeriodId chỉ tính lại một kỳ (null = toàn bộ)
+     */
+    void rebuild(Long feePeriodId);
+    
+    /**
+     * Các (kỳ, hộ) trong keys đã thu đủ (paid_total >= expected_total > 0)
+     * @return [id kỳ, id hộ, mã hộ, chủ hộ, tòa, tầng, căn, tổng phải thu, tổng đã thu]
+     */
+    List<Object[]> findSettled(Collection<FeeHouseholdRollup.Key> keys);
+}
@@ -0,0 +1,128 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import com.hoangdo.quanlichungcu.entity.FeeHouseholdRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class FeeHouseholdRollupRepositoryCustomImpl implements FeeHouseholdRollupRepositoryCustom {
+
+    private static final String UPSERT_HOUSEHOLD_SQL =
+            "INSERT INTO fee_household_rollups(fee_period_id, household_id, expected_total, paid_total) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "expected_total = expected_total + VALUES(expected_total), paid_total = paid_total + VALUES(paid_total)";
+
+    private static final String UPSERT_PERIOD_SQL =
+            "INSERT INTO fee_period_rollups(fee_period_id, expected_total, paid_total) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "expected_total = expected_total + VALUES(expected_total), paid_total = paid_total + VALUES(paid_total)";
+
+    private static final String ACCRUE_HOUSEHOLD_SQL =
+            "INSERT INTO fee_household_rollups(fee_period_id, household_id, expected_total, paid_total) " +
+            "SELECT t.fee_period_id, t.household_id, t.late_fee, 0 " +
+            "FROM (" + FeeObligationRepositoryCustom.LATE_FEE_SELECT + ") t " +
+            "ON DUPLICATE KEY UPDATE expected_total = fee_household_rollups.expected_total + t.late_fee";
+
+    private static final String ACCRUE_PERIOD_SQL =
+            "INSERT INTO fee_period_rollups(fee_period_id, expected_total, paid_total) " +
+            "SELECT t.fee_period_id, SUM(t.late_fee), 0 " +
+            "FROM (" + FeeObligationRepositoryCustom.LATE_FEE_SELECT + ") t GROUP BY t.fee_period_id " +
+            "ON DUPLICATE KEY UPDATE expected_total = fee_period_rollups.expected_total + VALUES(expected_total)";
+
+    private static final String REBUILD_HOUSEHOLD_SQL =
+            "INSERT INTO fee_household_rollups(fee_period_id, household_id, expected_total, paid_total) " +
+            "SELECT fee_period_id, household_id, SUM(expected_amount), SUM(paid_amount) FROM fee_obligations ";
+
+    private static final String REBUILD_PERIOD_SQL =
+            "INSERT INTO fee_period_rollups(fee_period_id, expected_total, paid_total) " +
+            "SELECT fee_period_id, SUM(expected_amount), SUM(paid_amount) FROM fee_obligations ";
+
+    private static final String SETTLED_SQL =
+            "SELECT r.fee_period_id, h.id, h.household_id, h.owner_name, a.block, a.floor, a.unit, " +
+            "r.expected_total, r.paid_total " +
+            "FROM fee_household_rollups r " +
+            "JOIN households h ON h.id = r.household_id " +
+            "LEFT JOIN apartments a ON a.id = h.apartment_id " +
+            "WHERE r.expected_total > 0 AND r.paid_total >= r.expected_total AND (r.fee_period_id, r.household_id) IN ";
+
+    private static final int SETTLED_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyDeltas(List<RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_HOUSEHOLD_SQL, deltas, deltas.size(), (ps, d) -> {
+            ps.setLong(1, d.getFeePeriodId());
+            ps.setLong(2, d.getHouseholdId());
+            ps.setBigDecimal(3, d.getExpected());
+            ps.setBigDecimal(4, d.getPaid());
+        });
+
+        Map<Long, BigDecimal[]> byPeriod = new TreeMap<>();
+        for (RollupDelta d : deltas) {
+            BigDecimal[] totals = byPeriod.computeIfAbsent(d.getFeePeriodId(),
+                    k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            totals[0] = totals[0].add(d.getExpected());
+            totals[1] = totals[1].add(d.getPaid());
+        }
+        List<Object[]> rows = new ArrayList<>(byPeriod.size());
+        byPeriod.forEach((periodId, totals) -> rows.add(new Object[]{periodId, totals[0], totals[1]}));
+        jdbcTemplate.batchUpdate(UPSERT_PERIOD_SQL, rows);
+    }
+
+    @Override
+    public void accrueLateFees(LocalDate today, Long lateFeeItemId, BigDecimal rate, BigDecimal fixedAmount) {
+        Object[] args = {rate, fixedAmount, Date.valueOf(today), lateFeeItemId};
+        jdbcTemplate.update(ACCRUE_HOUSEHOLD_SQL, args);
+        jdbcTemplate.update(ACCRUE_PERIOD_SQL, args);
+    }
+
+    @Override
+    public void rebuild(Long feePeriodId) {
+        if (feePeriodId == null) {
+            jdbcTemplate.update("DELETE FROM fee_household_rollups");
+            jdbcTemplate.update("DELETE FROM fee_period_rollups");
+            jdbcTemplate.update(REBUILD_HOUSEHOLD_SQL + "GROUP BY fee_period_id, household_id");
+            jdbcTemplate.update(REBUILD_PERIOD_SQL + "GROUP BY fee_period_id");
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM fee_household_rollups WHERE fee_period_id = ?", feePeriodId);
+        jdbcTemplate.update("DELETE FROM fee_period_rollups WHERE fee_period_id = ?", feePeriodId);
+        jdbcTemplate.update(REBUILD_HOUSEHOLD_SQL + "WHERE fee_period_id = ? GROUP BY fee_period_id, household_id", feePeriodId);
+        jdbcTemplate.update(REBUILD_PERIOD_SQL + "WHERE fee_period_id = ? GROUP BY fee_period_id", feePeriodId);
+    }
+
+    @Override
+    public List<Object[]> findSettled(Collection<FeeHouseholdRollup.Key> keys) {
+        List<FeeHouseholdRollup.Key> all = new ArrayList<>(keys);
+        List<Object[]> rows = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += SETTLED_CHUNK_SIZE) {
+            List<FeeHouseholdRollup.Key> chunk = all.subList(from, Math.min(from + SETTLED_CHUNK_SIZE, all.size()));
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[2 * i] = chunk.get(i).getFeePeriodId();
+                args[2 * i + 1] = chunk.get(i).getHouseholdId();
+            }
+            String tuples = String.join(",", Collections.nCopies(chunk.size(), "(?, ?)"));
+            rows.addAll(jdbcTemplate.query(SETTLED_SQL + "(" + tuples + ")", (rs, n) -> new Object[]{
+                    rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), rs.getString(6), rs.getString(7),
+                    rs.getBigDecimal(8), rs.getBigDecimal(9)}, args));
+        }
+        return rows;
+    }
+}
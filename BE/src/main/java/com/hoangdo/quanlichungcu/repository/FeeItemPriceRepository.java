@@ -0,0 +1,23 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeeItemPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FeeItemPriceRepository extends JpaRepository<FeeItemPrice, Long> {
+    
+    List<FeeItemPrice> findByFeeItemIdOrderByEffectiveFromAsc(Long feeItemId);
+    
+    List<FeeItemPrice> findByFeeItemIdInOrderByFeeItemIdAscEffectiveFromAsc(Collection<Long> feeItemIds);
+    
+    Optional<FeeItemPrice> findFirstByFeeItemIdOrderByEffectiveFromDesc(Long feeItemId);
+    
+    @Modifying
+    void deleteByFeeItemId(Long feeItemId);
+}
@@ -14,6 +14,8 @@ public interface FeeItemRepository extends JpaRepository<FeeItem, Long> {
     
     List<FeeItem> findByStatus(String status);
     
+    long countByStatus(String status);
+    
     List<FeeItem> findByType(String type);
     
     boolean existsByName(String name);
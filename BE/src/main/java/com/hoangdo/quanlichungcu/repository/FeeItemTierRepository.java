@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeeItemTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeeItemTierRepository extends JpaRepository<FeeItemTier, Long> {
+    
+    List<FeeItemTier> findByFeeItemIdOrderByTierOrderAsc(Long feeItemId);
+    
+    @Modifying
+    void deleteByFeeItemId(Long feeItemId);
+}
@@ -1,53 +1,114 @@
 package com.hoangdo.quanlichungcu.repository;
 
+import com.hoangdo.quanlichungcu.dto.FeeItemCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
 import com.hoangdo.quanlichungcu.entity.FeeObligation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface FeeObligationRepository extends JpaRepository<FeeObligation, Long> {
+public interface FeeObligationRepository extends JpaRepository<FeeObligation, Long>, FeeObligationRepositoryCustom {
     
-    List<FeeObligation> findByHouseholdId(Long householdId);
+    // Projection đọc thẳng ra DTO trong một câu SQL (join hộ dân + kỳ thu), tránh N+1 lazy load
+    String DTO_SELECT = "SELECT new com.hoangdo.quanlichungcu.dto.FeeObligationDTO(" +
+            "f.id, h.id, h.householdId, h.ownerName, f.feeItem.id, f.feeItemName, p.id, f.periodYm, p.status, " +
+            "f.expectedAmount, f.paidAmount, f.dueDate, f.status, f.payerName, f.paidAt, f.paymentMethod, f.note, " +
+            "f.createdAt, f.updatedAt) " +
+            "FROM FeeObligation f JOIN f.household h JOIN f.feePeriod p ";
     
-    List<FeeObligation> findByFeePeriodId(Long feePeriodId);
+    @Query(DTO_SELECT + "WHERE f.id = :id")
+    Optional<FeeObligationDTO> findDtoById(Long id);
     
-    List<FeeObligation> findByStatus(String status);
+    @Query(DTO_SELECT + "WHERE f.id IN :ids ORDER BY f.id")
+    List<FeeObligationDTO> findDtoByIdIn(Collection<Long> ids);
     
-    List<FeeObligation> findByHouseholdIdAndFeePeriodId(Long householdId, Long feePeriodId);
+    @Query(DTO_SELECT + "WHERE h.id = :householdId ORDER BY f.id")
+    List<FeeObligationDTO> findByHouseholdId(Long householdId);
     
-    List<FeeObligation> findByHouseholdIdAndStatus(Long householdId, String status);
+    @Query(DTO_SELECT + "WHERE p.id = :feePeriodId ORDER BY f.id")
+    List<FeeObligationDTO> findByFeePeriodId(Long feePeriodId);
     
-    @Query("SELECT SUM(f.expectedAmount) FROM FeeObligation f WHERE f.feePeriod.id = :periodId")
-    BigDecimal sumExpectedAmountByPeriodId(Long periodId);
+    @Query(DTO_SELECT + "WHERE f.status = :status ORDER BY f.id")
+    List<FeeObligationDTO> findByStatus(String status);
     
-    @Query("SELECT SUM(f.paidAmount) FROM FeeObligation f WHERE f.feePeriod.id = :periodId")
-    BigDecimal sumPaidAmountByPeriodId(Long periodId);
+    @Query(DTO_SELECT + "WHERE h.id = :householdId AND p.id = :feePeriodId ORDER BY f.id")
+    List<FeeObligationDTO> findByHouseholdIdAndFeePeriodId(Long householdId, Long feePeriodId);
     
-    @Query("SELECT SUM(f.expectedAmount) FROM FeeObligation f WHERE f.household.id = :householdId AND f.status = 'UNPAID'")
+    @Query(DTO_SELECT + "WHERE h.id = :householdId AND f.status = :status ORDER BY f.id")
+    List<FeeObligationDTO> findByHouseholdIdAndStatus(Long householdId, String status);
+    
+    /**
+     * Cộng tiền thu vào công nợ bằng một câu UPDATE nguyên tử, không đọc-rồi-ghi
+     * MySQL gán SET theo thứ tự từ trái sang phải nên status phải đứng trước paidAmount.
+     * Điều kiện kỳ chưa chốt đọc fee_periods bằng khóa chia sẻ nên không chạy song song được với thao tác chốt sổ
+     * @return số dòng bị ảnh hưởng (0 nếu không tìm thấy công nợ hoặc kỳ đã chốt)
+     */
+    @Modifying
+    @Query("UPDATE FeeObligation f SET " +
+            "f.status = CASE WHEN f.paidAmount + :amount >= f.expectedAmount THEN 'PAID' " +
+            "WHEN f.status = 'OVERDUE' THEN f.status " +
+            "WHEN f.paidAmount + :amount > 0 THEN 'PARTIAL' ELSE f.status END, " +
+            "f.paidAmount = f.paidAmount + :amount, " +
+            "f.payerName = :payerName, f.paymentMethod = :paymentMethod, f.paidAt = :paidAt, " +
+            "f.note = :note, f.updatedAt = :paidAt " +
+            "WHERE f.id = :id AND f.feePeriod.id IN (SELECT p.id FROM FeePeriod p WHERE p.status <> 'CLOSED')")
+    int applyPayment(Long id, BigDecimal amount, String payerName, String paymentMethod, LocalDateTime paidAt, String note);
+    
+    // Khóa các công nợ còn nợ của hộ trong kỳ cho tới hết transaction thu tiền
+    @Query(value = "SELECT id, expected_amount - paid_amount FROM fee_obligations " +
+            "WHERE household_id = :householdId AND fee_period_id = :feePeriodId AND paid_amount < expected_amount " +
+            "AND fee_period_id IN (SELECT id FROM fee_periods WHERE status <> 'CLOSED') " +
+            "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockOutstanding(Long householdId, Long feePeriodId);
+    
+    // [id công nợ, id hộ, mã hộ, id kỳ, tên kỳ, số tiền còn nợ] - dựng chỉ mục đối soát sao kê
+    @Query("SELECT f.id, h.id, h.householdId, p.id, f.periodYm, f.expectedAmount - f.paidAmount " +
+            "FROM FeeObligation f JOIN f.household h JOIN f.feePeriod p " +
+            "WHERE f.paidAmount < f.expectedAmount AND p.status <> 'CLOSED' ORDER BY h.id, f.dueDate, f.id")
+    List<Object[]> findOutstandingForReconciliation();
+    
+    // Số còn nợ của hộ, tính cả phần còn lại của công nợ PARTIAL / OVERDUE
+    @Query("SELECT COALESCE(SUM(f.expectedAmount - f.paidAmount), 0) FROM FeeObligation f " +
+            "WHERE f.household.id = :householdId AND f.status IN ('UNPAID', 'PARTIAL', 'OVERDUE')")
     BigDecimal sumUnpaidAmountByHouseholdId(Long householdId);
-
-    @Query("SELECT SUM(f.expectedAmount) FROM FeeObligation f WHERE f.periodYm = :periodYm")
-    BigDecimal sumExpectedByPeriod(String periodYm);
-
-    @Query("SELECT SUM(f.paidAmount) FROM FeeObligation f WHERE f.periodYm = :periodYm")
-    BigDecimal sumPaidByPeriod(String periodYm);
-
-    @Query("SELECT SUM(f.expectedAmount) FROM FeeObligation f")
-    BigDecimal sumAllExpected();
-
-    @Query("SELECT SUM(f.paidAmount) FROM FeeObligation f")
-    BigDecimal sumAllPaid();
     
-    @Query("SELECT SUM(f.expectedAmount) FROM FeeObligation f WHERE f.feePeriod.id = :periodId AND f.household.id = :householdId")
-    BigDecimal sumExpectedByPeriodAndHousehold(Long periodId, Long householdId);
+    /**
+     * Tuổi nợ theo hộ trong một câu GROUP BY, đọc các dòng còn nợ qua idx_obligation_status_due
+     * [id hộ, mã hộ, chủ hộ, tòa, tầng, căn, chưa đến hạn, 0-30, 31-60, 61-90, trên 90, tổng còn nợ, số công nợ]
+     */
+    @Query(value = "SELECT h.id, h.household_id, h.owner_name, a.block, a.floor, a.unit, " +
+            "SUM(CASE WHEN o.due_date IS NULL OR o.due_date > :asOf THEN o.expected_amount - o.paid_amount ELSE 0 END), " +
+            "SUM(CASE WHEN DATEDIFF(:asOf, o.due_date) BETWEEN 0 AND 30 THEN o.expected_amount - o.paid_amount ELSE 0 END), " +
+            "SUM(CASE WHEN DATEDIFF(:asOf, o.due_date) BETWEEN 31 AND 60 THEN o.expected_amount - o.paid_amount ELSE 0 END), " +
+            "SUM(CASE WHEN DATEDIFF(:asOf, o.due_date) BETWEEN 61 AND 90 THEN o.expected_amount - o.paid_amount ELSE 0 END), " +
+            "SUM(CASE WHEN DATEDIFF(:asOf, o.due_date) > 90 THEN o.expected_amount - o.paid_amount ELSE 0 END), " +
+            "SUM(o.expected_amount - o.paid_amount), COUNT(*) " +
+            "FROM fee_obligations o " +
+            "JOIN households h ON h.id = o.household_id " +
+            "LEFT JOIN apartments a ON a.id = h.apartment_id " +
+            "WHERE o.status IN ('UNPAID', 'PARTIAL', 'OVERDUE') AND o.paid_amount < o.expected_amount " +
+            "AND (:block IS NULL OR a.block = :block) AND (:floor IS NULL OR a.floor = :floor) " +
+            "GROUP BY h.id, h.household_id, h.owner_name, a.block, a.floor, a.unit " +
+            "ORDER BY SUM(o.expected_amount - o.paid_amount) DESC", nativeQuery = true)
+    List<Object[]> findArrearsAging(LocalDate asOf, String block, String floor);
+    
+    boolean existsByFeePeriodId(Long feePeriodId);
     
-    @Query("SELECT SUM(f.paidAmount) FROM FeeObligation f WHERE f.feePeriod.id = :periodId AND f.household.id = :householdId")
-    BigDecimal sumPaidByPeriodAndHousehold(Long periodId, Long householdId);
+    // Tổng theo khoản thu của kỳ chưa chốt sổ (kỳ đã chốt đọc fee_period_item_totals)
+    @Query("SELECT new com.hoangdo.quanlichungcu.dto.FeeItemCollectionDTO(f.feeItem.id, MAX(f.feeItemName), COUNT(f), " +
+            "SUM(CASE WHEN f.status = 'PAID' THEN 1L ELSE 0L END), SUM(f.expectedAmount), SUM(f.paidAmount)) " +
+            "FROM FeeObligation f WHERE f.feePeriod.id = :periodId GROUP BY f.feeItem.id ORDER BY MAX(f.feeItemName)")
+    List<FeeItemCollectionDTO> sumByFeeItem(Long periodId);
     
-    @Query("SELECT DISTINCT f.household.id FROM FeeObligation f WHERE f.feePeriod.id = :periodId")
-    List<Long> findDistinctHouseholdIdsByPeriodId(Long periodId);
+    @Query("SELECT f.household.id, f.feeItem.id FROM FeeObligation f WHERE f.feePeriod.id = :periodId AND f.household.id BETWEEN :fromHouseholdId AND :toHouseholdId")
+    List<Object[]> findHouseholdItemPairs(Long periodId, Long fromHouseholdId, Long toHouseholdId);
 }
@@ -0,0 +1,118 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationFilter;
+import com.hoangdo.quanlichungcu.dto.FeeObligationSummaryDTO;
+import com.hoangdo.quanlichungcu.entity.FeeObligation;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.entity.Payment;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface FeeObligationRepositoryCustom {
+
+    @FunctionalInterface
+    interface PeriodRowConsumer {
+        void accept(long householdId, long feeItemId, String status, BigDecimal expectedAmount, BigDecimal paidAmount);
+    }
+
+    @FunctionalInterface
+    interface LedgerRowConsumer {
+        // Mảng row được dùng lại cho mọi dòng, không giữ tham chiếu sau khi trả về
+        void accept(Object[] row) throws IOException;
+    }
+
+    // Chỉ đọc các dòng chưa bị đánh dấu OVERDUE nên mỗi lần chạy chỉ quét phần vừa đến hạn trên
+    // idx_obligation_status_due. Dòng phí phạt không có due_date nên không bao giờ bị phạt chồng.
+    String OVERDUE_CONDITION =
+            "o.status IN ('UNPAID', 'PARTIAL') AND o.due_date < ? AND o.paid_amount < o.expected_amount " +
+            "AND o.fee_period_id IN (SELECT p.id FROM fee_periods p WHERE p.status <> 'CLOSED')";
+
+    // Phí phạt theo (hộ, kỳ); tham số: tỷ lệ, phí cố định, ngày chạy, id khoản thu phí phạt
+    String LATE_FEE_SELECT =
+            "SELECT o.household_id, o.fee_period_id, MAX(o.period_ym) AS period_ym, " +
+            "ROUND(SUM(o.expected_amount - o.paid_amount) * ? + COUNT(*) * ?, 0) AS late_fee " +
+            "FROM fee_obligations o WHERE " + OVERDUE_CONDITION + " AND o.fee_item_id <> ? " +
+            "GROUP BY o.household_id, o.fee_period_id HAVING late_fee > 0";
+
+    /**
+     * Ghi nhiều công nợ bằng JDBC batch (không đi qua persistence context)
+     * @param obligations danh sách công nợ chưa có id
+     * @return số dòng đã ghi
+     */
+    int batchInsert(List<FeeObligation> obligations);
+    
+    /**
+     * Phân trang keyset theo id giảm dần, kết hợp các bộ lọc
+     * @param filter các điều kiện lọc (null = bỏ qua)
+     * @param beforeId chỉ lấy các công nợ có id nhỏ hơn giá trị này (null = trang đầu)
+     * @param limit số dòng tối đa
+     */
+    List<FeeObligationDTO> findPage(FeeObligationFilter filter, Long beforeId, int limit);
+    
+    /**
+     * Tổng số công nợ / số tiền theo trạng thái trên toàn bộ kết quả lọc (không phân trang)
+     * @param filter cùng bộ lọc với findPage
+     */
+    FeeObligationSummaryDTO summarize(FeeObligationFilter filter);
+    
+    /**
+     * Cộng tiền cho nhiều công nợ trong một lượt JDBC batch (cùng câu UPDATE nguyên tử như khi thu lẻ)
+     * @param payments phiếu thu chưa ghi sổ, mỗi phiếu ứng với một câu UPDATE
+     * @return số dòng bị ảnh hưởng theo đúng thứ tự của payments
+     */
+    int[] applyPayments(List<Payment> payments);
+    
+    /**
+     * Cộng phí phạt cho các công nợ UNPAID/PARTIAL có hạn nộp trước ngày today,
+     * gộp thành một dòng phí phạt cho mỗi (hộ, kỳ) bằng một câu INSERT ... SELECT
+     * @param lateFeeItemId khoản thu phí phạt
+     * @param rate tỷ lệ phạt trên số tiền còn nợ
+     * @param fixedAmount phí phạt cố định cho mỗi công nợ quá hạn
+     * @return số dòng bị ảnh hưởng (theo cách đếm của MySQL: 1 nếu thêm, 2 nếu cộng dồn)
+     */
+    int accrueLateFees(LocalDate today, Long lateFeeItemId, String lateFeeItemName, BigDecimal rate, BigDecimal fixedAmount);
+    
+    /**
+     * Chuyển các công nợ UNPAID/PARTIAL có hạn nộp trước ngày today sang OVERDUE bằng một câu UPDATE
+     * @return số công nợ vừa quá hạn
+     */
+    int markOverdue(LocalDate today);
+
+    /**
+     * Các cặp (hộ, khoản thu) đã có công nợ trong kỳ, mỗi cặp nén thành một long (household_id << 32 | fee_item_id)
+     * @return mảng đã sắp xếp tăng dần, dùng tìm kiếm nhị phân
+     */
+    long[] findPackedHouseholdItemPairs(Long feePeriodId);
+
+    /**
+     * Sao chép cấu trúc công nợ của kỳ nguồn sang kỳ mới bằng một câu INSERT ... SELECT chạy trong MySQL.
+     * Bỏ qua hộ / khoản thu đã ngưng, phí phạt và khoản thu theo công tơ (cần chỉ số kỳ mới)
+     * @param reprice true = nhân số tiền với tỷ lệ đơn giá kỳ mới / kỳ nguồn, false = giữ nguyên số tiền
+     * @return số công nợ đã tạo
+     */
+    int cloneForRollover(FeePeriod source, FeePeriod target, LocalDate dueDate, boolean reprice);
+
+    /**
+     * Duyệt toàn bộ công nợ của kỳ theo thứ tự (hộ, khoản thu) bằng một truy vấn, không nạp entity
+     */
+    void scanPeriod(Long feePeriodId, PeriodRowConsumer consumer);
+
+    /**
+     * Đọc sổ công nợ của kỳ bằng một con trỏ chỉ-tiến (forward-only), mỗi dòng gồm: id công nợ, mã hộ, chủ hộ,
+     * tòa, tầng, căn, khoản thu, kỳ, phải thu, đã thu, còn nợ, trạng thái, hạn nộp, ngày nộp, hình thức, người nộp, ghi chú.
+     * Thông tin hộ của kỳ đã chốt lấy từ bản chốt fee_period_household_totals
+     * @param fetchSize số dòng mỗi lượt lấy từ server (Integer.MIN_VALUE = MySQL trả từng dòng)
+     * @return số dòng đã đọc
+     */
+    long streamLedger(Long feePeriodId, int fetchSize, LedgerRowConsumer consumer);
+
+    /**
+     * Dấu phiên bản dữ liệu sổ công nợ của kỳ chưa chốt: số dòng, tổng phải thu / đã thu và
+     * thời điểm sửa gần nhất của công nợ, hộ dân, căn hộ. Đổi bất kỳ dữ liệu nào trong sổ thì dấu đổi theo
+     */
+    String findLedgerVersion(Long feePeriodId);
+}
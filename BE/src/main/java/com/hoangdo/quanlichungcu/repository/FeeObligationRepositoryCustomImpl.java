@@ -0,0 +1,321 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationFilter;
+import com.hoangdo.quanlichungcu.dto.FeeObligationSummaryDTO;
+import com.hoangdo.quanlichungcu.entity.FeeObligation;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.entity.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class FeeObligationRepositoryCustomImpl implements FeeObligationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO fee_obligations(household_id, fee_item_id, fee_period_id, fee_item_name, period_ym, " +
+            "expected_amount, paid_amount, due_date, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // MySQL gán SET từ trái sang phải: status tính trên paid_amount cũ
+    private static final String APPLY_PAYMENT_SQL =
+            "UPDATE fee_obligations SET " +
+            "status = CASE WHEN paid_amount + ? >= expected_amount THEN 'PAID' " +
+            "WHEN status = 'OVERDUE' THEN status WHEN paid_amount + ? > 0 THEN 'PARTIAL' ELSE status END, " +
+            "paid_amount = paid_amount + ?, payer_name = ?, payment_method = ?, paid_at = ?, note = ?, updated_at = ? " +
+            "WHERE id = ? AND fee_period_id IN (SELECT id FROM fee_periods WHERE status <> 'CLOSED')";
+
+    // Đơn giá hiệu lực tại một ngày: phiên bản bắt đầu gần nhất không sau ngày đó
+    // (ngày rơi vào khoảng trống giữa hai phiên bản vẫn lấy phiên bản trước, như FeeItemPriceIndex)
+    private static final String PRICE_AT =
+            "fee_item_prices %1$s ON %1$s.fee_item_id = o.fee_item_id AND %1$s.effective_from = " +
+            "(SELECT MAX(v.effective_from) FROM fee_item_prices v WHERE v.fee_item_id = o.fee_item_id AND v.effective_from <= ?)";
+
+    private static final String ROLLOVER_SQL =
+            "INSERT INTO fee_obligations(household_id, fee_item_id, fee_period_id, fee_item_name, period_ym, " +
+            "expected_amount, paid_amount, due_date, status) " +
+            "SELECT o.household_id, o.fee_item_id, ?, f.name, ?, " +
+            "CASE WHEN ? = 1 AND np.cost IS NOT NULL AND op.cost > 0 " +
+            "THEN ROUND(o.expected_amount * np.cost / op.cost, 0) ELSE o.expected_amount END, " +
+            "0, ?, 'UNPAID' " +
+            "FROM fee_obligations o " +
+            "JOIN households h ON h.id = o.household_id AND h.status = 'ACTIVE' " +
+            "JOIN fee_items f ON f.id = o.fee_item_id AND f.status = 'ACTIVE' " +
+            "AND f.type <> 'PENALTY' AND f.unit NOT IN ('KWH', 'M3') " +
+            "LEFT JOIN " + String.format(PRICE_AT, "op") + " " +
+            "LEFT JOIN " + String.format(PRICE_AT, "np") + " " +
+            "WHERE o.fee_period_id = ?";
+
+    private static final String ACCRUE_LATE_FEE_SQL =
+            "INSERT INTO fee_obligations(household_id, fee_item_id, fee_period_id, fee_item_name, period_ym, " +
+            "expected_amount, paid_amount, status, note) " +
+            "SELECT t.household_id, ?, t.fee_period_id, ?, t.period_ym, t.late_fee, 0, 'UNPAID', ? " +
+            "FROM (" + LATE_FEE_SELECT + ") t " +
+            "ON DUPLICATE KEY UPDATE " +
+            "status = CASE WHEN fee_obligations.paid_amount > 0 THEN 'PARTIAL' ELSE 'UNPAID' END, " +
+            "expected_amount = fee_obligations.expected_amount + t.late_fee";
+
+    private static final String MARK_OVERDUE_SQL =
+            "UPDATE fee_obligations o SET o.status = 'OVERDUE' WHERE " + OVERDUE_CONDITION;
+
+    // Duyệt theo id trên idx_obligation_period nên MySQL trả dòng ngay, không phải sắp xếp cả kỳ trước
+    private static final String LEDGER_SQL =
+            "SELECT o.id, COALESCE(t.household_code, h.household_id), COALESCE(t.owner_name, h.owner_name), " +
+            "COALESCE(t.block, a.block), COALESCE(t.floor, a.floor), COALESCE(t.unit, a.unit), " +
+            "o.fee_item_name, o.period_ym, o.expected_amount, o.paid_amount, o.expected_amount - o.paid_amount, " +
+            "o.status, o.due_date, o.paid_at, o.payment_method, o.payer_name, o.note " +
+            "FROM fee_obligations o " +
+            "JOIN households h ON h.id = o.household_id " +
+            "JOIN apartments a ON a.id = h.apartment_id " +
+            "LEFT JOIN fee_period_household_totals t ON t.fee_period_id = o.fee_period_id AND t.household_id = o.household_id " +
+            "WHERE o.fee_period_id = ? ORDER BY o.id";
+
+    private static final String LEDGER_VERSION_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(o.expected_amount), 0), COALESCE(SUM(o.paid_amount), 0), " +
+            "MAX(COALESCE(o.updated_at, o.created_at)), " +
+            "(SELECT MAX(COALESCE(h.updated_at, h.created_at)) FROM households h), " +
+            "(SELECT MAX(COALESCE(a.updated_at, a.created_at)) FROM apartments a) " +
+            "FROM fee_obligations o WHERE o.fee_period_id = ?";
+
+    // Cùng JOIN với DTO_SELECT để bộ lọc theo hộ dân dùng chung được
+    private static final String SUMMARY_SELECT =
+            "SELECT new com.hoangdo.quanlichungcu.dto.FeeObligationSummaryDTO(COUNT(f), " +
+            "SUM(CASE WHEN f.status = 'PAID' THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN f.status = 'PARTIAL' THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN f.status = 'UNPAID' THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN f.status = 'OVERDUE' THEN 1L ELSE 0L END), " +
+            "SUM(f.expectedAmount), SUM(f.paidAmount)) " +
+            "FROM FeeObligation f JOIN f.household h JOIN f.feePeriod p ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int batchInsert(List<FeeObligation> obligations) {
+        if (obligations.isEmpty()) {
+            return 0;
+        }
+        // rewriteBatchedStatements=true trên URL giúp driver gộp thành INSERT nhiều dòng
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, obligations, obligations.size(), (ps, o) -> {
+            ps.setLong(1, o.getHousehold().getId());
+            ps.setLong(2, o.getFeeItem().getId());
+            ps.setLong(3, o.getFeePeriod().getId());
+            ps.setString(4, o.getFeeItemName());
+            ps.setString(5, o.getPeriodYm());
+            ps.setBigDecimal(6, o.getExpectedAmount());
+            ps.setBigDecimal(7, o.getPaidAmount());
+            ps.setDate(8, o.getDueDate() != null ? Date.valueOf(o.getDueDate()) : null);
+            ps.setString(9, o.getStatus());
+        });
+        int total = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) khi driver gộp câu lệnh
+                total += count >= 0 ? count : 1;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public List<FeeObligationDTO> findPage(FeeObligationFilter filter, Long beforeId, int limit) {
+        StringBuilder jpql = new StringBuilder(FeeObligationRepository.DTO_SELECT).append("WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilter(filter, jpql, params);
+        if (beforeId != null) {
+            jpql.append(" AND f.id < :beforeId");
+            params.put("beforeId", beforeId);
+        }
+        jpql.append(" ORDER BY f.id DESC");
+
+        TypedQuery<FeeObligationDTO> query = entityManager.createQuery(jpql.toString(), FeeObligationDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public FeeObligationSummaryDTO summarize(FeeObligationFilter filter) {
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT).append("WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilter(filter, jpql, params);
+
+        TypedQuery<FeeObligationSummaryDTO> query =
+                entityManager.createQuery(jpql.toString(), FeeObligationSummaryDTO.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private void appendFilter(FeeObligationFilter filter, StringBuilder jpql, Map<String, Object> params) {
+        if (filter.getFeePeriodId() != null) {
+            jpql.append(" AND f.feePeriod.id = :periodId");
+            params.put("periodId", filter.getFeePeriodId());
+        }
+        if (filter.getHouseholdId() != null) {
+            jpql.append(" AND f.household.id = :householdId");
+            params.put("householdId", filter.getHouseholdId());
+        }
+        if (filter.getStatus() != null) {
+            jpql.append(" AND f.status = :status");
+            params.put("status", filter.getStatus());
+        }
+        if (filter.getFeeItemId() != null) {
+            jpql.append(" AND f.feeItem.id = :feeItemId");
+            params.put("feeItemId", filter.getFeeItemId());
+        }
+        if (filter.getDueFrom() != null) {
+            jpql.append(" AND f.dueDate >= :dueFrom");
+            params.put("dueFrom", filter.getDueFrom());
+        }
+        if (filter.getDueTo() != null) {
+            jpql.append(" AND f.dueDate <= :dueTo");
+            params.put("dueTo", filter.getDueTo());
+        }
+        if (filter.getKeyword() != null && !filter.getKeyword().isBlank()) {
+            jpql.append(" AND (LOWER(h.householdId) LIKE :keyword OR LOWER(h.ownerName) LIKE :keyword" +
+                    " OR LOWER(f.feeItemName) LIKE :keyword)");
+            params.put("keyword", "%" + filter.getKeyword().trim().toLowerCase(Locale.ROOT) + "%");
+        }
+    }
+
+    @Override
+    public int[] applyPayments(List<Payment> payments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(APPLY_PAYMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Payment payment = payments.get(i);
+                Timestamp paidAt = Timestamp.valueOf(payment.getPaidAt());
+                ps.setBigDecimal(1, payment.getAmount());
+                ps.setBigDecimal(2, payment.getAmount());
+                ps.setBigDecimal(3, payment.getAmount());
+                ps.setString(4, payment.getPayerName());
+                ps.setString(5, payment.getPaymentMethod());
+                ps.setTimestamp(6, paidAt);
+                ps.setString(7, payment.getNote());
+                ps.setTimestamp(8, now);
+                ps.setLong(9, payment.getFeeObligationId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return payments.size();
+            }
+        });
+    }
+
+    @Override
+    public int accrueLateFees(LocalDate today, Long lateFeeItemId, String lateFeeItemName,
+                              BigDecimal rate, BigDecimal fixedAmount) {
+        return jdbcTemplate.update(ACCRUE_LATE_FEE_SQL,
+                lateFeeItemId, lateFeeItemName, "Phí phạt chậm nộp tính đến " + today,
+                rate, fixedAmount, Date.valueOf(today), lateFeeItemId);
+    }
+
+    @Override
+    public int markOverdue(LocalDate today) {
+        return jdbcTemplate.update(MARK_OVERDUE_SQL, Date.valueOf(today));
+    }
+
+    @Override
+    public long[] findPackedHouseholdItemPairs(Long feePeriodId) {
+        return jdbcTemplate.query("SELECT household_id, fee_item_id FROM fee_obligations WHERE fee_period_id = ?", rs -> {
+            long[] pairs = new long[1024];
+            int size = 0;
+            while (rs.next()) {
+                if (size == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, size * 2);
+                }
+                pairs[size++] = (rs.getLong(1) << 32) | rs.getLong(2);
+            }
+            pairs = Arrays.copyOf(pairs, size);
+            Arrays.sort(pairs);
+            return pairs;
+        }, feePeriodId);
+    }
+
+    @Override
+    public int cloneForRollover(FeePeriod source, FeePeriod target, LocalDate dueDate, boolean reprice) {
+        Date sourceStart = Date.valueOf(source.getStartDate());
+        Date targetStart = Date.valueOf(target.getStartDate());
+        return jdbcTemplate.update(ROLLOVER_SQL,
+                target.getId(), target.getName(), reprice ? 1 : 0, Date.valueOf(dueDate),
+                sourceStart, targetStart,
+                source.getId());
+    }
+
+    @Override
+    public void scanPeriod(Long feePeriodId, PeriodRowConsumer consumer) {
+        jdbcTemplate.query("SELECT household_id, fee_item_id, status, expected_amount, paid_amount FROM fee_obligations " +
+                "WHERE fee_period_id = ? ORDER BY household_id, fee_item_id", rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getBigDecimal(4), rs.getBigDecimal(5));
+        }, feePeriodId);
+    }
+
+    @Override
+    public long streamLedger(Long feePeriodId, int fetchSize, LedgerRowConsumer consumer) {
+        Object[] row = new Object[17];
+        long[] count = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LEDGER_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, feePeriodId);
+            return ps;
+        }, rs -> {
+            row[0] = rs.getLong(1);
+            for (int i = 1; i < 8; i++) {
+                row[i] = rs.getString(i + 1);
+            }
+            row[8] = rs.getBigDecimal(9);
+            row[9] = rs.getBigDecimal(10);
+            row[10] = rs.getBigDecimal(11);
+            row[11] = rs.getString(12);
+            Date dueDate = rs.getDate(13);
+            row[12] = dueDate != null ? dueDate.toLocalDate() : null;
+            Timestamp paidAt = rs.getTimestamp(14);
+            row[13] = paidAt != null ? paidAt.toLocalDateTime() : null;
+            row[14] = rs.getString(15);
+            row[15] = rs.getString(16);
+            row[16] = rs.getString(17);
+            try {
+                consumer.accept(row);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    @Override
+    public String findLedgerVersion(Long feePeriodId) {
+        return jdbcTemplate.queryForObject(LEDGER_VERSION_SQL, (rs, rowNum) -> "open:" + rs.getLong(1)
+                + ":" + rs.getBigDecimal(2).toPlainString() + ":" + rs.getBigDecimal(3).toPlainString()
+                + ":" + millis(rs.getTimestamp(4)) + ":" + millis(rs.getTimestamp(5)) + ":" + millis(rs.getTimestamp(6)),
+                feePeriodId);
+    }
+
+    private static long millis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : 0L;
+    }
+}
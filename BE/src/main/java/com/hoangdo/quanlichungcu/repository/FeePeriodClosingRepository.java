@@ -0,0 +1,13 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeePeriodClosing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FeePeriodClosingRepository extends JpaRepository<FeePeriodClosing, Long>, FeePeriodClosingRepositoryCustom {
+    
+    Optional<FeePeriodClosing> findByPeriodName(String periodName);
+}
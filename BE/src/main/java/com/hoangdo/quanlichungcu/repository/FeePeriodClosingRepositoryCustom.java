@@ -0,0 +1,10 @@
+package com.hoangdo.quanlichungcu.repository;
+
+public interface FeePeriodClosingRepositoryCustom {
+
+    /**
+     * Tính và lưu số liệu chốt sổ của kỳ (tổng kỳ, theo khoản thu, theo hộ) bằng INSERT ... SELECT,
+     * chạy lại sẽ ghi đè số liệu cũ của kỳ
+     */
+    void freeze(Long feePeriodId);
+}
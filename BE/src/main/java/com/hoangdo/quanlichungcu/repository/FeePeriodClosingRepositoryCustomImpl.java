@@ -0,0 +1,45 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class FeePeriodClosingRepositoryCustomImpl implements FeePeriodClosingRepositoryCustom {
+
+    private static final String FREEZE_PERIOD_SQL =
+            "INSERT INTO fee_period_closings(fee_period_id, period_name, expected_total, paid_total, " +
+            "obligation_count, paid_count, household_count) " +
+            "SELECT p.id, p.name, COALESCE(SUM(o.expected_amount), 0), COALESCE(SUM(o.paid_amount), 0), " +
+            "COUNT(o.id), COALESCE(SUM(o.status = 'PAID'), 0), COUNT(DISTINCT o.household_id) " +
+            "FROM fee_periods p LEFT JOIN fee_obligations o ON o.fee_period_id = p.id " +
+            "WHERE p.id = ? GROUP BY p.id, p.name";
+
+    private static final String FREEZE_ITEM_SQL =
+            "INSERT INTO fee_period_item_totals(fee_period_id, fee_item_id, fee_item_name, obligation_count, " +
+            "paid_count, expected_total, paid_total) " +
+            "SELECT fee_period_id, fee_item_id, MAX(fee_item_name), COUNT(*), SUM(status = 'PAID'), " +
+            "SUM(expected_amount), SUM(paid_amount) " +
+            "FROM fee_obligations WHERE fee_period_id = ? GROUP BY fee_period_id, fee_item_id";
+
+    private static final String FREEZE_HOUSEHOLD_SQL =
+            "INSERT INTO fee_period_household_totals(fee_period_id, household_id, household_code, owner_name, " +
+            "block, floor, unit, expected_total, paid_total) " +
+            "SELECT t.fee_period_id, h.id, h.household_id, h.owner_name, a.block, a.floor, a.unit, " +
+            "t.expected_total, t.paid_total " +
+            "FROM (SELECT fee_period_id, household_id, SUM(expected_amount) AS expected_total, " +
+            "SUM(paid_amount) AS paid_total FROM fee_obligations WHERE fee_period_id = ? " +
+            "GROUP BY fee_period_id, household_id) t " +
+            "JOIN households h ON h.id = t.household_id LEFT JOIN apartments a ON a.id = h.apartment_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void freeze(Long feePeriodId) {
+        jdbcTemplate.update("DELETE FROM fee_period_household_totals WHERE fee_period_id = ?", feePeriodId);
+        jdbcTemplate.update("DELETE FROM fee_period_item_totals WHERE fee_period_id = ?", feePeriodId);
+        jdbcTemplate.update("DELETE FROM fee_period_closings WHERE fee_period_id = ?", feePeriodId);
+        jdbcTemplate.update(FREEZE_PERIOD_SQL, feePeriodId);
+        jdbcTemplate.update(FREEZE_ITEM_SQL, feePeriodId);
+        jdbcTemplate.update(FREEZE_HOUSEHOLD_SQL, feePeriodId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeePeriodHouseholdTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeePeriodHouseholdTotalRepository extends JpaRepository<FeePeriodHouseholdTotal, FeePeriodHouseholdTotal.Key> {
+    
+    List<FeePeriodHouseholdTotal> findByFeePeriodId(Long feePeriodId);
+}
@@ -0,0 +1,13 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeePeriodItemTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeePeriodItemTotalRepository extends JpaRepository<FeePeriodItemTotal, FeePeriodItemTotal.Key> {
+    
+    List<FeePeriodItemTotal> findByFeePeriodIdOrderByFeeItemNameAsc(Long feePeriodId);
+}
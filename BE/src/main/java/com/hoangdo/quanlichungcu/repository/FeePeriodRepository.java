@@ -1,7 +1,10 @@
 package com.hoangdo.quanlichungcu.repository;
 
 import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,5 +19,36 @@ public interface FeePeriodRepository extends JpaRepository<FeePeriod, Long> {
     
     List<FeePeriod> findByStatusOrderByStartDateDesc(String status);
     
+    Optional<FeePeriod> findFirstByStatusOrderByStartDateDesc(String status);
+    
+    /**
+     * Thống kê limit kỳ mới nhất trong một câu lệnh, đi theo idx_fee_periods_start_date.
+     * Kỳ đã chốt đọc số liệu chốt, kỳ đang mở đọc bảng tổng hợp.
+     * [id, tên, trạng thái, tổng phải thu, tổng đã thu, id kỳ CLOSED mới nhất, tên kỳ CLOSED mới nhất]
+     */
+    @Query(value = "SELECT p.id, p.name, p.status, " +
+            "COALESCE(c.expected_total, r.expected_total, 0), COALESCE(c.paid_total, r.paid_total, 0), " +
+            "(SELECT lc.id FROM fee_periods lc WHERE lc.status = 'CLOSED' ORDER BY lc.start_date DESC, lc.id DESC LIMIT 1), " +
+            "(SELECT lc.name FROM fee_periods lc WHERE lc.status = 'CLOSED' ORDER BY lc.start_date DESC, lc.id DESC LIMIT 1) " +
+            "FROM fee_periods p " +
+            "LEFT JOIN fee_period_closings c ON c.fee_period_id = p.id " +
+            "LEFT JOIN fee_period_rollups r ON r.fee_period_id = p.id " +
+            "ORDER BY p.start_date DESC, p.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findRecentPeriodStats(int limit);
+    
     boolean existsByName(String name);
+    
+    // Khóa chia sẻ: các thao tác ghi công nợ chạy song song với nhau nhưng phải chờ thao tác chốt sổ
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p FROM FeePeriod p WHERE p.id = :id")
+    Optional<FeePeriod> findByIdForShare(Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM FeePeriod p WHERE p.id = :id")
+    Optional<FeePeriod> findByIdForUpdate(Long id);
+    
+    // Khóa ghi mọi kỳ theo thứ tự id, dùng khi tính lại tổng hợp toàn bộ
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM FeePeriod p ORDER BY p.id")
+    List<FeePeriod> findAllForUpdate();
 }
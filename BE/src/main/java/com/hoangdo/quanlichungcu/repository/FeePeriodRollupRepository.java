@@ -0,0 +1,27 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.FeePeriodRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FeePeriodRollupRepository extends JpaRepository<FeePeriodRollup, Long> {
+    
+    @Query("SELECT r FROM FeePeriodRollup r, FeePeriod p WHERE p.id = r.feePeriodId AND p.name = :periodName")
+    Optional<FeePeriodRollup> findByPeriodName(String periodName);
+    
+    @Query("SELECT COALESCE(SUM(r.expectedTotal), 0) FROM FeePeriodRollup r")
+    BigDecimal sumAllExpected();
+    
+    @Query("SELECT COALESCE(SUM(r.paidTotal), 0) FROM FeePeriodRollup r")
+    BigDecimal sumAllPaid();
+    
+    // [tổng phải thu, tổng đã thu] của mọi kỳ trong một câu lệnh
+    @Query("SELECT COALESCE(SUM(r.expectedTotal), 0), COALESCE(SUM(r.paidTotal), 0) FROM FeePeriodRollup r")
+    List<Object[]> sumAllExpectedAndPaid();
+}
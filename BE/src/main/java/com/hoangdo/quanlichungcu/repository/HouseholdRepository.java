@@ -1,10 +1,12 @@
 package com.hoangdo.quanlichungcu.repository;
 
 import com.hoangdo.quanlichungcu.entity.Household;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,17 @@ public interface HouseholdRepository extends JpaRepository<Household, Long> {
     
     List<Household> findByStatus(String status);
     
+    long countByStatus(String status);
+    
+    @Query("SELECT h FROM Household h JOIN FETCH h.apartment WHERE h.status = :status AND h.id > :afterId ORDER BY h.id")
+    List<Household> findChunkWithApartment(String status, Long afterId, Pageable pageable);
+    
+    @Query("SELECT h FROM Household h JOIN FETCH h.apartment WHERE h.id IN :ids ORDER BY h.id")
+    List<Household> findWithApartmentByIds(Collection<Long> ids);
+    
+    @Query("SELECT h.id FROM Household h WHERE h.status = :status ORDER BY h.id")
+    List<Long> findIdsByStatus(String status);
+    
     List<Household> findByApartmentId(Long apartmentId);
     
     @Query("SELECT h FROM Household h LEFT JOIN FETCH h.residents LEFT JOIN FETCH h.vehicles WHERE h.id = :id")
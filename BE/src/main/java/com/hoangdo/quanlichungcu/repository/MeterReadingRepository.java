@@ -0,0 +1,13 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.MeterReading;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MeterReadingRepository extends JpaRepository<MeterReading, Long>, MeterReadingRepositoryCustom {
+    
+    List<MeterReading> findByFeePeriodIdAndFeeItemIdOrderByApartmentId(Long feePeriodId, Long feeItemId);
+}
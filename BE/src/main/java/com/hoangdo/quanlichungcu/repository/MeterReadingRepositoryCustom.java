@@ -0,0 +1,32 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.MeterReading;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public interface MeterReadingRepositoryCustom {
+
+    /**
+     * Ghi nhiều chỉ số bằng JDBC batch, nhập lại cùng (căn hộ, khoản thu, kỳ) sẽ ghi đè chỉ số cũ
+     * @return số chỉ số đã ghi
+     */
+    int batchUpsert(List<MeterReading> readings);
+    
+    /**
+     * Tính lượng tiêu thụ trong kỳ của mọi căn hộ bằng một câu truy vấn (LAG theo ngày bắt đầu kỳ),
+     * căn hộ chưa có chỉ số kỳ trước (căn hộ mới, kỳ đầu tiên) không có trong kết quả
+     * nên không phát sinh công nợ, chỉ số của kỳ đó là chỉ số mở đầu.
+     * Chỉ số nhỏ hơn kỳ trước chỉ lọt qua lượt nhập khi đánh dấu thay công tơ, kỳ đó tính tiêu thụ 0
+     * (phần dùng trên công tơ cũ trước khi thay phải điều chỉnh tay trên công nợ)
+     * @return id căn hộ -> lượng tiêu thụ (không âm)
+     */
+    Map<Long, BigDecimal> findConsumption(Long feeItemId, Long feePeriodId);
+
+    /**
+     * Chỉ số gần nhất của từng căn hộ ở các kỳ bắt đầu trước kỳ đang nhập, dùng để chặn chỉ số đi lùi
+     * @return id căn hộ -> chỉ số kỳ trước
+     */
+    Map<Long, BigDecimal> findPreviousReadings(Long feeItemId, Long feePeriodId);
+}
@@ -0,0 +1,74 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.MeterReading;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class MeterReadingRepositoryCustomImpl implements MeterReadingRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO meter_readings(apartment_id, fee_item_id, fee_period_id, reading_value, read_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "reading_value = VALUES(reading_value), read_at = VALUES(read_at)";
+
+    // Chỉ số kỳ trước là chỉ số gần nhất của căn hộ ở kỳ có ngày bắt đầu sớm hơn;
+    // chỉ số đầu tiên của căn hộ chỉ là chỉ số mở đầu, không tính tiêu thụ.
+    // GREATEST chỉ còn gặp ở kỳ thay công tơ (importReadings đã chặn chỉ số đi lùi không đánh dấu thay)
+    private static final String CONSUMPTION_SQL =
+            "SELECT x.apartment_id, GREATEST(x.reading_value - x.prev_value, 0) " +
+            "FROM (SELECT m.apartment_id, m.fee_period_id, m.reading_value, " +
+            "LAG(m.reading_value) OVER (PARTITION BY m.apartment_id ORDER BY p.start_date) AS prev_value " +
+            "FROM meter_readings m JOIN fee_periods p ON p.id = m.fee_period_id " +
+            "WHERE m.fee_item_id = ? AND p.start_date <= (SELECT start_date FROM fee_periods WHERE id = ?)) x " +
+            "WHERE x.fee_period_id = ? AND x.prev_value IS NOT NULL";
+
+    private static final String PREVIOUS_SQL =
+            "SELECT x.apartment_id, x.reading_value " +
+            "FROM (SELECT m.apartment_id, m.reading_value, " +
+            "ROW_NUMBER() OVER (PARTITION BY m.apartment_id ORDER BY p.start_date DESC) AS rn " +
+            "FROM meter_readings m JOIN fee_periods p ON p.id = m.fee_period_id " +
+            "WHERE m.fee_item_id = ? AND p.start_date < (SELECT start_date FROM fee_periods WHERE id = ?)) x " +
+            "WHERE x.rn = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchUpsert(List<MeterReading> readings) {
+        if (readings.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, readings, readings.size(), (ps, r) -> {
+            ps.setLong(1, r.getApartmentId());
+            ps.setLong(2, r.getFeeItemId());
+            ps.setLong(3, r.getFeePeriodId());
+            ps.setBigDecimal(4, r.getReadingValue());
+            ps.setDate(5, r.getReadAt() != null ? Date.valueOf(r.getReadAt()) : null);
+        });
+        return readings.size();
+    }
+
+    @Override
+    public Map<Long, BigDecimal> findConsumption(Long feeItemId, Long feePeriodId) {
+        Map<Long, BigDecimal> consumption = new HashMap<>();
+        jdbcTemplate.query(CONSUMPTION_SQL, rs -> {
+            consumption.put(rs.getLong(1), rs.getBigDecimal(2));
+        }, feeItemId, feePeriodId, feePeriodId);
+        return consumption;
+    }
+
+    @Override
+    public Map<Long, BigDecimal> findPreviousReadings(Long feeItemId, Long feePeriodId) {
+        Map<Long, BigDecimal> previous = new HashMap<>();
+        jdbcTemplate.query(PREVIOUS_SQL, rs -> {
+            previous.put(rs.getLong(1), rs.getBigDecimal(2));
+        }, feeItemId, feePeriodId);
+        return previous;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.ObligationGenerationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ObligationGenerationJobRepository extends JpaRepository<ObligationGenerationJob, Long> {
+    
+    Optional<ObligationGenerationJob> findFirstByFeePeriodIdAndStatusInOrderByIdDesc(Long feePeriodId, Collection<String> statuses);
+    
+    List<ObligationGenerationJob> findByStatusIn(Collection<String> statuses);
+}
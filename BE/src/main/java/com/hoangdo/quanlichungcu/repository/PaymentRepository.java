@@ -0,0 +1,30 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.dto.CashierCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.DailyCollectionDTO;
+import com.hoangdo.quanlichungcu.entity.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentRepositoryCustom {
+    
+    List<Payment> findByFeeObligationIdOrderByPaidAtAsc(Long feeObligationId);
+    
+    boolean existsByFeeObligationId(Long feeObligationId);
+    
+    // Quét theo index paid_at, chỉ đọc các dòng trong khoảng thời gian
+    @Query("SELECT new com.hoangdo.quanlichungcu.dto.DailyCollectionDTO(CAST(p.paidAt AS LocalDate), SUM(p.amount), COUNT(p)) " +
+            "FROM Payment p WHERE p.paidAt >= :from AND p.paidAt < :to " +
+            "GROUP BY CAST(p.paidAt AS LocalDate) ORDER BY CAST(p.paidAt AS LocalDate)")
+    List<DailyCollectionDTO> sumDailyCollections(LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT new com.hoangdo.quanlichungcu.dto.CashierCollectionDTO(p.cashier, SUM(p.amount), COUNT(p)) " +
+            "FROM Payment p WHERE p.paidAt >= :from AND p.paidAt < :to " +
+            "GROUP BY p.cashier ORDER BY SUM(p.amount) DESC")
+    List<CashierCollectionDTO> sumCollectionsByCashier(LocalDateTime from, LocalDateTime to);
+}
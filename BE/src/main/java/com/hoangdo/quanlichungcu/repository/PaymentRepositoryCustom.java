@@ -0,0 +1,31 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.Payment;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Ghi nhiều dòng sổ thu bằng JDBC batch
+     * @param payments danh sách phiếu thu chưa có id
+     */
+    void batchInsert(List<Payment> payments);
+
+    /**
+     * Các dòng sao kê đã được nhập trước đó
+     * @param lineRefs mã dòng sao kê (SHA-256)
+     */
+    Set<String> findImportedStatementLines(Collection<String> lineRefs);
+
+    /**
+     * Đánh dấu các dòng sao kê đã nhập, gọi trong cùng transaction với việc ghi sổ thu
+     * @param amounts mã dòng sao kê -> số tiền của dòng
+     * @param paymentCounts mã dòng sao kê -> số dòng sổ thu đã ghi
+     */
+    void insertStatementLines(Map<String, BigDecimal> amounts, Map<String, Integer> paymentCounts);
+}
@@ -0,0 +1,64 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payments(fee_obligation_id, household_id, fee_period_id, amount, payment_method, " +
+            "payer_name, cashier, note, paid_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STATEMENT_LINE_SQL =
+            "INSERT INTO bank_statement_lines(line_ref, amount, payment_count) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, payments, payments.size(), (ps, p) -> {
+            ps.setLong(1, p.getFeeObligationId());
+            ps.setLong(2, p.getHouseholdId());
+            ps.setLong(3, p.getFeePeriodId());
+            ps.setBigDecimal(4, p.getAmount());
+            ps.setString(5, p.getPaymentMethod());
+            ps.setString(6, p.getPayerName());
+            ps.setString(7, p.getCashier());
+            ps.setString(8, p.getNote());
+            ps.setTimestamp(9, Timestamp.valueOf(p.getPaidAt()));
+        });
+    }
+
+    @Override
+    public Set<String> findImportedStatementLines(Collection<String> lineRefs) {
+        if (lineRefs.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(lineRefs.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT line_ref FROM bank_statement_lines WHERE line_ref IN (" + placeholders + ")",
+                String.class, lineRefs.toArray()));
+    }
+
+    @Override
+    public void insertStatementLines(Map<String, BigDecimal> amounts, Map<String, Integer> paymentCounts) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+        List<String> refs = new ArrayList<>(amounts.keySet());
+        jdbcTemplate.batchUpdate(INSERT_STATEMENT_LINE_SQL, refs, refs.size(), (ps, ref) -> {
+            ps.setString(1, ref);
+            ps.setBigDecimal(2, amounts.get(ref));
+            ps.setInt(3, paymentCounts.getOrDefault(ref, 0));
+        });
+    }
+}
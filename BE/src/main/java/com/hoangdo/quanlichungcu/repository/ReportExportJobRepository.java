@@ -0,0 +1,22 @@
+package com.hoangdo.quanlichungcu.repository;
+
+import com.hoangdo.quanlichungcu.entity.ReportExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportExportJobRepository extends JpaRepository<ReportExportJob, Long> {
+
+    Optional<ReportExportJob> findFirstByReportTypeAndFeePeriodIdAndFormatAndDataVersionAndStatusInOrderByIdDesc(
+            String reportType, Long feePeriodId, String format, String dataVersion, Collection<String> statuses);
+
+    // File của các phiên bản cũ hơn, dọn sau khi có file mới
+    List<ReportExportJob> findByReportTypeAndFeePeriodIdAndFormatAndStatusAndIdLessThan(
+            String reportType, Long feePeriodId, String format, String status, Long id);
+
+    List<ReportExportJob> findByStatusIn(Collection<String> statuses);
+}
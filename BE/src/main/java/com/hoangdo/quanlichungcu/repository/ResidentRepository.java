@@ -2,6 +2,7 @@ package com.hoangdo.quanlichungcu.repository;
 
 import com.hoangdo.quanlichungcu.entity.Resident;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,4 +25,9 @@ public interface ResidentRepository extends JpaRepository<Resident, Long> {
     
     // Đếm số nhân khẩu theo trạng thái
     long countByStatus(String status);
+    
+    // [id hộ, số nhân khẩu đang ở] cho một dải hộ - dùng khi tính phí theo đầu người
+    @Query("SELECT r.household.id, COUNT(r) FROM Resident r WHERE r.status = 'ACTIVE' " +
+            "AND r.household.id BETWEEN :fromHouseholdId AND :toHouseholdId GROUP BY r.household.id")
+    List<Object[]> countActiveByHouseholdRange(Long fromHouseholdId, Long toHouseholdId);
 }
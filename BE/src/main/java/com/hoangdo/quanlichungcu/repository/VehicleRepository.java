@@ -2,6 +2,7 @@ package com.hoangdo.quanlichungcu.repository;
 
 import com.hoangdo.quanlichungcu.entity.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +22,9 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     boolean existsByPlate(String plate);
     
     long countByHouseholdId(Long householdId);
+    
+    // [id hộ, loại xe (viết hoa), số xe] cho một dải hộ - dùng khi tính phí gửi xe
+    @Query("SELECT v.household.id, UPPER(v.type), COUNT(v) FROM Vehicle v WHERE UPPER(v.status) = 'ACTIVE' " +
+            "AND v.household.id BETWEEN :fromHouseholdId AND :toHouseholdId GROUP BY v.household.id, UPPER(v.type)")
+    List<Object[]> countActiveByHouseholdRange(Long fromHouseholdId, Long toHouseholdId);
 }
@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.ReconciliationReportDTO;
+
+import java.io.InputStream;
+
+public interface BankReconciliationService {
+    
+    /**
+     * Đối soát sao kê chuyển khoản (CSV: ngày, số tiền, nội dung chuyển khoản, người chuyển)
+     * và ghi nhận các khoản khớp vào công nợ. Mỗi lô được commit riêng; dòng đã nhập
+     * ở lần trước được bỏ qua nên có thể nhập lại cùng file sau khi lỗi
+     * @param csv nội dung file, được đọc tuần tự từng dòng
+     * @return kết quả đối soát kèm các dòng không khớp / không rõ ràng / trùng / lỗi
+     */
+    ReconciliationReportDTO importBankStatement(InputStream csv);
+}
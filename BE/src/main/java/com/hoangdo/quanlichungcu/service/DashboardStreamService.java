@@ -0,0 +1,12 @@
+package com.hoangdo.quanlichungcu.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface DashboardStreamService {
+    
+    /**
+     * Đăng ký nhận thay đổi dashboard qua Server-Sent Events,
+     * bản đầy đủ được gửi ngay rồi tới các delta dùng chung cho mọi client
+     */
+    SseEmitter subscribe();
+}
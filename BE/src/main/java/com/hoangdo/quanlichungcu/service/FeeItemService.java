@@ -1,7 +1,10 @@
 package com.hoangdo.quanlichungcu.service;
 
 import com.hoangdo.quanlichungcu.dto.FeeItemDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemPriceDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemTierDTO;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface FeeItemService {
@@ -19,4 +22,19 @@ public interface FeeItemService {
     FeeItemDTO update(Long id, FeeItemDTO dto);
     
     void delete(Long id);
+    
+    List<FeeItemTierDTO> findTiers(Long id);
+    
+    /**
+     * Thay toàn bộ bảng bậc giá của khoản thu công tơ (điện, nước)
+     * @param tiers các bậc theo thứ tự tăng dần, chỉ bậc cuối được để upTo = null
+     */
+    List<FeeItemTierDTO> replaceTiers(Long id, List<FeeItemTierDTO> tiers);
+    
+    List<FeeItemPriceDTO> findPriceHistory(Long id);
+    
+    /**
+     * Đơn giá của mọi khoản thu tại một kỳ thu (theo ngày bắt đầu kỳ) hoặc một ngày
+     */
+    List<FeeItemPriceDTO> findPricesAt(Long feePeriodId, LocalDate date);
 }
@@ -1,12 +1,29 @@
 package com.hoangdo.quanlichungcu.service;
 
+import com.hoangdo.quanlichungcu.dto.BatchPaymentDTO;
+import com.hoangdo.quanlichungcu.dto.CursorPageDTO;
 import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationFilter;
+import com.hoangdo.quanlichungcu.dto.FeeObligationSummaryDTO;
+import com.hoangdo.quanlichungcu.dto.PaymentDTO;
 
 import java.util.List;
 
 public interface FeeObligationService {
     
-    List<FeeObligationDTO> findAll();
+    /**
+     * Danh sách công nợ phân trang theo con trỏ (keyset)
+     * @param filter bộ lọc kỳ thu, hộ dân, trạng thái, khoản thu, hạn nộp
+     * @param cursor giá trị nextCursor của trang trước (null = trang đầu)
+     * @param limit số dòng mỗi trang
+     */
+    CursorPageDTO<FeeObligationDTO> search(FeeObligationFilter filter, String cursor, int limit);
+    
+    /**
+     * Tổng hợp số công nợ / số tiền theo trạng thái trên toàn bộ kết quả lọc bằng một câu GROUP
+     * @param filter cùng bộ lọc với search
+     */
+    FeeObligationSummaryDTO summarize(FeeObligationFilter filter);
     
     FeeObligationDTO findById(Long id);
     
@@ -20,9 +37,16 @@ public interface FeeObligationService {
     
     FeeObligationDTO update(Long id, FeeObligationDTO dto);
     
-    FeeObligationDTO pay(Long id, FeeObligationDTO paymentInfo);
+    FeeObligationDTO pay(Long id, PaymentDTO payment);
     
-    void delete(Long id);
+    /**
+     * Thu tiền nhiều công nợ trong một transaction
+     * @param request danh sách (feeObligationId, paidAmount) hoặc householdId + feePeriodId để thu hết phần còn nợ
+     * @return các công nợ sau khi cập nhật
+     */
+    List<FeeObligationDTO> payBatch(BatchPaymentDTO request);
     
-    void generateObligationsForPeriod(Long feePeriodId);
+    List<PaymentDTO> findPayments(Long id);
+    
+    void delete(Long id);
 }
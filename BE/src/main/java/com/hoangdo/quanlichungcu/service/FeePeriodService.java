@@ -1,6 +1,7 @@
 package com.hoangdo.quanlichungcu.service;
 
 import com.hoangdo.quanlichungcu.dto.FeePeriodDTO;
+import com.hoangdo.quanlichungcu.dto.PeriodRolloverResultDTO;
 
 import java.util.List;
 
@@ -19,4 +20,15 @@ public interface FeePeriodService {
     FeePeriodDTO update(Long id, FeePeriodDTO dto);
     
     void delete(Long id);
+    
+    /**
+     * Chốt sổ kỳ thu: lưu số liệu cuối cùng theo kỳ, khoản thu và hộ, sau đó không nhận ghi thêm vào công nợ của kỳ
+     */
+    FeePeriodDTO close(Long id);
+    
+    /**
+     * Mở kỳ thu tháng kế tiếp và sao chép công nợ của kỳ này sang kỳ mới (không đi qua JVM)
+     * @param mode REPRICE (mặc định) hoặc CARRY
+     */
+    PeriodRolloverResultDTO rollover(Long id, String mode);
 }
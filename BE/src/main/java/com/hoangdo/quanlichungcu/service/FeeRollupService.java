@@ -0,0 +1,35 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.CollectionBackfillResultDTO;
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import com.hoangdo.quanlichungcu.entity.Payment;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface FeeRollupService {
+    
+    /**
+     * Cộng chênh lệch phải thu / đã thu vào bảng tổng hợp,
+     * bắt buộc chạy trong transaction đang ghi công nợ
+     */
+    void recordDeltas(Collection<RollupDelta> deltas);
+    
+    /**
+     * Cộng số tiền của các phiếu thu vào tổng đã thu và chuỗi thu theo ngày
+     */
+    void recordPayments(Collection<Payment> payments);
+    
+    /**
+     * Tính lại bảng tổng hợp từ công nợ (dùng khi cần sửa số liệu lệch)
+     * @param feePeriodId kỳ cần tính lại, null = toàn bộ
+     */
+    void rebuild(Long feePeriodId);
+    
+    /**
+     * Dựng lại chuỗi thu theo ngày từ sổ thu, mỗi tháng một transaction
+     * @param from null = ngày của phiếu thu đầu tiên
+     * @param to null = hôm nay
+     */
+    CollectionBackfillResultDTO rebuildCollections(LocalDate from, LocalDate to);
+}
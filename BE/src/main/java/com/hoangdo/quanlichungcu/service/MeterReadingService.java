@@ -0,0 +1,17 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.MeterReadingDTO;
+import com.hoangdo.quanlichungcu.dto.MeterReadingImportResultDTO;
+
+import java.util.List;
+
+public interface MeterReadingService {
+    
+    List<MeterReadingDTO> findByPeriodAndFeeItem(Long feePeriodId, Long feeItemId);
+    
+    /**
+     * Nhập hàng loạt chỉ số công tơ, nhập lại cùng (căn hộ, khoản thu, kỳ) sẽ ghi đè
+     * @param readings chỉ số chốt cuối kỳ của từng căn hộ
+     */
+    MeterReadingImportResultDTO importReadings(List<MeterReadingDTO> readings);
+}
@@ -0,0 +1,23 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.ObligationGenerationJobDTO;
+import com.hoangdo.quanlichungcu.dto.ObligationTopUpResultDTO;
+
+public interface ObligationGenerationJobService {
+    
+    /**
+     * Tạo (hoặc tiếp tục) job sinh công nợ cho kỳ thu và chạy nền
+     * @param feePeriodId ID kỳ thu
+     * @return trạng thái job
+     */
+    ObligationGenerationJobDTO submit(Long feePeriodId);
+    
+    ObligationGenerationJobDTO findById(Long jobId);
+    
+    /**
+     * Sinh bổ sung công nợ cho hộ mới chuyển đến hoặc khoản thu mới áp dụng giữa kỳ,
+     * chỉ chèn các cặp (hộ, khoản thu) còn thiếu
+     * @param feePeriodId ID kỳ thu
+     */
+    ObligationTopUpResultDTO topUp(Long feePeriodId);
+}
@@ -0,0 +1,14 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.OverdueRunDTO;
+
+import java.time.LocalDate;
+
+public interface OverdueService {
+    
+    /**
+     * Cộng phí phạt chậm nộp và chuyển các công nợ quá hạn sang OVERDUE
+     * @param today ngày chạy, công nợ có hạn nộp trước ngày này bị xem là quá hạn
+     */
+    OverdueRunDTO processOverdue(LocalDate today);
+}
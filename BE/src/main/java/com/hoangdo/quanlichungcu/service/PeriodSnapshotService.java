@@ -0,0 +1,27 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.PeriodTrendDTO;
+
+import java.util.List;
+
+public interface PeriodSnapshotService {
+    
+    /**
+     * Xuất file chụp theo cột cho kỳ thu sau khi transaction hiện tại commit
+     */
+    void exportAfterCommit(Long feePeriodId);
+    
+    /**
+     * Xuất (lại) file chụp của một kỳ đã chốt sổ
+     * @return số công nợ trong file
+     */
+    int export(Long feePeriodId);
+    
+    /**
+     * Xu hướng thu phí của các kỳ đã chốt, chỉ đọc file chụp (không truy vấn DB)
+     * @param months số kỳ gần nhất
+     * @param feeItemId chỉ tính một khoản thu (null = tất cả)
+     * @param householdId chỉ tính một hộ (null = tất cả)
+     */
+    List<PeriodTrendDTO> getHistory(int months, Long feeItemId, Long householdId);
+}
@@ -0,0 +1,24 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.ReportExportJobDTO;
+
+import java.nio.file.Path;
+
+public interface ReportExportService {
+
+    /**
+     * Tạo job xuất báo cáo chạy nền. Nếu đã có file cho cùng (loại báo cáo, kỳ thu, định dạng, phiên bản dữ liệu)
+     * thì trả về job đó ngay (cached = true); job cùng khóa đang chạy cũng được dùng lại
+     * @param reportType PERIOD_LEDGER: sổ công nợ đầy đủ của kỳ
+     * @param feePeriodId ID kỳ thu
+     * @param format CSV hoặc XLSX
+     */
+    ReportExportJobDTO submit(String reportType, Long feePeriodId, String format);
+
+    ReportExportJobDTO findById(Long jobId);
+
+    /**
+     * File kết quả của job đã xong
+     */
+    Path getFile(Long jobId);
+}
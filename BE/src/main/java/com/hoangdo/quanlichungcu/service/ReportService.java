@@ -1,10 +1,55 @@
 package com.hoangdo.quanlichungcu.service;
 
+import com.hoangdo.quanlichungcu.dto.ArrearsAgingReportDTO;
+import com.hoangdo.quanlichungcu.dto.CashierCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.CollectionPointDTO;
+import com.hoangdo.quanlichungcu.dto.DailyCollectionDTO;
 import com.hoangdo.quanlichungcu.dto.DashboardAnalyticsDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.ReportCacheStatsDTO;
 import com.hoangdo.quanlichungcu.dto.ReportSummaryDTO;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface ReportService {
     ReportSummaryDTO getSummary(String periodYm);
     
-    DashboardAnalyticsDTO getDashboardAnalytics();
+    /**
+     * Thống kê các kỳ gần nhất và xếp hạng hộ của kỳ trước
+     * @param periods số kỳ gần nhất (5, 12, 24...)
+     * @param topN số hộ có tỷ lệ thanh toán cao nhất
+     * @param bottomN số hộ có tỷ lệ thanh toán thấp nhất
+     */
+    DashboardAnalyticsDTO getDashboardAnalytics(int periods, int topN, int bottomN);
+    
+    /**
+     * Số lần đọc trúng / trượt cache báo cáo
+     */
+    ReportCacheStatsDTO getCacheStats();
+    
+    List<DailyCollectionDTO> getDailyCollections(LocalDate from, LocalDate to);
+    
+    List<CashierCollectionDTO> getCollectionsByCashier(LocalDate from, LocalDate to);
+    
+    /**
+     * Chuỗi số tiền thu theo ngày / tuần / tháng, đọc từ bảng thu theo ngày, khoảng không có thu trả về 0
+     * @param granularity DAY, WEEK (bắt đầu thứ Hai) hoặc MONTH
+     * @param feeItemId lọc theo khoản thu (null = tất cả)
+     * @param block lọc theo tòa (null = tất cả)
+     */
+    List<CollectionPointDTO> getCollectionTimeseries(LocalDate from, LocalDate to, String granularity,
+                                                     Long feeItemId, String block);
+    
+    /**
+     * Số phải thu / đã thu theo từng khoản thu của kỳ, kỳ đã chốt sổ đọc thẳng số liệu chốt
+     */
+    List<FeeItemCollectionDTO> getFeeItemCollections(Long periodId);
+    
+    /**
+     * Tuổi nợ theo hộ tại ngày asOf, chia theo số ngày quá hạn nộp
+     * @param block lọc theo tòa (null = tất cả)
+     * @param floor lọc theo tầng (null = tất cả)
+     */
+    ArrearsAgingReportDTO getArrearsAging(LocalDate asOf, String block, String floor);
 }
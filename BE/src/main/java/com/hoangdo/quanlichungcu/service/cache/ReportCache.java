@@ -0,0 +1,197 @@
+package com.hoangdo.quanlichungcu.service.cache;
+
+import com.hoangdo.quanlichungcu.dto.ReportCacheStatsDTO;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache trong tiến trình cho các DTO dashboard / báo cáo.
+ * Giới hạn số khóa (bỏ khóa ít dùng nhất) và thời gian sống; khóa bị xóa ngay khi
+ * nhận ReportDataChangedEvent sau commit, TTL chỉ là lưới an toàn cho thay đổi ngoài ứng dụng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportCache {
+
+    public static final String DASHBOARD = "dashboard";
+    private static final String ANALYTICS_PREFIX = "analytics:";
+    private static final String SUMMARY_PREFIX = "summary:";
+    private static final String SUMMARY_ALL = SUMMARY_PREFIX + "*";
+
+    private final FeePeriodRepository feePeriodRepository;
+
+    @Value("${app.report-cache.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${app.report-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    // Thứ tự truy cập để bỏ khóa ít dùng nhất khi đầy
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    // Tăng mỗi lần xóa khóa: kết quả tính xong sau khi đã bị xóa thì không được ghi lại
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictedBySize = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    private final AtomicLong loadMillisSaved = new AtomicLong();
+
+    public static String summaryKey(String periodName) {
+        return periodName != null ? SUMMARY_PREFIX + periodName : SUMMARY_ALL;
+    }
+
+    // Mỗi bộ tham số (topN, bottomN, ...) là một khóa riêng, xóa cùng nhau theo tiền tố
+    public static String analyticsKey(Object... params) {
+        StringJoiner key = new StringJoiner(":", ANALYTICS_PREFIX, "");
+        for (Object param : params) {
+            key.add(String.valueOf(param));
+        }
+        return key.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlMillis) {
+                    hits.incrementAndGet();
+                    loadMillisSaved.addAndGet(entry.loadMillis);
+                    return (T) entry.value;
+                }
+                entries.remove(key);
+                expired.incrementAndGet();
+            }
+        }
+
+        // Tính ngoài khóa để một báo cáo chậm không chặn các khóa khác
+        misses.incrementAndGet();
+        long seenVersion = version.get();
+        T value = loader.get();
+        long loadMillis = System.currentTimeMillis() - now;
+
+        synchronized (entries) {
+            if (version.get() == seenVersion) {
+                entries.put(key, new Entry(value, now, loadMillis));
+                while (entries.size() > maxEntries) {
+                    Iterator<String> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictedBySize.incrementAndGet();
+                }
+            }
+        }
+        return value;
+    }
+
+    public void evictAll() {
+        synchronized (entries) {
+            version.incrementAndGet();
+            invalidated.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(ReportDataChangedEvent event) {
+        List<String> keys = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        switch (event.getTopic()) {
+            case OBLIGATIONS -> {
+                keys.add(DASHBOARD);
+                prefixes.add(ANALYTICS_PREFIX);
+                keys.add(SUMMARY_ALL);
+                if (event.getFeePeriodIds().isEmpty()) {
+                    prefixes.add(SUMMARY_PREFIX);
+                } else {
+                    for (FeePeriod period : feePeriodRepository.findAllById(event.getFeePeriodIds())) {
+                        keys.add(summaryKey(period.getName()));
+                    }
+                }
+            }
+            // Tên kỳ có thể đổi nên không biết khóa cũ: xóa mọi summary.
+            // Đổi chủ hộ đi qua ResidentService nên nhân khẩu cũng ảnh hưởng tới analytics
+            case FEE_PERIODS, HOUSEHOLDS, RESIDENTS -> {
+                keys.add(DASHBOARD);
+                prefixes.add(ANALYTICS_PREFIX);
+                prefixes.add(SUMMARY_PREFIX);
+            }
+            case APARTMENTS -> {
+                keys.add(DASHBOARD);
+                prefixes.add(ANALYTICS_PREFIX);
+            }
+            case VEHICLES -> keys.add(DASHBOARD);
+            case FEE_ITEMS -> prefixes.add(SUMMARY_PREFIX);
+        }
+        evict(keys, prefixes);
+    }
+
+    private void evict(List<String> keys, List<String> prefixes) {
+        int removed = 0;
+        synchronized (entries) {
+            version.incrementAndGet();
+            for (String key : keys) {
+                if (entries.remove(key) != null) removed++;
+            }
+            if (!prefixes.isEmpty()) {
+                Iterator<String> it = entries.keySet().iterator();
+                while (it.hasNext()) {
+                    String key = it.next();
+                    if (prefixes.stream().anyMatch(key::startsWith)) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        invalidated.addAndGet(removed);
+        if (removed > 0) {
+            log.debug("Report cache: evicted {} key(s)", removed);
+        }
+    }
+
+    public ReportCacheStatsDTO stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        double hitRate = 0.0;
+        if (hitCount + missCount > 0) {
+            hitRate = BigDecimal.valueOf(hitCount * 100.0 / (hitCount + missCount))
+                    .setScale(1, RoundingMode.HALF_UP).doubleValue();
+        }
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return ReportCacheStatsDTO.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(hitRate)
+                .evictedBySize(evictedBySize.get())
+                .expired(expired.get())
+                .invalidated(invalidated.get())
+                .size(size)
+                .maxEntries(maxEntries)
+                .ttlMillis(ttlMillis)
+                .loadMillisSaved(loadMillisSaved.get())
+                .build();
+    }
+
+    private record Entry(Object value, long loadedAt, long loadMillis) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.hoangdo.quanlichungcu.service.cache;
+
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sự kiện phát ra từ các hàm ghi của service khi dữ liệu báo cáo thay đổi.
+ * ReportCache nghe sự kiện sau khi transaction commit và xóa đúng các khóa bị ảnh hưởng.
+ */
+@Getter
+public class ReportDataChangedEvent {
+
+    public enum Topic {
+        OBLIGATIONS,   // Số phải thu / đã thu của kỳ
+        FEE_PERIODS,   // Thêm / sửa / xóa / chốt kỳ
+        HOUSEHOLDS,
+        RESIDENTS,
+        APARTMENTS,
+        VEHICLES,
+        FEE_ITEMS
+    }
+
+    private final Topic topic;
+    // Các kỳ bị ảnh hưởng, rỗng = mọi kỳ
+    private final Set<Long> feePeriodIds;
+    // Chênh lệch phải thu / đã thu theo (kỳ, hộ) nếu biết, rỗng = phải đọc lại từ DB
+    private final List<RollupDelta> deltas;
+
+    private ReportDataChangedEvent(Topic topic, Collection<Long> feePeriodIds, List<RollupDelta> deltas) {
+        this.topic = topic;
+        this.feePeriodIds = Set.copyOf(feePeriodIds);
+        this.deltas = List.copyOf(deltas);
+    }
+
+    public static ReportDataChangedEvent of(Topic topic) {
+        return new ReportDataChangedEvent(topic, List.of(), List.of());
+    }
+
+    public static ReportDataChangedEvent obligations(Collection<Long> feePeriodIds) {
+        return new ReportDataChangedEvent(Topic.OBLIGATIONS, feePeriodIds, List.of());
+    }
+
+    public static ReportDataChangedEvent rollupDeltas(List<RollupDelta> deltas) {
+        Set<Long> periodIds = new HashSet<>();
+        for (RollupDelta delta : deltas) {
+            periodIds.add(delta.getFeePeriodId());
+        }
+        return new ReportDataChangedEvent(Topic.OBLIGATIONS, periodIds, deltas);
+    }
+
+    public static ReportDataChangedEvent feePeriod(Long feePeriodId) {
+        return new ReportDataChangedEvent(Topic.FEE_PERIODS, List.of(feePeriodId), List.of());
+    }
+}
@@ -0,0 +1,43 @@
+package com.hoangdo.quanlichungcu.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Ghi bảng dữ liệu ra file theo từng dòng, không giữ dòng nào trong bộ nhớ.
+ * Ô kiểu Number được ghi dưới dạng số, các kiểu khác dưới dạng chuỗi, null là ô trống.
+ */
+public interface TableWriter extends Closeable {
+
+    DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    void writeRow(Object[] row) throws IOException;
+
+    /**
+     * @param format CSV hoặc XLSX
+     * @param header tên cột, ghi thành dòng đầu tiên
+     */
+    static TableWriter open(String format, OutputStream out, String[] header) throws IOException {
+        TableWriter writer = switch (format) {
+            case "CSV" -> new CsvTableWriter(out);
+            case "XLSX" -> new XlsxTableWriter(out);
+            default -> throw new IllegalArgumentException("Định dạng không hỗ trợ: " + format);
+        };
+        writer.writeRow(header);
+        return writer;
+    }
+
+    static String text(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(DATE_TIME);
+        }
+        return String.valueOf(value);
+    }
+}
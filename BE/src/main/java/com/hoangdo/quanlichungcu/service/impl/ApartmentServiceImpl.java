@@ -5,7 +5,9 @@ import com.hoangdo.quanlichungcu.entity.Apartment;
 import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
 import com.hoangdo.quanlichungcu.repository.ApartmentRepository;
 import com.hoangdo.quanlichungcu.service.ApartmentService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
 public class ApartmentServiceImpl implements ApartmentService {
 
     private final ApartmentRepository apartmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -54,6 +57,7 @@ public class ApartmentServiceImpl implements ApartmentService {
                 .build();
         
         apartment = apartmentRepository.save(apartment);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.APARTMENTS));
         return toDTO(apartment);
     }
 
@@ -69,6 +73,7 @@ public class ApartmentServiceImpl implements ApartmentService {
         apartment.setStatus(dto.getStatus());
         
         apartment = apartmentRepository.save(apartment);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.APARTMENTS));
         return toDTO(apartment);
     }
 
@@ -78,6 +83,7 @@ public class ApartmentServiceImpl implements ApartmentService {
             throw new ResourceNotFoundException("Apartment", "id", id);
         }
         apartmentRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.APARTMENTS));
     }
 
     private ApartmentDTO toDTO(Apartment apartment) {
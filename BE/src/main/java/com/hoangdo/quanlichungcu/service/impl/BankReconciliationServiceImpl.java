@@ -0,0 +1,511 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.ReconciliationLineDTO;
+import com.hoangdo.quanlichungcu.dto.ReconciliationReportDTO;
+import com.hoangdo.quanlichungcu.entity.Payment;
+import com.hoangdo.quanlichungcu.repository.FeeObligationRepository;
+import com.hoangdo.quanlichungcu.repository.PaymentRepository;
+import com.hoangdo.quanlichungcu.service.BankReconciliationService;
+import com.hoangdo.quanlichungcu.service.FeeRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class BankReconciliationServiceImpl implements BankReconciliationService {
+
+    private static final Pattern HOUSEHOLD_CODE = Pattern.compile("HD-?([A-Z0-9]+)");
+    private static final Pattern PERIOD_REF = Pattern.compile("T(\\d{1,2})[/\\-.](\\d{4})");
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("d-M-yyyy"));
+
+    private final FeeObligationRepository feeObligationRepository;
+    private final PaymentRepository paymentRepository;
+    private final FeeRollupService feeRollupService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.reconciliation.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public ReconciliationReportDTO importBankStatement(InputStream csv) {
+        long started = System.currentTimeMillis();
+        Map<String, Map<String, List<OutstandingEntry>>> index = buildIndex();
+
+        ImportProgress progress = new ImportProgress();
+        List<PendingLine> buffer = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        int bufferedPayments = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> cols = parseCsvLine(line);
+                // Bỏ qua dòng tiêu đề
+                if (lineNumber == 1 && parseAmount(cols.size() > 1 ? cols.get(1) : null) == null) {
+                    continue;
+                }
+                progress.totalLines++;
+
+                String date = cols.size() > 0 ? cols.get(0).trim() : null;
+                String reference = cols.size() > 2 ? cols.get(2).trim() : "";
+                String payer = cols.size() > 3 ? cols.get(3).trim() : null;
+                BigDecimal amount = parseAmount(cols.size() > 1 ? cols.get(1) : null);
+                LocalDateTime paidAt = parseDate(date);
+                ReconciliationLineDTO report = ReconciliationLineDTO.builder()
+                        .lineNumber(lineNumber)
+                        .date(date)
+                        .amount(amount)
+                        .reference(reference)
+                        .build();
+
+                if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0 || paidAt == null) {
+                    report.setReason("Dòng sao kê không hợp lệ");
+                    progress.unmatched.add(report);
+                    continue;
+                }
+
+                String normalized = reference.toUpperCase(Locale.ROOT);
+                Matcher codeMatcher = HOUSEHOLD_CODE.matcher(normalized);
+                Map<String, List<OutstandingEntry>> byPeriod = null;
+                while (byPeriod == null && codeMatcher.find()) {
+                    byPeriod = index.get(codeMatcher.group(1));
+                }
+                if (byPeriod == null) {
+                    report.setReason("Không tìm thấy mã hộ trong nội dung chuyển khoản");
+                    progress.unmatched.add(report);
+                    continue;
+                }
+
+                List<OutstandingEntry> candidates = selectCandidates(byPeriod, normalized, amount, report);
+                if (candidates == null) {
+                    if ("AMBIGUOUS".equals(report.getReason())) {
+                        report.setReason("Hộ còn nợ nhiều kỳ, không xác định được kỳ thanh toán");
+                        progress.ambiguous.add(report);
+                    } else {
+                        progress.unmatched.add(report);
+                    }
+                    continue;
+                }
+
+                BigDecimal outstanding = candidates.stream()
+                        .map(e -> e.outstanding)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                if (amount.compareTo(outstanding) > 0) {
+                    report.setReason("Số tiền chuyển lớn hơn số còn nợ (" + outstanding.toPlainString() + ")");
+                    progress.ambiguous.add(report);
+                    continue;
+                }
+
+                // Phân bổ lần lượt theo hạn thanh toán, trừ luôn vào chỉ mục cho các dòng sau
+                PendingLine pending = new PendingLine(report, lineRef(date, amount, reference, payer, occurrences));
+                BigDecimal remaining = amount;
+                for (OutstandingEntry entry : candidates) {
+                    if (remaining.signum() == 0) {
+                        break;
+                    }
+                    if (entry.outstanding.signum() == 0) {
+                        continue;
+                    }
+                    BigDecimal applied = remaining.min(entry.outstanding);
+                    entry.outstanding = entry.outstanding.subtract(applied);
+                    remaining = remaining.subtract(applied);
+                    pending.entries.add(entry);
+                    pending.payments.add(Payment.builder()
+                            .feeObligationId(entry.obligationId)
+                            .householdId(entry.householdId)
+                            .feePeriodId(entry.feePeriodId)
+                            .amount(applied)
+                            .paymentMethod("TRANSFER")
+                            .payerName(payer != null && !payer.isEmpty() ? truncate(payer, 120) : null)
+                            .note(truncate(reference, 255))
+                            .paidAt(paidAt)
+                            .build());
+                }
+                buffer.add(pending);
+                bufferedPayments += pending.payments.size();
+
+                if (bufferedPayments >= batchSize) {
+                    flush(buffer, progress);
+                    bufferedPayments = 0;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        flush(buffer, progress);
+
+        return ReconciliationReportDTO.builder()
+                .totalLines(progress.totalLines)
+                .matchedLines(progress.matchedLines)
+                .paymentsApplied(progress.paymentsApplied)
+                .totalMatchedAmount(progress.totalMatched)
+                .unmatched(progress.unmatched)
+                .ambiguous(progress.ambiguous)
+                .duplicates(progress.duplicates)
+                .failed(progress.failed)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    /**
+     * Chỉ mục công nợ còn nợ: mã hộ -> tên kỳ -> danh sách công nợ theo hạn thanh toán
+     */
+    private Map<String, Map<String, List<OutstandingEntry>>> buildIndex() {
+        Map<String, Map<String, List<OutstandingEntry>>> index = new HashMap<>();
+        for (Object[] row : feeObligationRepository.findOutstandingForReconciliation()) {
+            OutstandingEntry entry = new OutstandingEntry(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[3]).longValue(),
+                    (BigDecimal) row[5]);
+            String code = normalizeCode((String) row[2]);
+            String period = normalizePeriod((String) row[4]);
+            index.computeIfAbsent(code, k -> new HashMap<>())
+                    .computeIfAbsent(period, k -> new ArrayList<>())
+                    .add(entry);
+        }
+        return index;
+    }
+
+    /**
+     * Chọn công nợ cho một dòng: theo kỳ ghi trong nội dung chuyển khoản nếu có,
+     * nếu không thì kỳ duy nhất còn nợ hoặc kỳ có số nợ đúng bằng số tiền chuyển
+     * @return null nếu không khớp (lý do ghi vào line)
+     */
+    private List<OutstandingEntry> selectCandidates(Map<String, List<OutstandingEntry>> byPeriod, String reference,
+                                                    BigDecimal amount, ReconciliationLineDTO line) {
+        Matcher periodMatcher = PERIOD_REF.matcher(reference);
+        if (periodMatcher.find()) {
+            String period = Integer.parseInt(periodMatcher.group(1)) + "/" + periodMatcher.group(2);
+            List<OutstandingEntry> entries = byPeriod.get(period);
+            if (entries == null || !hasOutstanding(entries)) {
+                line.setReason("Hộ không còn nợ trong kỳ T" + period);
+                return null;
+            }
+            return entries;
+        }
+
+        List<List<OutstandingEntry>> open = new ArrayList<>();
+        for (List<OutstandingEntry> entries : byPeriod.values()) {
+            if (hasOutstanding(entries)) {
+                open.add(entries);
+            }
+        }
+        if (open.isEmpty()) {
+            line.setReason("Hộ không còn khoản nợ nào");
+            return null;
+        }
+        if (open.size() == 1) {
+            return open.get(0);
+        }
+        List<OutstandingEntry> exact = null;
+        for (List<OutstandingEntry> entries : open) {
+            BigDecimal total = entries.stream().map(e -> e.outstanding).reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (total.compareTo(amount) == 0) {
+                if (exact != null) {
+                    exact = null;
+                    break;
+                }
+                exact = entries;
+            }
+        }
+        if (exact == null) {
+            line.setReason("AMBIGUOUS");
+        }
+        return exact;
+    }
+
+    /**
+     * Ghi một lô dòng sao kê trong transaction riêng: khóa công nợ chỉ giữ trong lô,
+     * lô lỗi chỉ làm hỏng các dòng của lô đó
+     */
+    private void flush(List<PendingLine> buffer, ImportProgress progress) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<PendingLine> duplicates = new ArrayList<>();
+        try {
+            List<PendingLine> applied = new TransactionTemplate(transactionManager)
+                    .execute(status -> applyLines(buffer, duplicates));
+            for (PendingLine line : applied) {
+                if (line.written == 0) {
+                    line.report.setReason("Kỳ thu đã chốt sổ trong lúc nhập");
+                    progress.unmatched.add(line.report);
+                    continue;
+                }
+                progress.matchedLines++;
+                progress.paymentsApplied += line.written;
+                progress.totalMatched = progress.totalMatched.add(line.report.getAmount());
+            }
+            for (PendingLine line : duplicates) {
+                line.restore();
+                line.report.setReason("Dòng sao kê đã được nhập trước đó");
+                progress.duplicates.add(line.report);
+            }
+        } catch (RuntimeException ex) {
+            // Lô đã rollback: trả lại số nợ trong chỉ mục cho các dòng sau
+            for (PendingLine line : buffer) {
+                line.restore();
+                line.report.setReason("Không ghi được vào sổ thu: " + ex.getMessage());
+                progress.failed.add(line.report);
+            }
+        }
+        buffer.clear();
+    }
+
+    private List<PendingLine> applyLines(List<PendingLine> lines, List<PendingLine> duplicates) {
+        List<String> refs = new ArrayList<>(lines.size());
+        for (PendingLine line : lines) {
+            refs.add(line.lineRef);
+        }
+        Set<String> imported = paymentRepository.findImportedStatementLines(refs);
+
+        List<PendingLine> fresh = new ArrayList<>(lines.size());
+        List<Payment> payments = new ArrayList<>();
+        for (PendingLine line : lines) {
+            if (imported.contains(line.lineRef)) {
+                duplicates.add(line);
+            } else {
+                fresh.add(line);
+                payments.addAll(line.payments);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return fresh;
+        }
+
+        // Cập nhật theo thứ tự id tăng dần như payBatch để tránh deadlock
+        payments.sort(Comparator.comparing(Payment::getFeeObligationId));
+        int[] counts = feeObligationRepository.applyPayments(payments);
+        // Bỏ các dòng không cập nhật được (kỳ vừa chốt sổ trong lúc nhập) khỏi sổ thu
+        Set<Payment> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Payment> applied = new ArrayList<>(payments.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                applied.add(payments.get(i));
+            } else {
+                skipped.add(payments.get(i));
+            }
+        }
+        paymentRepository.batchInsert(applied);
+        feeRollupService.recordPayments(applied);
+
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        Map<String, Integer> paymentCounts = new HashMap<>();
+        for (PendingLine line : fresh) {
+            int written = 0;
+            for (Payment payment : line.payments) {
+                if (!skipped.contains(payment)) {
+                    written++;
+                }
+            }
+            line.written = written;
+            if (written == 0) {
+                continue;
+            }
+            amounts.put(line.lineRef, line.report.getAmount());
+            paymentCounts.put(line.lineRef, written);
+        }
+        // Khóa chính line_ref chặn hai lượt nhập song song cùng ghi một dòng
+        paymentRepository.insertStatementLines(amounts, paymentCounts);
+        return fresh;
+    }
+
+    /**
+     * Mã dòng sao kê để nhận ra khi nhập lại cùng file; các dòng giống hệt nhau trong
+     * một file được phân biệt bằng thứ tự xuất hiện
+     */
+    private static String lineRef(String date, BigDecimal amount, String reference, String payer,
+                                  Map<String, Integer> occurrences) {
+        String content = date + "|" + amount.toPlainString() + "|" + reference + "|" + (payer == null ? "" : payer);
+        String contentHash = sha256(content);
+        int occurrence = occurrences.merge(contentHash, 1, Integer::sum);
+        return occurrence == 1 ? contentHash : sha256(content + "|" + occurrence);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private boolean hasOutstanding(List<OutstandingEntry> entries) {
+        for (OutstandingEntry entry : entries) {
+            if (entry.outstanding.signum() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalizeCode(String code) {
+        String upper = code == null ? "" : code.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+        return upper.startsWith("HD") ? upper.substring(2) : upper;
+    }
+
+    private static String normalizePeriod(String periodYm) {
+        if (periodYm == null) {
+            return "";
+        }
+        Matcher matcher = PERIOD_REF.matcher(periodYm.toUpperCase(Locale.ROOT));
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) + "/" + matcher.group(2) : periodYm;
+    }
+
+    /**
+     * Đọc số tiền sao kê: dấu '.' hoặc ',' cuối cùng theo sau bởi 1-2 chữ số là dấu thập phân,
+     * các dấu còn lại là phân cách hàng nghìn. Số tiền VND không có phần lẻ
+     * @return null nếu không đọc được hoặc phần thập phân khác 0
+     */
+    static BigDecimal parseAmount(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String value = raw.replaceAll("(?i)VND|đ", "").replaceAll("[\\s\\u00A0_]", "");
+        String integer = value;
+        String fraction = "";
+        int separator = Math.max(value.lastIndexOf('.'), value.lastIndexOf(','));
+        int fractionDigits = value.length() - separator - 1;
+        if (separator >= 0 && fractionDigits >= 1 && fractionDigits <= 2) {
+            integer = value.substring(0, separator);
+            fraction = value.substring(separator + 1);
+        }
+        integer = integer.replaceAll("[.,]", "");
+        if (integer.isEmpty() || !isDigits(integer) || !isDigits(fraction)) {
+            return null;
+        }
+        if (!fraction.chars().allMatch(c -> c == '0')) {
+            return null;
+        }
+        return new BigDecimal(integer);
+    }
+
+    private static boolean isDigits(String value) {
+        return value.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    private static LocalDateTime parseDate(String raw) {
+        if (raw == null || raw.isEmpty()) {
+            return null;
+        }
+        String datePart = raw.split("[ T]")[0];
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(datePart, format).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // thử định dạng tiếp theo
+            }
+        }
+        return null;
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> cols = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cols.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cols.add(current.toString());
+        return cols;
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static final class ImportProgress {
+        private long totalLines;
+        private long matchedLines;
+        private long paymentsApplied;
+        private BigDecimal totalMatched = BigDecimal.ZERO;
+        private final List<ReconciliationLineDTO> unmatched = new ArrayList<>();
+        private final List<ReconciliationLineDTO> ambiguous = new ArrayList<>();
+        private final List<ReconciliationLineDTO> duplicates = new ArrayList<>();
+        private final List<ReconciliationLineDTO> failed = new ArrayList<>();
+    }
+
+    private static final class PendingLine {
+        private final ReconciliationLineDTO report;
+        private final String lineRef;
+        private final List<OutstandingEntry> entries = new ArrayList<>();
+        private final List<Payment> payments = new ArrayList<>();
+        private int written;
+
+        private PendingLine(ReconciliationLineDTO report, String lineRef) {
+            this.report = report;
+            this.lineRef = lineRef;
+        }
+
+        /** Trả lại số tiền đã trừ trong chỉ mục khi dòng không được ghi */
+        private void restore() {
+            for (int i = 0; i < entries.size(); i++) {
+                OutstandingEntry entry = entries.get(i);
+                entry.outstanding = entry.outstanding.add(payments.get(i).getAmount());
+            }
+        }
+    }
+
+    private static final class OutstandingEntry {
+        private final long obligationId;
+        private final long householdId;
+        private final long feePeriodId;
+        private BigDecimal outstanding;
+
+        private OutstandingEntry(long obligationId, long householdId, long feePeriodId, BigDecimal outstanding) {
+            this.obligationId = obligationId;
+            this.householdId = householdId;
+            this.feePeriodId = feePeriodId;
+            this.outstanding = outstanding;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.hoangdo.quanlichungcu.service.impl;
 import com.hoangdo.quanlichungcu.dto.DashboardDTO;
 import com.hoangdo.quanlichungcu.repository.*;
 import com.hoangdo.quanlichungcu.service.DashboardService;
+import com.hoangdo.quanlichungcu.service.cache.ReportCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,30 +16,23 @@ import java.math.RoundingMode;
 @Transactional(readOnly = true)
 public class DashboardServiceImpl implements DashboardService {
 
-    private final HouseholdRepository householdRepository;
-    private final ResidentRepository residentRepository;
-    private final VehicleRepository vehicleRepository;
     private final ApartmentRepository apartmentRepository;
-    private final FeeObligationRepository feeObligationRepository;
+    private final FeePeriodRollupRepository feePeriodRollupRepository;
+    private final ReportCache reportCache;
 
     @Override
     public DashboardDTO getDashboardData() {
-        long totalHouseholds = householdRepository.count();
-        long totalResidents = residentRepository.count();
-        long totalVehicles = vehicleRepository.count();
-        long totalApartments = apartmentRepository.count();
-        long occupiedApartments = apartmentRepository.findByStatus("OCCUPIED").size();
-        long emptyApartments = apartmentRepository.findByStatus("EMPTY").size();
-        
-        // Calculate fee totals from all obligations
-        BigDecimal totalReceivable = BigDecimal.ZERO;
-        BigDecimal totalCollected = BigDecimal.ZERO;
+        return reportCache.get(ReportCache.DASHBOARD, this::loadDashboardData);
+    }
+    
+    private DashboardDTO loadDashboardData() {
+        // Các số đếm: một câu lệnh
+        Object[] counts = apartmentRepository.countDashboardTotals().get(0);
         
-        var allObligations = feeObligationRepository.findAll();
-        for (var obligation : allObligations) {
-            totalReceivable = totalReceivable.add(obligation.getExpectedAmount());
-            totalCollected = totalCollected.add(obligation.getPaidAmount());
-        }
+        // Tổng phải thu / đã thu lấy từ bảng tổng hợp theo kỳ: một câu lệnh
+        Object[] sums = feePeriodRollupRepository.sumAllExpectedAndPaid().get(0);
+        BigDecimal totalReceivable = (BigDecimal) sums[0];
+        BigDecimal totalCollected = (BigDecimal) sums[1];
         
         BigDecimal collectionRate = BigDecimal.ZERO;
         if (totalReceivable.compareTo(BigDecimal.ZERO) > 0) {
@@ -48,12 +42,12 @@ public class DashboardServiceImpl implements DashboardService {
         }
         
         return DashboardDTO.builder()
-                .totalHouseholds(totalHouseholds)
-                .totalResidents(totalResidents)
-                .totalVehicles(totalVehicles)
-                .totalApartments(totalApartments)
-                .occupiedApartments(occupiedApartments)
-                .emptyApartments(emptyApartments)
+                .totalHouseholds(((Number) counts[0]).longValue())
+                .totalResidents(((Number) counts[1]).longValue())
+                .totalVehicles(((Number) counts[2]).longValue())
+                .totalApartments(((Number) counts[3]).longValue())
+                .occupiedApartments(((Number) counts[4]).longValue())
+                .emptyApartments(((Number) counts[5]).longValue())
                 .totalReceivable(totalReceivable)
                 .totalCollected(totalCollected)
                 .collectionRate(collectionRate)
@@ -0,0 +1,327 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hoangdo.quanlichungcu.dto.DashboardDeltaDTO;
+import com.hoangdo.quanlichungcu.dto.HouseholdPaymentStatDTO;
+import com.hoangdo.quanlichungcu.dto.PeriodStatDTO;
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import com.hoangdo.quanlichungcu.entity.FeeHouseholdRollup;
+import com.hoangdo.quanlichungcu.entity.FeePeriodRollup;
+import com.hoangdo.quanlichungcu.repository.FeeHouseholdRollupRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRollupRepository;
+import com.hoangdo.quanlichungcu.repository.HouseholdRepository;
+import com.hoangdo.quanlichungcu.service.DashboardStreamService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Đẩy thay đổi dashboard tới mọi tab admin đang mở.
+ * Các sự kiện ghi công nợ / thu tiền / hộ được cộng dồn trong bộ nhớ và gửi theo nhịp flush-ms:
+ * mỗi nhịp tính một lần (nhiều nhất một câu lệnh cho các hộ vừa thu đủ), chuỗi JSON dùng chung cho mọi client.
+ * Không có client nào thì bỏ qua sự kiện và đọc lại từ DB khi có client mới.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStreamServiceImpl implements DashboardStreamService {
+
+    private static final BigDecimal[] ZERO_TOTALS = {BigDecimal.ZERO, BigDecimal.ZERO};
+
+    private final FeePeriodRollupRepository feePeriodRollupRepository;
+    private final FeeHouseholdRollupRepository feeHouseholdRollupRepository;
+    private final HouseholdRepository householdRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.dashboard.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.dashboard.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // Trạng thái dùng chung, chỉ đọc / ghi khi giữ khóa state
+    private final Object state = new Object();
+    private boolean loaded;
+    private final Map<Long, BigDecimal[]> periodTotals = new TreeMap<>();   // id kỳ -> [phải thu, đã thu]
+    private long totalHouseholds;
+    private long seq;
+
+    // Thay đổi chờ gửi ở nhịp kế tiếp
+    private final Map<Long, BigDecimal[]> pendingPeriods = new TreeMap<>();
+    private Map<FeeHouseholdRollup.Key, BigDecimal> pendingPaid = new HashMap<>();
+    private boolean pendingResync;
+    private boolean pendingHouseholds;
+
+    // Sự kiện của các transaction chưa kết thúc. Transaction commit trước lúc reload() đọc DB
+    // nhưng sự kiện tới sau reload() thì số liệu đã nằm trong bản đọc lại: không cộng delta nữa mà đọc lại lần nữa
+    private final Set<ReportDataChangedEvent> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<ReportDataChangedEvent> coveredByReload = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private long lastSentAt = System.currentTimeMillis();
+
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        // Giữ khóa gửi để không có delta nào chen giữa bản đầy đủ và lúc client được thêm vào danh sách
+        synchronized (this) {
+            String json;
+            synchronized (state) {
+                if (!loaded) {
+                    reload();
+                }
+                json = toJson(snapshot(BigDecimal.ZERO));
+            }
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(json, MediaType.APPLICATION_JSON));
+                emitters.add(emitter);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onDataChanging(ReportDataChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        synchronized (state) {
+            inFlight.add(event);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onDataRolledBack(ReportDataChangedEvent event) {
+        synchronized (state) {
+            inFlight.remove(event);
+            coveredByReload.remove(event);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(ReportDataChangedEvent event) {
+        synchronized (state) {
+            inFlight.remove(event);
+            if (coveredByReload.remove(event)) {
+                // Có thể đã được tính trong lần reload() trước, cộng thêm delta sẽ tính hai lần
+                pendingResync = true;
+                return;
+            }
+            if (emitters.isEmpty()) {
+                // Không ai nghe: bỏ số liệu trong bộ nhớ, client kế tiếp sẽ đọc lại
+                loaded = false;
+                pendingPeriods.clear();
+                pendingPaid.clear();
+                return;
+            }
+            switch (event.getTopic()) {
+                case OBLIGATIONS -> {
+                    if (event.getDeltas().isEmpty()) {
+                        pendingResync = true;
+                    }
+                    for (RollupDelta delta : event.getDeltas()) {
+                        BigDecimal[] totals = pendingPeriods.computeIfAbsent(delta.getFeePeriodId(), k -> ZERO_TOTALS.clone());
+                        totals[0] = totals[0].add(delta.getExpected());
+                        totals[1] = totals[1].add(delta.getPaid());
+                        if (delta.getPaid().signum() > 0) {
+                            pendingPaid.merge(new FeeHouseholdRollup.Key(delta.getFeePeriodId(), delta.getHouseholdId()),
+                                    delta.getPaid(), BigDecimal::add);
+                        }
+                    }
+                }
+                case FEE_PERIODS -> pendingResync = true;
+                case HOUSEHOLDS -> pendingHouseholds = true;
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.flush-ms:1000}")
+    public synchronized void flush() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        Map<FeeHouseholdRollup.Key, BigDecimal> paid;
+        boolean resync;
+        boolean householdsChanged;
+        List<Long> changedPeriods;
+        BigDecimal collectedDelta = BigDecimal.ZERO;
+        synchronized (state) {
+            resync = pendingResync || !loaded;
+            householdsChanged = pendingHouseholds;
+            paid = pendingPaid;
+            changedPeriods = new ArrayList<>(pendingPeriods.keySet());
+            if (!resync) {
+                for (Map.Entry<Long, BigDecimal[]> entry : pendingPeriods.entrySet()) {
+                    BigDecimal[] totals = periodTotals.computeIfAbsent(entry.getKey(), k -> ZERO_TOTALS.clone());
+                    totals[0] = totals[0].add(entry.getValue()[0]);
+                    totals[1] = totals[1].add(entry.getValue()[1]);
+                    collectedDelta = collectedDelta.add(entry.getValue()[1]);
+                }
+            }
+            pendingPeriods.clear();
+            pendingPaid = new HashMap<>();
+            pendingResync = false;
+            pendingHouseholds = false;
+        }
+
+        if (!resync && !householdsChanged && changedPeriods.isEmpty()) {
+            heartbeat();
+            return;
+        }
+
+        // Hộ vừa thu đủ: đã đủ sau nhịp này nhưng chưa đủ trước đó
+        List<HouseholdPaymentStatDTO> newlyPaid = new ArrayList<>();
+        if (!paid.isEmpty()) {
+            for (Object[] row : feeHouseholdRollupRepository.findSettled(paid.keySet())) {
+                BigDecimal expected = (BigDecimal) row[7];
+                BigDecimal paidTotal = (BigDecimal) row[8];
+                BigDecimal paidNow = paid.get(new FeeHouseholdRollup.Key((Long) row[0], (Long) row[1]));
+                if (paidNow != null && paidTotal.subtract(paidNow).compareTo(expected) < 0) {
+                    newlyPaid.add(HouseholdPaymentStatDTO.builder()
+                            .householdId((Long) row[1])
+                            .householdCode((String) row[2])
+                            .ownerName((String) row[3])
+                            .apartmentInfo(row[4] != null ? row[4] + "-" + row[5] + "-" + row[6] : "")
+                            .totalReceivable(expected)
+                            .totalPaid(paidTotal)
+                            .paymentRate(rate(expected, paidTotal).doubleValue())
+                            .build());
+                }
+            }
+        }
+
+        String json;
+        synchronized (state) {
+            if (resync) {
+                BigDecimal before = totalCollected();
+                reload();
+                collectedDelta = totalCollected().subtract(before);
+            } else if (householdsChanged) {
+                totalHouseholds = householdRepository.count();
+            }
+            seq++;
+            DashboardDeltaDTO message = resync ? snapshot(collectedDelta) : delta(collectedDelta, changedPeriods);
+            message.setNewlyPaidHouseholds(newlyPaid);
+            json = toJson(message);
+        }
+        broadcast(SseEmitter.event().name("delta").data(json, MediaType.APPLICATION_JSON));
+    }
+
+    private void heartbeat() {
+        if (System.currentTimeMillis() - lastSentAt >= heartbeatMs) {
+            broadcast(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Tab đã đóng
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+        lastSentAt = System.currentTimeMillis();
+    }
+
+    // Gọi khi đang giữ khóa state
+    private void reload() {
+        // Delta đang chờ đến từ transaction đã commit nên đã có trong bản đọc lại
+        pendingPeriods.clear();
+        coveredByReload.addAll(inFlight);
+        periodTotals.clear();
+        for (FeePeriodRollup rollup : feePeriodRollupRepository.findAll()) {
+            periodTotals.put(rollup.getFeePeriodId(), new BigDecimal[]{rollup.getExpectedTotal(), rollup.getPaidTotal()});
+        }
+        totalHouseholds = householdRepository.count();
+        loaded = true;
+    }
+
+    private DashboardDeltaDTO snapshot(BigDecimal collectedDelta) {
+        DashboardDeltaDTO message = delta(collectedDelta, periodTotals.keySet());
+        message.setSnapshot(true);
+        message.setNewlyPaidHouseholds(List.of());
+        return message;
+    }
+
+    private DashboardDeltaDTO delta(BigDecimal collectedDelta, Collection<Long> periodIds) {
+        BigDecimal receivable = BigDecimal.ZERO;
+        for (BigDecimal[] totals : periodTotals.values()) {
+            receivable = receivable.add(totals[0]);
+        }
+        BigDecimal collected = totalCollected();
+
+        List<PeriodStatDTO> periods = new ArrayList<>(periodIds.size());
+        for (Long periodId : periodIds) {
+            BigDecimal[] totals = periodTotals.getOrDefault(periodId, ZERO_TOTALS);
+            periods.add(PeriodStatDTO.builder()
+                    .periodId(periodId)
+                    .totalReceivable(totals[0])
+                    .totalCollected(totals[1])
+                    .collectionRate(rate(totals[0], totals[1]).doubleValue())
+                    .build());
+        }
+
+        return DashboardDeltaDTO.builder()
+                .seq(seq)
+                .at(LocalDateTime.now())
+                .collectedDelta(collectedDelta)
+                .totalReceivable(receivable)
+                .totalCollected(collected)
+                .collectionRate(rate(receivable, collected))
+                .totalHouseholds(totalHouseholds)
+                .periods(periods)
+                .build();
+    }
+
+    private BigDecimal totalCollected() {
+        BigDecimal collected = BigDecimal.ZERO;
+        for (BigDecimal[] totals : periodTotals.values()) {
+            collected = collected.add(totals[1]);
+        }
+        return collected;
+    }
+
+    private BigDecimal rate(BigDecimal receivable, BigDecimal collected) {
+        if (receivable.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return collected.multiply(BigDecimal.valueOf(100)).divide(receivable, 1, RoundingMode.HALF_UP);
+    }
+
+    private String toJson(DashboardDeltaDTO message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không ghi được delta dashboard", e);
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package com.hoangdo.quanlichungcu.service.impl;
 
 import com.hoangdo.quanlichungcu.dto.FeeItemDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemPriceDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemTierDTO;
 import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeeItemPrice;
+import com.hoangdo.quanlichungcu.entity.FeeItemTier;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.entity.Vehicle;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
 import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.FeeItemPriceRepository;
 import com.hoangdo.quanlichungcu.repository.FeeItemRepository;
+import com.hoangdo.quanlichungcu.repository.FeeItemTierRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
 import com.hoangdo.quanlichungcu.service.FeeItemService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
+import com.hoangdo.quanlichungcu.service.pricing.FeeItemPriceIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,6 +35,10 @@ import java.util.stream.Collectors;
 public class FeeItemServiceImpl implements FeeItemService {
 
     private final FeeItemRepository feeItemRepository;
+    private final FeeItemTierRepository feeItemTierRepository;
+    private final FeeItemPriceRepository feeItemPriceRepository;
+    private final FeePeriodRepository feePeriodRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -57,12 +78,19 @@ public class FeeItemServiceImpl implements FeeItemService {
                 .name(dto.getName())
                 .type(dto.getType())
                 .unit(dto.getUnit())
+                .vehicleType(normalizeVehicleType(dto.getVehicleType()))
                 .cost(dto.getCost())
                 .status(dto.getStatus() != null ? dto.getStatus() : "ACTIVE")
                 .description(dto.getDescription())
                 .build();
         
         feeItem = feeItemRepository.save(feeItem);
+        feeItemPriceRepository.save(FeeItemPrice.builder()
+                .feeItemId(feeItem.getId())
+                .cost(feeItem.getCost())
+                .effectiveFrom(dto.getEffectiveFrom() != null ? dto.getEffectiveFrom() : LocalDate.now())
+                .build());
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.FEE_ITEMS));
         return toDTO(feeItem);
     }
 
@@ -74,6 +102,10 @@ public class FeeItemServiceImpl implements FeeItemService {
         feeItem.setName(dto.getName());
         feeItem.setType(dto.getType());
         feeItem.setUnit(dto.getUnit());
+        feeItem.setVehicleType(normalizeVehicleType(dto.getVehicleType()));
+        if (feeItem.getCost() == null || dto.getCost() == null || feeItem.getCost().compareTo(dto.getCost()) != 0) {
+            addPriceVersion(feeItem, dto.getCost(), dto.getEffectiveFrom() != null ? dto.getEffectiveFrom() : LocalDate.now());
+        }
         feeItem.setCost(dto.getCost());
         feeItem.setStatus(dto.getStatus());
         feeItem.setDescription(dto.getDescription());
@@ -87,7 +119,148 @@ public class FeeItemServiceImpl implements FeeItemService {
         if (!feeItemRepository.existsById(id)) {
             throw new ResourceNotFoundException("FeeItem", "id", id);
         }
+        feeItemTierRepository.deleteByFeeItemId(id);
+        feeItemPriceRepository.deleteByFeeItemId(id);
         feeItemRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.FEE_ITEMS));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FeeItemPriceDTO> findPriceHistory(Long id) {
+        FeeItem feeItem = feeItemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("FeeItem", "id", id));
+        return feeItemPriceRepository.findByFeeItemIdOrderByEffectiveFromAsc(id).stream()
+                .map(price -> FeeItemPriceDTO.builder()
+                        .feeItemId(id)
+                        .feeItemName(feeItem.getName())
+                        .cost(price.getCost())
+                        .effectiveFrom(price.getEffectiveFrom())
+                        .effectiveTo(price.getEffectiveTo())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FeeItemPriceDTO> findPricesAt(Long feePeriodId, LocalDate date) {
+        LocalDate at = date;
+        if (feePeriodId != null) {
+            FeePeriod feePeriod = feePeriodRepository.findById(feePeriodId)
+                    .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", feePeriodId));
+            at = feePeriod.getStartDate();
+        }
+        if (at == null) {
+            throw new BadRequestException("Cần truyền periodId hoặc date");
+        }
+
+        List<FeeItem> feeItems = feeItemRepository.findAll();
+        FeeItemPriceIndex index = new FeeItemPriceIndex(feeItemPriceRepository.findByFeeItemIdInOrderByFeeItemIdAscEffectiveFromAsc(
+                feeItems.stream().map(FeeItem::getId).collect(Collectors.toList())));
+        LocalDate pricingDate = at;
+        return feeItems.stream()
+                .map(feeItem -> FeeItemPriceDTO.builder()
+                        .feeItemId(feeItem.getId())
+                        .feeItemName(feeItem.getName())
+                        .cost(index.costAt(feeItem, pricingDate))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Đóng phiên bản đơn giá mới nhất ở ngày trước ngày hiệu lực và mở phiên bản mới,
+     * đổi giá trùng ngày hiệu lực của phiên bản mới nhất thì sửa đè phiên bản đó
+     */
+    private void addPriceVersion(FeeItem feeItem, BigDecimal cost, LocalDate effectiveFrom) {
+        FeeItemPrice latest = feeItemPriceRepository.findFirstByFeeItemIdOrderByEffectiveFromDesc(feeItem.getId()).orElse(null);
+        if (latest != null) {
+            if (effectiveFrom.isBefore(latest.getEffectiveFrom())) {
+                throw new BadRequestException("Ngày hiệu lực phải từ " + latest.getEffectiveFrom() + " trở đi");
+            }
+            if (effectiveFrom.isEqual(latest.getEffectiveFrom())) {
+                latest.setCost(cost);
+                feeItemPriceRepository.save(latest);
+                return;
+            }
+            latest.setEffectiveTo(effectiveFrom.minusDays(1));
+            feeItemPriceRepository.save(latest);
+        }
+        feeItemPriceRepository.save(FeeItemPrice.builder()
+                .feeItemId(feeItem.getId())
+                .cost(cost)
+                .effectiveFrom(effectiveFrom)
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FeeItemTierDTO> findTiers(Long id) {
+        if (!feeItemRepository.existsById(id)) {
+            throw new ResourceNotFoundException("FeeItem", "id", id);
+        }
+        return feeItemTierRepository.findByFeeItemIdOrderByTierOrderAsc(id).stream()
+                .map(this::toTierDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<FeeItemTierDTO> replaceTiers(Long id, List<FeeItemTierDTO> tiers) {
+        FeeItem feeItem = feeItemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("FeeItem", "id", id));
+        if (!"KWH".equals(feeItem.getUnit()) && !"M3".equals(feeItem.getUnit())) {
+            throw new BadRequestException("Chỉ khoản thu tính theo công tơ (KWH, M3) mới có bậc giá");
+        }
+
+        List<FeeItemTier> entities = new ArrayList<>();
+        BigDecimal previousUpTo = BigDecimal.ZERO;
+        for (int i = 0; i < tiers.size(); i++) {
+            FeeItemTierDTO dto = tiers.get(i);
+            boolean last = i == tiers.size() - 1;
+            if (dto.getUnitPrice() == null || dto.getUnitPrice().compareTo(BigDecimal.ZERO) < 0) {
+                throw new BadRequestException("Đơn giá bậc " + (i + 1) + " không hợp lệ");
+            }
+            if (dto.getUpTo() == null && !last) {
+                throw new BadRequestException("Chỉ bậc cuối cùng được để trống mức giới hạn");
+            }
+            if (dto.getUpTo() != null && dto.getUpTo().compareTo(previousUpTo) <= 0) {
+                throw new BadRequestException("Mức giới hạn các bậc phải tăng dần");
+            }
+            entities.add(FeeItemTier.builder()
+                    .feeItemId(id)
+                    .tierOrder(i + 1)
+                    .upTo(dto.getUpTo())
+                    .unitPrice(dto.getUnitPrice())
+                    .build());
+            if (dto.getUpTo() != null) {
+                previousUpTo = dto.getUpTo();
+            }
+        }
+
+        feeItemTierRepository.deleteByFeeItemId(id);
+        feeItemTierRepository.flush();
+        return feeItemTierRepository.saveAll(entities).stream()
+                .map(this::toTierDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Cùng danh sách loại xe với vehicles.type (so khớp không phân biệt hoa thường khi tính phí), null = mọi loại xe
+    private String normalizeVehicleType(String vehicleType) {
+        if (vehicleType == null || vehicleType.isBlank()) {
+            return null;
+        }
+        String canonical = Vehicle.canonicalType(vehicleType);
+        if (canonical == null) {
+            throw new BadRequestException("Loại xe không hợp lệ: " + vehicleType + " (chỉ nhận " + Vehicle.TYPES + ")");
+        }
+        return canonical.toUpperCase(Locale.ROOT);
+    }
+
+    private FeeItemTierDTO toTierDTO(FeeItemTier tier) {
+        return FeeItemTierDTO.builder()
+                .tierOrder(tier.getTierOrder())
+                .upTo(tier.getUpTo())
+                .unitPrice(tier.getUnitPrice())
+                .build();
     }
 
     private FeeItemDTO toDTO(FeeItem feeItem) {
@@ -96,6 +269,7 @@ public class FeeItemServiceImpl implements FeeItemService {
                 .name(feeItem.getName())
                 .type(feeItem.getType())
                 .unit(feeItem.getUnit())
+                .vehicleType(feeItem.getVehicleType())
                 .cost(feeItem.getCost())
                 .status(feeItem.getStatus())
                 .description(feeItem.getDescription())
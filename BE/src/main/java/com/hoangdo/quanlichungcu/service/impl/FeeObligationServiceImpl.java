@@ -1,13 +1,22 @@
 package com.hoangdo.quanlichungcu.service.impl;
 
+import com.hoangdo.quanlichungcu.dto.BatchPaymentDTO;
+import com.hoangdo.quanlichungcu.dto.CursorPageDTO;
 import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationFilter;
+import com.hoangdo.quanlichungcu.dto.FeeObligationSummaryDTO;
+import com.hoangdo.quanlichungcu.dto.PaymentDTO;
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
 import com.hoangdo.quanlichungcu.entity.FeeItem;
 import com.hoangdo.quanlichungcu.entity.FeeObligation;
 import com.hoangdo.quanlichungcu.entity.FeePeriod;
 import com.hoangdo.quanlichungcu.entity.Household;
+import com.hoangdo.quanlichungcu.entity.Payment;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
 import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
 import com.hoangdo.quanlichungcu.repository.*;
 import com.hoangdo.quanlichungcu.service.FeeObligationService;
+import com.hoangdo.quanlichungcu.service.FeeRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +24,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,45 +37,80 @@ public class FeeObligationServiceImpl implements FeeObligationService {
     private final HouseholdRepository householdRepository;
     private final FeeItemRepository feeItemRepository;
     private final FeePeriodRepository feePeriodRepository;
+    private final PaymentRepository paymentRepository;
+    private final FeeRollupService feeRollupService;
+
+    private static final int MAX_PAGE_SIZE = 500;
 
     @Override
     @Transactional(readOnly = true)
-    public List<FeeObligationDTO> findAll() {
-        return feeObligationRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<FeeObligationDTO> search(FeeObligationFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long beforeId = parseCursor(cursor);
+        
+        // Lấy dư một dòng để biết còn trang sau hay không
+        List<FeeObligationDTO> items = feeObligationRepository.findPage(filter, beforeId, pageSize + 1);
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        
+        return CursorPageDTO.<FeeObligationDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .limit(pageSize)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FeeObligationSummaryDTO summarize(FeeObligationFilter filter) {
+        FeeObligationSummaryDTO summary = feeObligationRepository.summarize(filter);
+        // SUM trả null khi không có dòng nào khớp
+        if (summary.getExpectedTotal() == null) {
+            return FeeObligationSummaryDTO.builder()
+                    .obligationCount(0L).paidCount(0L).partialCount(0L).unpaidCount(0L).overdueCount(0L)
+                    .expectedTotal(BigDecimal.ZERO).paidTotal(BigDecimal.ZERO)
+                    .build();
+        }
+        return summary;
+    }
+
+    private Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Cursor không hợp lệ: " + cursor);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public FeeObligationDTO findById(Long id) {
-        FeeObligation obligation = feeObligationRepository.findById(id)
+        return feeObligationRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FeeObligation", "id", id));
-        return toDTO(obligation);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<FeeObligationDTO> findByHouseholdId(Long householdId) {
-        return feeObligationRepository.findByHouseholdId(householdId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return feeObligationRepository.findByHouseholdId(householdId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<FeeObligationDTO> findByFeePeriodId(Long feePeriodId) {
-        return feeObligationRepository.findByFeePeriodId(feePeriodId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return feeObligationRepository.findByFeePeriodId(feePeriodId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<FeeObligationDTO> findByStatus(String status) {
-        return feeObligationRepository.findByStatus(status).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return feeObligationRepository.findByStatus(status);
     }
 
     @Override
@@ -75,8 +121,7 @@ public class FeeObligationServiceImpl implements FeeObligationService {
         FeeItem feeItem = feeItemRepository.findById(dto.getFeeItemId())
                 .orElseThrow(() -> new ResourceNotFoundException("FeeItem", "id", dto.getFeeItemId()));
         
-        FeePeriod feePeriod = feePeriodRepository.findById(dto.getFeePeriodId())
-                .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", dto.getFeePeriodId()));
+        FeePeriod feePeriod = lockOpenPeriod(dto.getFeePeriodId());
         
         FeeObligation obligation = FeeObligation.builder()
                 .household(household)
@@ -91,6 +136,8 @@ public class FeeObligationServiceImpl implements FeeObligationService {
                 .build();
         
         obligation = feeObligationRepository.save(obligation);
+        feeRollupService.recordDeltas(List.of(new RollupDelta(
+                feePeriod.getId(), household.getId(), obligation.getExpectedAmount(), BigDecimal.ZERO)));
         return toDTO(obligation);
     }
 
@@ -98,93 +145,160 @@ public class FeeObligationServiceImpl implements FeeObligationService {
     public FeeObligationDTO update(Long id, FeeObligationDTO dto) {
         FeeObligation obligation = feeObligationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FeeObligation", "id", id));
+        lockOpenPeriod(obligation.getFeePeriod().getId());
         
+        BigDecimal expectedDelta = dto.getExpectedAmount().subtract(obligation.getExpectedAmount());
         obligation.setExpectedAmount(dto.getExpectedAmount());
         obligation.setDueDate(dto.getDueDate());
         obligation.setNote(dto.getNote());
         
-        obligation = feeObligationRepository.save(obligation);
-        return toDTO(obligation);
+        feeObligationRepository.save(obligation);
+        feeRollupService.recordDeltas(List.of(new RollupDelta(
+                obligation.getFeePeriod().getId(), obligation.getHousehold().getId(), expectedDelta, BigDecimal.ZERO)));
+        return findById(id);
     }
 
     @Override
-    public FeeObligationDTO pay(Long id, FeeObligationDTO paymentInfo) {
-        FeeObligation obligation = feeObligationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("FeeObligation", "id", id));
+    public FeeObligationDTO pay(Long id, PaymentDTO payment) {
+        BigDecimal amount = payment.getPaidAmount() != null ? payment.getPaidAmount() : BigDecimal.ZERO;
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BadRequestException("Số tiền thu phải lớn hơn 0");
+        }
+        LocalDateTime paidAt = LocalDateTime.now();
+        
+        // Cộng dồn và tính trạng thái ngay trong DB để hai thu ngân thu cùng lúc không ghi đè nhau
+        int updated = feeObligationRepository.applyPayment(id, amount, payment.getPayerName(),
+                payment.getPaymentMethod(), paidAt, payment.getNote());
+        if (updated == 0) {
+            throw notPayable(id);
+        }
+        FeeObligationDTO obligation = findById(id);
+        
+        // Ghi thêm vào sổ thu tiền cùng transaction với việc cộng dồn
+        Payment ledgerEntry = paymentRepository.save(Payment.builder()
+                .feeObligationId(id)
+                .householdId(obligation.getHouseholdId())
+                .feePeriodId(obligation.getFeePeriodId())
+                .amount(amount)
+                .paymentMethod(payment.getPaymentMethod())
+                .payerName(payment.getPayerName())
+                .cashier(payment.getCashier())
+                .note(payment.getNote())
+                .paidAt(paidAt)
+                .build());
+        feeRollupService.recordPayments(List.of(ledgerEntry));
+        
+        return obligation;
+    }
+
+    @Override
+    public List<FeeObligationDTO> payBatch(BatchPaymentDTO request) {
+        Map<Long, BigDecimal> amounts = resolveBatchAmounts(request);
+        if (amounts.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime paidAt = LocalDateTime.now();
+        List<Payment> payments = amounts.entrySet().stream()
+                .map(e -> Payment.builder()
+                        .feeObligationId(e.getKey())
+                        .amount(e.getValue())
+                        .paymentMethod(request.getPaymentMethod())
+                        .payerName(request.getPayerName())
+                        .cashier(request.getCashier())
+                        .note(request.getNote())
+                        .paidAt(paidAt)
+                        .build())
+                .collect(Collectors.toList());
         
-        // Cộng thêm số tiền mới vào số tiền đã thu trước đó
-        BigDecimal currentPaid = obligation.getPaidAmount() != null ? obligation.getPaidAmount() : BigDecimal.ZERO;
-        BigDecimal newPayment = paymentInfo.getPaidAmount() != null ? paymentInfo.getPaidAmount() : BigDecimal.ZERO;
-        BigDecimal totalPaid = currentPaid.add(newPayment);
+        int[] counts = feeObligationRepository.applyPayments(payments);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                // Rollback toàn bộ lô nếu có công nợ không tồn tại hoặc thuộc kỳ đã chốt
+                throw notPayable(payments.get(i).getFeeObligationId());
+            }
+        }
         
-        obligation.setPaidAmount(totalPaid);
-        obligation.setPayerName(paymentInfo.getPayerName());
-        obligation.setPaymentMethod(paymentInfo.getPaymentMethod());
-        obligation.setPaidAt(LocalDateTime.now());
-        obligation.setNote(paymentInfo.getNote());
+        List<FeeObligationDTO> obligations = feeObligationRepository.findDtoByIdIn(amounts.keySet());
+        Map<Long, FeeObligationDTO> byId = obligations.stream()
+                .collect(Collectors.toMap(FeeObligationDTO::getId, o -> o));
+        for (Payment payment : payments) {
+            FeeObligationDTO obligation = byId.get(payment.getFeeObligationId());
+            payment.setHouseholdId(obligation.getHouseholdId());
+            payment.setFeePeriodId(obligation.getFeePeriodId());
+        }
+        paymentRepository.batchInsert(payments);
+        feeRollupService.recordPayments(payments);
         
-        // Update status based on payment
-        if (obligation.getPaidAmount().compareTo(obligation.getExpectedAmount()) >= 0) {
-            obligation.setStatus("PAID");
-        } else if (obligation.getPaidAmount().compareTo(BigDecimal.ZERO) > 0) {
-            obligation.setStatus("PARTIAL");
+        return obligations;
+    }
+
+    private Map<Long, BigDecimal> resolveBatchAmounts(BatchPaymentDTO request) {
+        // Cập nhật theo thứ tự id tăng dần để hai lô chồng nhau không deadlock
+        Map<Long, BigDecimal> amounts = new TreeMap<>();
+        
+        if (request.getItems() != null && !request.getItems().isEmpty()) {
+            for (PaymentDTO item : request.getItems()) {
+                if (item.getFeeObligationId() == null) {
+                    throw new BadRequestException("Thiếu feeObligationId trong danh sách thu tiền");
+                }
+                if (item.getPaidAmount() == null || item.getPaidAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new BadRequestException("Số tiền thu phải lớn hơn 0");
+                }
+                if (amounts.putIfAbsent(item.getFeeObligationId(), item.getPaidAmount()) != null) {
+                    throw new BadRequestException("Công nợ bị lặp trong danh sách: " + item.getFeeObligationId());
+                }
+            }
+            return amounts;
         }
         
-        obligation = feeObligationRepository.save(obligation);
-        return toDTO(obligation);
+        if (request.getHouseholdId() == null || request.getFeePeriodId() == null) {
+            throw new BadRequestException("Cần danh sách công nợ hoặc householdId và feePeriodId");
+        }
+        // Khóa các dòng còn nợ để số tiền ghi sổ khớp với số tiền cộng vào
+        for (Object[] row : feeObligationRepository.lockOutstanding(request.getHouseholdId(), request.getFeePeriodId())) {
+            amounts.put(((Number) row[0]).longValue(), (BigDecimal) row[1]);
+        }
+        return amounts;
     }
 
     @Override
-    public void delete(Long id) {
+    @Transactional(readOnly = true)
+    public List<PaymentDTO> findPayments(Long id) {
         if (!feeObligationRepository.existsById(id)) {
             throw new ResourceNotFoundException("FeeObligation", "id", id);
         }
-        feeObligationRepository.deleteById(id);
+        return paymentRepository.findByFeeObligationIdOrderByPaidAtAsc(id).stream()
+                .map(this::toPaymentDTO)
+                .collect(Collectors.toList());
     }
 
     @Override
-    public void generateObligationsForPeriod(Long feePeriodId) {
-        FeePeriod feePeriod = feePeriodRepository.findById(feePeriodId)
+    public void delete(Long id) {
+        FeeObligationDTO obligation = findById(id);
+        lockOpenPeriod(obligation.getFeePeriodId());
+        if (paymentRepository.existsByFeeObligationId(id)) {
+            throw new BadRequestException("Không thể xóa công nợ đã có phiếu thu");
+        }
+        feeObligationRepository.deleteById(id);
+        feeRollupService.recordDeltas(List.of(new RollupDelta(obligation.getFeePeriodId(), obligation.getHouseholdId(),
+                obligation.getExpectedAmount().negate(), obligation.getPaidAmount().negate())));
+    }
+
+    private FeePeriod lockOpenPeriod(Long feePeriodId) {
+        FeePeriod feePeriod = feePeriodRepository.findByIdForShare(feePeriodId)
                 .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", feePeriodId));
-        
-        List<Household> households = householdRepository.findByStatus("ACTIVE");
-        List<FeeItem> feeItems = feeItemRepository.findByStatus("ACTIVE");
-        
-        for (Household household : households) {
-            for (FeeItem feeItem : feeItems) {
-                // Calculate expected amount based on fee item type
-                BigDecimal expectedAmount = calculateExpectedAmount(feeItem, household);
-                
-                FeeObligation obligation = FeeObligation.builder()
-                        .household(household)
-                        .feeItem(feeItem)
-                        .feePeriod(feePeriod)
-                        .feeItemName(feeItem.getName())
-                        .periodYm(feePeriod.getName())
-                        .expectedAmount(expectedAmount)
-                        .paidAmount(BigDecimal.ZERO)
-                        .status("UNPAID")
-                        .build();
-                
-                feeObligationRepository.save(obligation);
-            }
+        if ("CLOSED".equals(feePeriod.getStatus())) {
+            throw new BadRequestException("Kỳ thu " + feePeriod.getName() + " đã chốt sổ, không thể thay đổi công nợ");
         }
-        
-        // Cập nhật trạng thái kỳ thu thành OPEN (Đang tiến hành)
-        feePeriod.setStatus("OPEN");
-        feePeriodRepository.save(feePeriod);
+        return feePeriod;
     }
 
-    private BigDecimal calculateExpectedAmount(FeeItem feeItem, Household household) {
-        switch (feeItem.getUnit()) {
-            case "M2":
-                BigDecimal area = household.getApartment().getArea();
-                return area != null ? feeItem.getCost().multiply(area) : BigDecimal.ZERO;
-            case "FIXED":
-                return feeItem.getCost();
-            default:
-                return feeItem.getCost();
+    // Câu UPDATE không ảnh hưởng dòng nào: công nợ không tồn tại hoặc thuộc kỳ đã chốt sổ
+    private RuntimeException notPayable(Long id) {
+        if (feeObligationRepository.existsById(id)) {
+            return new BadRequestException("Công nợ " + id + " thuộc kỳ đã chốt sổ, không thể thu thêm");
         }
+        return new ResourceNotFoundException("FeeObligation", "id", id);
     }
 
     private FeeObligationDTO toDTO(FeeObligation obligation) {
@@ -210,4 +324,19 @@ public class FeeObligationServiceImpl implements FeeObligationService {
                 .updatedAt(obligation.getUpdatedAt())
                 .build();
     }
+
+    private PaymentDTO toPaymentDTO(Payment payment) {
+        return PaymentDTO.builder()
+                .id(payment.getId())
+                .feeObligationId(payment.getFeeObligationId())
+                .householdId(payment.getHouseholdId())
+                .feePeriodId(payment.getFeePeriodId())
+                .paidAmount(payment.getAmount())
+                .payerName(payment.getPayerName())
+                .paymentMethod(payment.getPaymentMethod())
+                .cashier(payment.getCashier())
+                .note(payment.getNote())
+                .paidAt(payment.getPaidAt())
+                .build();
+    }
 }
@@ -1,14 +1,25 @@
 package com.hoangdo.quanlichungcu.service.impl;
 
 import com.hoangdo.quanlichungcu.dto.FeePeriodDTO;
+import com.hoangdo.quanlichungcu.dto.PeriodRolloverResultDTO;
 import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
 import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.FeeObligationRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodClosingRepository;
 import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
+import com.hoangdo.quanlichungcu.repository.ObligationGenerationJobRepository;
 import com.hoangdo.quanlichungcu.service.FeePeriodService;
+import com.hoangdo.quanlichungcu.service.FeeRollupService;
+import com.hoangdo.quanlichungcu.service.PeriodSnapshotService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,6 +29,15 @@ import java.util.stream.Collectors;
 public class FeePeriodServiceImpl implements FeePeriodService {
 
     private final FeePeriodRepository feePeriodRepository;
+    private final FeeObligationRepository feeObligationRepository;
+    private final FeeRollupService feeRollupService;
+    private final FeePeriodClosingRepository feePeriodClosingRepository;
+    private final ObligationGenerationJobRepository jobRepository;
+    private final PeriodSnapshotService periodSnapshotService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.fee-obligation.due-day-of-month:15}")
+    private int dueDayOfMonth;
 
     @Override
     @Transactional(readOnly = true)
@@ -53,6 +73,7 @@ public class FeePeriodServiceImpl implements FeePeriodService {
                 .build();
         
         feePeriod = feePeriodRepository.save(feePeriod);
+        eventPublisher.publishEvent(ReportDataChangedEvent.feePeriod(feePeriod.getId()));
         return toDTO(feePeriod);
     }
 
@@ -60,14 +81,22 @@ public class FeePeriodServiceImpl implements FeePeriodService {
     public FeePeriodDTO update(Long id, FeePeriodDTO dto) {
         FeePeriod feePeriod = feePeriodRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", id));
+        if ("CLOSED".equals(feePeriod.getStatus())) {
+            throw new BadRequestException("Kỳ thu " + feePeriod.getName() + " đã chốt sổ, không thể sửa");
+        }
         
         feePeriod.setName(dto.getName());
         feePeriod.setStartDate(dto.getStartDate());
         feePeriod.setEndDate(dto.getEndDate());
-        feePeriod.setStatus(dto.getStatus());
+        boolean closing = "CLOSED".equals(dto.getStatus());
+        if (!closing) {
+            feePeriod.setStatus(dto.getStatus());
+        }
         
         feePeriod = feePeriodRepository.save(feePeriod);
-        return toDTO(feePeriod);
+        eventPublisher.publishEvent(ReportDataChangedEvent.feePeriod(id));
+        // Chuyển sang CLOSED luôn đi qua thao tác chốt sổ
+        return closing ? close(id) : toDTO(feePeriod);
     }
 
     @Override
@@ -75,31 +104,94 @@ public class FeePeriodServiceImpl implements FeePeriodService {
         if (!feePeriodRepository.existsById(id)) {
             throw new ResourceNotFoundException("FeePeriod", "id", id);
         }
+        if (feePeriodClosingRepository.existsById(id)) {
+            throw new BadRequestException("Không thể xóa kỳ thu đã chốt sổ");
+        }
         feePeriodRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.feePeriod(id));
     }
 
     @Override
     @Transactional(readOnly = true)
     public FeePeriodDTO findCurrentPeriod() {
-        // Tìm kỳ thu đang tiến hành (OPEN), nếu không có thì lấy kỳ mới nhất
-        List<FeePeriod> openPeriods = feePeriodRepository.findByStatusOrderByStartDateDesc("OPEN");
-        if (!openPeriods.isEmpty()) {
-            return toDTO(openPeriods.get(0));
+        // Tìm kỳ thu đang tiến hành (OPEN), nếu không có thì lấy kỳ DRAFT rồi CLOSED mới nhất
+        for (String status : List.of("OPEN", "DRAFT", "CLOSED")) {
+            FeePeriod period = feePeriodRepository.findFirstByStatusOrderByStartDateDesc(status).orElse(null);
+            if (period != null) {
+                return toDTO(period);
+            }
         }
         
-        // Nếu không có kỳ OPEN, lấy kỳ DRAFT mới nhất
-        List<FeePeriod> draftPeriods = feePeriodRepository.findByStatusOrderByStartDateDesc("DRAFT");
-        if (!draftPeriods.isEmpty()) {
-            return toDTO(draftPeriods.get(0));
+        return null;
+    }
+
+    @Override
+    public FeePeriodDTO close(Long id) {
+        // Khóa ghi dòng kỳ thu: chờ các lượt thu tiền / sửa công nợ đang giữ khóa chia sẻ kết thúc
+        FeePeriod feePeriod = feePeriodRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", id));
+        if (!"OPEN".equals(feePeriod.getStatus())) {
+            throw new BadRequestException("Chỉ chốt sổ được kỳ thu đang tiến hành (hiện tại: " + feePeriod.getStatus() + ")");
         }
-        
-        // Nếu không có, lấy kỳ CLOSED mới nhất
-        List<FeePeriod> closedPeriods = feePeriodRepository.findByStatusOrderByStartDateDesc("CLOSED");
-        if (!closedPeriods.isEmpty()) {
-            return toDTO(closedPeriods.get(0));
+        if (jobRepository.findFirstByFeePeriodIdAndStatusInOrderByIdDesc(id, List.of("PENDING", "RUNNING")).isPresent()) {
+            throw new BadRequestException("Kỳ thu " + feePeriod.getName() + " đang sinh công nợ, chưa thể chốt sổ");
         }
         
-        return null;
+        // Tính lại tổng hợp cho khớp tuyệt đối rồi lưu số liệu chốt một lần
+        feeRollupService.rebuild(id);
+        feePeriodClosingRepository.freeze(id);
+        
+        feePeriod.setStatus("CLOSED");
+        feePeriod = feePeriodRepository.save(feePeriod);
+        periodSnapshotService.exportAfterCommit(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.feePeriod(id));
+        return toDTO(feePeriod);
+    }
+
+    @Override
+    public PeriodRolloverResultDTO rollover(Long id, String mode) {
+        long started = System.currentTimeMillis();
+        boolean reprice = mode == null || "REPRICE".equalsIgnoreCase(mode);
+        if (!reprice && !"CARRY".equalsIgnoreCase(mode)) {
+            throw new BadRequestException("Chế độ không hợp lệ: " + mode + " (REPRICE hoặc CARRY)");
+        }
+        FeePeriod source = feePeriodRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", id));
+        if ("DRAFT".equals(source.getStatus())) {
+            throw new BadRequestException("Kỳ thu " + source.getName() + " chưa sinh công nợ");
+        }
+
+        LocalDate start = source.getStartDate().withDayOfMonth(1).plusMonths(1);
+        String name = String.format("T%02d/%d", start.getMonthValue(), start.getYear());
+        // Kỳ kế tiếp đã được tạo sẵn (nháp, chưa có công nợ) thì dùng lại
+        FeePeriod target = feePeriodRepository.findByName(name).orElse(null);
+        if (target != null && (!"DRAFT".equals(target.getStatus()) || feeObligationRepository.existsByFeePeriodId(target.getId()))) {
+            throw new BadRequestException("Kỳ thu " + name + " đã có công nợ");
+        }
+        if (target == null) {
+            target = feePeriodRepository.save(FeePeriod.builder()
+                    .name(name)
+                    .startDate(start)
+                    .endDate(start.withDayOfMonth(start.lengthOfMonth()))
+                    .status("DRAFT")
+                    .build());
+        }
+
+        LocalDate dueDate = target.getStartDate()
+                .withDayOfMonth(Math.min(dueDayOfMonth, target.getStartDate().lengthOfMonth()));
+        int cloned = feeObligationRepository.cloneForRollover(source, target, dueDate, reprice);
+        feeRollupService.rebuild(target.getId());
+
+        target.setStatus("OPEN");
+        target = feePeriodRepository.save(target);
+        eventPublisher.publishEvent(ReportDataChangedEvent.feePeriod(target.getId()));
+        return PeriodRolloverResultDTO.builder()
+                .sourcePeriodId(source.getId())
+                .period(toDTO(target))
+                .mode(reprice ? "REPRICE" : "CARRY")
+                .cloned(cloned)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
     }
 
     private FeePeriodDTO toDTO(FeePeriod feePeriod) {
@@ -0,0 +1,128 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.CollectionBackfillResultDTO;
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import com.hoangdo.quanlichungcu.entity.Payment;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
+import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.FeeCollectionDailyRepository;
+import com.hoangdo.quanlichungcu.repository.FeeHouseholdRollupRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
+import com.hoangdo.quanlichungcu.service.FeeRollupService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class FeeRollupServiceImpl implements FeeRollupService {
+
+    private static final Comparator<RollupDelta> KEY_ORDER = Comparator
+            .comparing(RollupDelta::getFeePeriodId)
+            .thenComparing(RollupDelta::getHouseholdId);
+
+    private final FeeHouseholdRollupRepository feeHouseholdRollupRepository;
+    private final FeeCollectionDailyRepository feeCollectionDailyRepository;
+    private final FeePeriodRepository feePeriodRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeltas(Collection<RollupDelta> deltas) {
+        // Gộp theo (kỳ, hộ) và ghi theo thứ tự khóa để hai transaction không khóa chéo nhau
+        Map<RollupDelta, RollupDelta> merged = new TreeMap<>(KEY_ORDER);
+        for (RollupDelta delta : deltas) {
+            RollupDelta total = merged.computeIfAbsent(delta, d -> RollupDelta.builder()
+                    .feePeriodId(d.getFeePeriodId())
+                    .householdId(d.getHouseholdId())
+                    .expected(BigDecimal.ZERO)
+                    .paid(BigDecimal.ZERO)
+                    .build());
+            total.setExpected(total.getExpected().add(delta.getExpected()));
+            total.setPaid(total.getPaid().add(delta.getPaid()));
+        }
+        List<RollupDelta> changes = new ArrayList<>(merged.size());
+        for (RollupDelta delta : merged.values()) {
+            if (delta.getExpected().signum() != 0 || delta.getPaid().signum() != 0) {
+                changes.add(delta);
+            }
+        }
+        feeHouseholdRollupRepository.applyDeltas(changes);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(ReportDataChangedEvent.rollupDeltas(changes));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayments(Collection<Payment> payments) {
+        List<RollupDelta> deltas = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            deltas.add(new RollupDelta(payment.getFeePeriodId(), payment.getHouseholdId(),
+                    BigDecimal.ZERO, payment.getAmount()));
+        }
+        recordDeltas(deltas);
+        feeCollectionDailyRepository.applyPayments(payments);
+    }
+
+    @Override
+    public void rebuild(Long feePeriodId) {
+        // Khóa ghi dòng kỳ thu như khi chốt sổ: lượt thu tiền / sửa công nợ đang giữ khóa chia sẻ phải
+        // kết thúc trước, và không ai cộng delta vào bảng tổng hợp giữa lúc xóa và lúc tính lại
+        if (feePeriodId == null) {
+            feePeriodRepository.findAllForUpdate();
+        } else {
+            feePeriodRepository.findByIdForUpdate(feePeriodId)
+                    .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", feePeriodId));
+        }
+        feeHouseholdRollupRepository.rebuild(feePeriodId);
+        eventPublisher.publishEvent(ReportDataChangedEvent.obligations(
+                feePeriodId != null ? List.of(feePeriodId) : List.of()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CollectionBackfillResultDTO rebuildCollections(LocalDate from, LocalDate to) {
+        long started = System.currentTimeMillis();
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : feeCollectionDailyRepository.findFirstPaymentDate();
+        if (start == null) {
+            start = end;
+        }
+        if (start.isAfter(end)) {
+            throw new BadRequestException("Ngày bắt đầu phải trước ngày kết thúc");
+        }
+
+        // Chia theo tháng để không giữ khóa trên cả sổ thu trong một transaction dài
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int rows = 0;
+        for (LocalDate chunkStart = start; !chunkStart.isAfter(end); ) {
+            LocalDate chunkEnd = chunkStart.withDayOfMonth(chunkStart.lengthOfMonth());
+            if (chunkEnd.isAfter(end)) {
+                chunkEnd = end;
+            }
+            LocalDate chunkFrom = chunkStart;
+            LocalDate chunkTo = chunkEnd;
+            rows += tx.execute(status -> feeCollectionDailyRepository.rebuild(chunkFrom, chunkTo));
+            chunkStart = chunkEnd.plusDays(1);
+        }
+
+        return CollectionBackfillResultDTO.builder()
+                .from(start)
+                .to(end)
+                .rows(rows)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+}
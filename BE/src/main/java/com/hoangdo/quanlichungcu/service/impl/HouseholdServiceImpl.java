@@ -9,7 +9,9 @@ import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
 import com.hoangdo.quanlichungcu.repository.ApartmentRepository;
 import com.hoangdo.quanlichungcu.repository.HouseholdRepository;
 import com.hoangdo.quanlichungcu.service.HouseholdService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class HouseholdServiceImpl implements HouseholdService {
 
     private final HouseholdRepository householdRepository;
     private final ApartmentRepository apartmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -84,6 +87,7 @@ public class HouseholdServiceImpl implements HouseholdService {
         apartmentRepository.save(apartment);
         
         household = householdRepository.save(household);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.HOUSEHOLDS));
         return toDTO(household);
     }
 
@@ -115,6 +119,7 @@ public class HouseholdServiceImpl implements HouseholdService {
         household.setStatus(dto.getStatus());
         
         household = householdRepository.save(household);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.HOUSEHOLDS));
         return toDTO(household);
     }
 
@@ -128,6 +133,7 @@ public class HouseholdServiceImpl implements HouseholdService {
         apartmentRepository.save(household.getApartment());
         
         householdRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.HOUSEHOLDS));
     }
 
     private HouseholdDTO toDTO(Household household) {
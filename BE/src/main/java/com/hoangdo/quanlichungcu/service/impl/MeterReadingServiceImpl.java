@@ -0,0 +1,152 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.MeterReadingDTO;
+import com.hoangdo.quanlichungcu.dto.MeterReadingImportResultDTO;
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.entity.MeterReading;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
+import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.ApartmentRepository;
+import com.hoangdo.quanlichungcu.repository.FeeItemRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
+import com.hoangdo.quanlichungcu.repository.MeterReadingRepository;
+import com.hoangdo.quanlichungcu.service.MeterReadingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class MeterReadingServiceImpl implements MeterReadingService {
+
+    private static final Set<String> METERED_UNITS = Set.of("KWH", "M3");
+
+    private final MeterReadingRepository meterReadingRepository;
+    private final ApartmentRepository apartmentRepository;
+    private final FeeItemRepository feeItemRepository;
+    private final FeePeriodRepository feePeriodRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MeterReadingDTO> findByPeriodAndFeeItem(Long feePeriodId, Long feeItemId) {
+        return meterReadingRepository.findByFeePeriodIdAndFeeItemIdOrderByApartmentId(feePeriodId, feeItemId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public MeterReadingImportResultDTO importReadings(List<MeterReadingDTO> readings) {
+        long started = System.currentTimeMillis();
+        if (readings == null || readings.isEmpty()) {
+            throw new BadRequestException("Danh sách chỉ số trống");
+        }
+
+        // Ghi theo thứ tự khóa duy nhất để hai lượt nhập chồng nhau không deadlock
+        Map<String, MeterReading> byKey = new TreeMap<>();
+        Set<String> replacedKeys = new HashSet<>();
+        Set<Long> apartmentIds = new HashSet<>();
+        Set<Long> feeItemIds = new HashSet<>();
+        Set<Long> feePeriodIds = new HashSet<>();
+        for (MeterReadingDTO dto : readings) {
+            if (dto.getApartmentId() == null || dto.getFeeItemId() == null || dto.getFeePeriodId() == null) {
+                throw new BadRequestException("Chỉ số thiếu apartmentId, feeItemId hoặc feePeriodId");
+            }
+            if (dto.getReadingValue() == null || dto.getReadingValue().compareTo(BigDecimal.ZERO) < 0) {
+                throw new BadRequestException("Chỉ số công tơ không hợp lệ cho căn hộ " + dto.getApartmentId());
+            }
+            String key = String.format("%020d-%020d-%020d", dto.getFeePeriodId(), dto.getFeeItemId(), dto.getApartmentId());
+            if (Boolean.TRUE.equals(dto.getMeterReplaced())) {
+                replacedKeys.add(key);
+            }
+            MeterReading reading = MeterReading.builder()
+                    .apartmentId(dto.getApartmentId())
+                    .feeItemId(dto.getFeeItemId())
+                    .feePeriodId(dto.getFeePeriodId())
+                    .readingValue(dto.getReadingValue())
+                    .readAt(dto.getReadAt())
+                    .build();
+            if (byKey.putIfAbsent(key, reading) != null) {
+                throw new BadRequestException("Căn hộ " + dto.getApartmentId() + " bị lặp chỉ số trong cùng kỳ");
+            }
+            apartmentIds.add(dto.getApartmentId());
+            feeItemIds.add(dto.getFeeItemId());
+            feePeriodIds.add(dto.getFeePeriodId());
+        }
+
+        // Kiểm tra tham chiếu theo lô, không truy vấn từng dòng
+        Map<Long, FeeItem> feeItems = feeItemRepository.findAllById(feeItemIds).stream()
+                .collect(Collectors.toMap(FeeItem::getId, Function.identity()));
+        for (Long feeItemId : feeItemIds) {
+            FeeItem feeItem = feeItems.get(feeItemId);
+            if (feeItem == null) {
+                throw new ResourceNotFoundException("FeeItem", "id", feeItemId);
+            }
+            if (!METERED_UNITS.contains(feeItem.getUnit())) {
+                throw new BadRequestException("Khoản thu '" + feeItem.getName() + "' không tính theo công tơ");
+            }
+        }
+        Map<Long, FeePeriod> feePeriods = feePeriodRepository.findAllById(feePeriodIds).stream()
+                .collect(Collectors.toMap(FeePeriod::getId, Function.identity()));
+        for (Long feePeriodId : feePeriodIds) {
+            FeePeriod feePeriod = feePeriods.get(feePeriodId);
+            if (feePeriod == null) {
+                throw new ResourceNotFoundException("FeePeriod", "id", feePeriodId);
+            }
+            if ("CLOSED".equals(feePeriod.getStatus())) {
+                throw new BadRequestException("Kỳ thu " + feePeriod.getName() + " đã đóng");
+            }
+        }
+        Set<Long> missing = new HashSet<>(apartmentIds);
+        missing.removeAll(apartmentRepository.findExistingIds(apartmentIds));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Apartment", "id", missing.iterator().next());
+        }
+
+        rejectBackwardReadings(byKey, replacedKeys, feeItems);
+
+        int imported = meterReadingRepository.batchUpsert(new ArrayList<>(byKey.values()));
+        return MeterReadingImportResultDTO.builder()
+                .imported(imported)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    // Chỉ số nhỏ hơn kỳ trước sẽ bị tính tiêu thụ 0 mà không ai biết, nên chỉ nhận khi đã đánh dấu thay công tơ
+    private void rejectBackwardReadings(Map<String, MeterReading> byKey, Set<String> replacedKeys,
+                                        Map<Long, FeeItem> feeItems) {
+        Map<String, Map<Long, BigDecimal>> previousByGroup = new HashMap<>();
+        for (Map.Entry<String, MeterReading> entry : byKey.entrySet()) {
+            if (replacedKeys.contains(entry.getKey())) {
+                continue;
+            }
+            MeterReading reading = entry.getValue();
+            Map<Long, BigDecimal> previous = previousByGroup.computeIfAbsent(
+                    reading.getFeePeriodId() + "-" + reading.getFeeItemId(),
+                    k -> meterReadingRepository.findPreviousReadings(reading.getFeeItemId(), reading.getFeePeriodId()));
+            BigDecimal prev = previous.get(reading.getApartmentId());
+            if (prev != null && reading.getReadingValue().compareTo(prev) < 0) {
+                throw new BadRequestException("Chỉ số " + feeItems.get(reading.getFeeItemId()).getName()
+                        + " của căn hộ " + reading.getApartmentId() + " nhỏ hơn kỳ trước (" + prev
+                        + "), nếu đã thay công tơ hãy đánh dấu meterReplaced");
+            }
+        }
+    }
+
+    private MeterReadingDTO toDTO(MeterReading reading) {
+        return MeterReadingDTO.builder()
+                .id(reading.getId())
+                .apartmentId(reading.getApartmentId())
+                .feeItemId(reading.getFeeItemId())
+                .feePeriodId(reading.getFeePeriodId())
+                .readingValue(reading.getReadingValue())
+                .readAt(reading.getReadAt())
+                .build();
+    }
+}
@@ -0,0 +1,375 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.ObligationGenerationJobDTO;
+import com.hoangdo.quanlichungcu.dto.ObligationTopUpResultDTO;
+import com.hoangdo.quanlichungcu.dto.RollupDelta;
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeeObligation;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.entity.Household;
+import com.hoangdo.quanlichungcu.entity.ObligationGenerationJob;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
+import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.*;
+import com.hoangdo.quanlichungcu.service.FeeRollupService;
+import com.hoangdo.quanlichungcu.service.ObligationGenerationJobService;
+import com.hoangdo.quanlichungcu.service.pricing.CompiledTariff;
+import com.hoangdo.quanlichungcu.service.pricing.HouseholdFacts;
+import com.hoangdo.quanlichungcu.service.pricing.PricingEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+@Service
+@RequiredArgsConstructor
+public class ObligationGenerationJobServiceImpl implements ObligationGenerationJobService {
+
+    private static final List<String> UNFINISHED_STATUSES = List.of("PENDING", "RUNNING");
+
+    private final ObligationGenerationJobRepository jobRepository;
+    private final FeeObligationRepository feeObligationRepository;
+    private final HouseholdRepository householdRepository;
+    private final FeeItemRepository feeItemRepository;
+    private final FeePeriodRepository feePeriodRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor obligationGenerationExecutor;
+    private final FeeRollupService feeRollupService;
+    private final PricingEngine pricingEngine;
+
+    // Các job đang thực sự chạy trong JVM này
+    private final Set<Long> activeJobIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.fee-obligation.generation.batch-size:1000}")
+    private int generationBatchSize;
+
+    @Value("${app.fee-obligation.generation.household-chunk-size:200}")
+    private int householdChunkSize;
+
+    // Hạn nộp: ngày này trong tháng bắt đầu kỳ thu
+    @Value("${app.fee-obligation.due-day-of-month:15}")
+    private int dueDayOfMonth;
+
+    @Override
+    @Transactional
+    public ObligationGenerationJobDTO submit(Long feePeriodId) {
+        // Giữ khóa chia sẻ tới khi job được ghi để close() thấy job này hoặc submit thấy kỳ đã chốt
+        lockOpenPeriod(feePeriodId);
+
+        long totalRows = householdRepository.countByStatus("ACTIVE") * feeItemRepository.countByStatus("ACTIVE");
+
+        // Job dở dang (FAILED hoặc bị ngắt khi tắt server) được chạy tiếp từ checkpoint
+        ObligationGenerationJob job = jobRepository
+                .findFirstByFeePeriodIdAndStatusInOrderByIdDesc(feePeriodId, List.of("PENDING", "RUNNING", "FAILED"))
+                .orElse(null);
+        if (job != null && activeJobIds.contains(job.getId())) {
+            return toDTO(job);
+        }
+        if (job == null) {
+            job = ObligationGenerationJob.builder()
+                    .feePeriodId(feePeriodId)
+                    .processedRows(0L)
+                    .insertedRows(0L)
+                    .lastHouseholdId(0L)
+                    .build();
+        }
+        job.setStatus("PENDING");
+        job.setTotalRows(Math.max(totalRows, job.getProcessedRows()));
+        job.setErrorMessage(null);
+        job.setFinishedAt(null);
+        job = jobRepository.save(job);
+
+        dispatchAfterCommit(job.getId());
+        return toDTO(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ObligationGenerationJobDTO findById(Long jobId) {
+        ObligationGenerationJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("ObligationGenerationJob", "id", jobId));
+        return toDTO(job);
+    }
+
+    @Override
+    @Transactional
+    public ObligationTopUpResultDTO topUp(Long feePeriodId) {
+        long started = System.currentTimeMillis();
+        // Khóa chia sẻ cả lượt bổ sung: close() chờ lượt này commit rồi mới tính lại và chốt số liệu
+        FeePeriod feePeriod = lockOpenPeriod(feePeriodId);
+        jobRepository.findFirstByFeePeriodIdAndStatusInOrderByIdDesc(feePeriodId, UNFINISHED_STATUSES)
+                .filter(job -> activeJobIds.contains(job.getId()))
+                .ifPresent(job -> {
+                    throw new BadRequestException("Kỳ thu đang được sinh công nợ (job " + job.getId() + ")");
+                });
+
+        // Một truy vấn nạp toàn bộ cặp đã có, tra cứu trong bộ nhớ bằng tìm kiếm nhị phân
+        long[] pairs = feeObligationRepository.findPackedHouseholdItemPairs(feePeriodId);
+        CompiledTariff tariff = pricingEngine.compile(feeItemRepository.findByStatus("ACTIVE"), feePeriod);
+
+        Set<Long> knownItems = new HashSet<>();
+        for (long pair : pairs) {
+            knownItems.add(pair & 0xFFFFFFFFL);
+        }
+        int newFeeItems = (int) tariff.getFeeItems().stream().filter(f -> !knownItems.contains(f.getId())).count();
+
+        // Không có khoản thu mới thì chỉ cần xét các hộ chưa có công nợ nào trong kỳ
+        List<Long> candidates = new ArrayList<>();
+        int newHouseholds = 0;
+        for (Long householdId : householdRepository.findIdsByStatus("ACTIVE")) {
+            boolean known = containsHousehold(pairs, householdId);
+            if (!known) {
+                newHouseholds++;
+            }
+            if (!known || newFeeItems > 0) {
+                candidates.add(householdId);
+            }
+        }
+
+        long inserted = 0;
+        for (int from = 0; from < candidates.size(); from += householdChunkSize) {
+            List<Household> households = householdRepository.findWithApartmentByIds(
+                    candidates.subList(from, Math.min(from + householdChunkSize, candidates.size())));
+            inserted += generate(households, feePeriod, tariff,
+                    (householdId, feeItemId) -> Arrays.binarySearch(pairs, (householdId << 32) | feeItemId) >= 0);
+        }
+
+        return ObligationTopUpResultDTO.builder()
+                .feePeriodId(feePeriodId)
+                .existingPairs(pairs.length)
+                .newHouseholds(newHouseholds)
+                .newFeeItems(newFeeItems)
+                .householdsChecked(candidates.size())
+                .inserted(inserted)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    // Khóa chia sẻ dòng kỳ thu như FeeObligationServiceImpl: chạy song song với các lượt ghi khác nhưng chờ close()
+    private FeePeriod lockOpenPeriod(Long feePeriodId) {
+        FeePeriod feePeriod = feePeriodRepository.findByIdForShare(feePeriodId)
+                .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", feePeriodId));
+        if ("CLOSED".equals(feePeriod.getStatus())) {
+            throw new BadRequestException("Kỳ thu " + feePeriod.getName() + " đã chốt sổ");
+        }
+        return feePeriod;
+    }
+
+    // Hộ đã có ít nhất một công nợ trong kỳ: tìm vị trí chèn của (householdId << 32) trong mảng cặp đã sắp xếp
+    private static boolean containsHousehold(long[] pairs, long householdId) {
+        int i = Arrays.binarySearch(pairs, householdId << 32);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return i < pairs.length && (pairs[i] >>> 32) == householdId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        jobRepository.findByStatusIn(UNFINISHED_STATUSES)
+                .forEach(job -> dispatch(job.getId()));
+    }
+
+    private void dispatchAfterCommit(Long jobId) {
+        // Chỉ chạy job sau khi bản ghi job đã được commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(jobId);
+            }
+        });
+    }
+
+    private void dispatch(Long jobId) {
+        if (activeJobIds.add(jobId)) {
+            obligationGenerationExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    activeJobIds.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(Long jobId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            ObligationGenerationJob job = tx.execute(status -> {
+                ObligationGenerationJob j = jobRepository.findById(jobId).orElseThrow();
+                j.setStatus("RUNNING");
+                if (j.getStartedAt() == null) {
+                    j.setStartedAt(LocalDateTime.now());
+                }
+                return jobRepository.save(j);
+            });
+            FeePeriod feePeriod = feePeriodRepository.findById(job.getFeePeriodId())
+                    .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", job.getFeePeriodId()));
+            // Biên dịch bảng giá một lần cho cả lượt chạy
+            CompiledTariff tariff = pricingEngine.compile(feeItemRepository.findByStatus("ACTIVE"), feePeriod);
+
+            // Mỗi chunk hộ dân là một transaction riêng, commit cùng checkpoint
+            long cursor = job.getLastHouseholdId();
+            while (true) {
+                long afterId = cursor;
+                Long lastId = tx.execute(status -> processChunk(jobId, feePeriod, tariff, afterId));
+                if (lastId == null) {
+                    break;
+                }
+                cursor = lastId;
+            }
+
+            tx.executeWithoutResult(status -> {
+                ObligationGenerationJob j = jobRepository.findById(jobId).orElseThrow();
+                j.setStatus("COMPLETED");
+                j.setFinishedAt(LocalDateTime.now());
+                jobRepository.save(j);
+
+                // Kỳ nháp chuyển thành OPEN (Đang tiến hành), không mở lại kỳ đã chốt sổ
+                FeePeriod period = feePeriodRepository.findByIdForUpdate(j.getFeePeriodId()).orElseThrow();
+                if ("DRAFT".equals(period.getStatus())) {
+                    period.setStatus("OPEN");
+                    feePeriodRepository.save(period);
+                }
+            });
+        } catch (RuntimeException ex) {
+            tx.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(j -> {
+                j.setStatus("FAILED");
+                j.setFinishedAt(LocalDateTime.now());
+                String message = String.valueOf(ex.getMessage());
+                j.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+                jobRepository.save(j);
+            }));
+        }
+    }
+
+    /**
+     * Sinh công nợ cho một chunk hộ dân có id lớn hơn afterId
+     * @return id hộ dân cuối cùng của chunk, null nếu đã hết
+     */
+    private Long processChunk(Long jobId, FeePeriod feePeriod, CompiledTariff tariff, long afterId) {
+        // Kỳ có thể bị chốt sổ giữa hai chunk hoặc trước khi job dở dang được chạy tiếp
+        lockOpenPeriod(feePeriod.getId());
+        List<Household> households = householdRepository.findChunkWithApartment(
+                "ACTIVE", afterId, PageRequest.of(0, householdChunkSize));
+        if (households.isEmpty()) {
+            return null;
+        }
+        Long firstId = households.get(0).getId();
+        Long lastId = households.get(households.size() - 1).getId();
+        int itemCount = tariff.getFeeItems().size();
+
+        // Bỏ qua các cặp (hộ, khoản thu) đã có trong kỳ để chạy lại không bị trùng
+        Map<Long, Set<Long>> existing = new HashMap<>();
+        for (Object[] pair : feeObligationRepository.findHouseholdItemPairs(feePeriod.getId(), firstId, lastId)) {
+            existing.computeIfAbsent((Long) pair[0], k -> new HashSet<>()).add((Long) pair[1]);
+        }
+        long inserted = generate(households, feePeriod, tariff, (householdId, feeItemId) ->
+                existing.getOrDefault(householdId, Collections.emptySet()).contains(feeItemId));
+
+        ObligationGenerationJob job = jobRepository.findById(jobId).orElseThrow();
+        job.setProcessedRows(job.getProcessedRows() + (long) households.size() * itemCount);
+        job.setInsertedRows(job.getInsertedRows() + inserted);
+        job.setTotalRows(Math.max(job.getTotalRows(), job.getProcessedRows()));
+        job.setLastHouseholdId(lastId);
+        jobRepository.save(job);
+
+        return lastId;
+    }
+
+    /**
+     * Định giá và chèn công nợ cho các hộ, bỏ qua cặp đã tồn tại, ghi nhận số tổng hợp theo hộ
+     * @return số công nợ đã chèn
+     */
+    private long generate(List<Household> households, FeePeriod feePeriod, CompiledTariff tariff,
+                          BiPredicate<Long, Long> exists) {
+        if (households.isEmpty()) {
+            return 0;
+        }
+        List<FeeItem> feeItems = tariff.getFeeItems();
+        Map<Long, HouseholdFacts> facts = tariff.prefetch(households);
+
+        LocalDate dueDate = feePeriod.getStartDate()
+                .withDayOfMonth(Math.min(dueDayOfMonth, feePeriod.getStartDate().lengthOfMonth()));
+        List<FeeObligation> buffer = new ArrayList<>(Math.min(generationBatchSize, households.size() * feeItems.size()));
+        List<RollupDelta> rollups = new ArrayList<>(households.size());
+        long inserted = 0;
+        for (Household household : households) {
+            HouseholdFacts householdFacts = facts.get(household.getId());
+            BigDecimal householdTotal = BigDecimal.ZERO;
+            for (int i = 0; i < feeItems.size(); i++) {
+                FeeItem feeItem = feeItems.get(i);
+                if (exists.test(household.getId(), feeItem.getId())) {
+                    continue;
+                }
+                BigDecimal expectedAmount = tariff.price(i, householdFacts);
+                // Không sinh công nợ 0 đồng (ví dụ phí gửi ô tô cho hộ không có ô tô)
+                if (expectedAmount.signum() == 0) {
+                    continue;
+                }
+                householdTotal = householdTotal.add(expectedAmount);
+                buffer.add(FeeObligation.builder()
+                        .household(household)
+                        .feeItem(feeItem)
+                        .feePeriod(feePeriod)
+                        .feeItemName(feeItem.getName())
+                        .periodYm(feePeriod.getName())
+                        .expectedAmount(expectedAmount)
+                        .paidAmount(BigDecimal.ZERO)
+                        .dueDate(dueDate)
+                        .status("UNPAID")
+                        .build());
+
+                if (buffer.size() >= generationBatchSize) {
+                    inserted += feeObligationRepository.batchInsert(buffer);
+                    buffer.clear();
+                }
+            }
+            rollups.add(new RollupDelta(feePeriod.getId(), household.getId(), householdTotal, BigDecimal.ZERO));
+        }
+        inserted += feeObligationRepository.batchInsert(buffer);
+        feeRollupService.recordDeltas(rollups);
+        return inserted;
+    }
+
+    private ObligationGenerationJobDTO toDTO(ObligationGenerationJob job) {
+        double rowsPerSecond = 0.0;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Duration.between(job.getStartedAt(), end).toMillis();
+            if (millis > 0) {
+                rowsPerSecond = Math.round(job.getProcessedRows() * 10000.0 / millis) / 10.0;
+            }
+        }
+
+        return ObligationGenerationJobDTO.builder()
+                .jobId(job.getId())
+                .feePeriodId(job.getFeePeriodId())
+                .status(job.getStatus())
+                .totalRows(job.getTotalRows())
+                .rowsDone(job.getProcessedRows())
+                .rowsInserted(job.getInsertedRows())
+                .rowsRemaining(Math.max(0, job.getTotalRows() - job.getProcessedRows()))
+                .rowsPerSecond(rowsPerSecond)
+                .errorMessage(job.getErrorMessage())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.OverdueRunDTO;
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.repository.FeeHouseholdRollupRepository;
+import com.hoangdo.quanlichungcu.repository.FeeItemRepository;
+import com.hoangdo.quanlichungcu.repository.FeeObligationRepository;
+import com.hoangdo.quanlichungcu.service.OverdueService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class OverdueServiceImpl implements OverdueService {
+
+    private final FeeObligationRepository feeObligationRepository;
+    private final FeeItemRepository feeItemRepository;
+    private final FeeHouseholdRollupRepository feeHouseholdRollupRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.fee-obligation.overdue.late-fee-item-name:Phí phạt chậm nộp}")
+    private String lateFeeItemName;
+
+    // Tỷ lệ phạt trên số tiền còn nợ, ví dụ 0.05 = 5%
+    @Value("${app.fee-obligation.overdue.late-fee-rate:0.05}")
+    private BigDecimal lateFeeRate;
+
+    // Phí phạt cố định cho mỗi công nợ quá hạn
+    @Value("${app.fee-obligation.overdue.late-fee-fixed:0}")
+    private BigDecimal lateFeeFixed;
+
+    @Scheduled(cron = "${app.fee-obligation.overdue.cron:0 5 0 * * *}")
+    public void runDaily() {
+        processOverdue(LocalDate.now());
+    }
+
+    @Override
+    public OverdueRunDTO processOverdue(LocalDate today) {
+        long started = System.currentTimeMillis();
+
+        // Phạt trước khi đổi trạng thái: cả hai câu cùng đọc tập công nợ vừa đến hạn
+        int lateFeeRows = 0;
+        FeeItem lateFeeItem = feeItemRepository.findByName(lateFeeItemName).orElse(null);
+        if (lateFeeItem != null && (lateFeeRate.signum() > 0 || lateFeeFixed.signum() > 0)) {
+            feeHouseholdRollupRepository.accrueLateFees(today, lateFeeItem.getId(), lateFeeRate, lateFeeFixed);
+            lateFeeRows = feeObligationRepository.accrueLateFees(
+                    today, lateFeeItem.getId(), lateFeeItem.getName(), lateFeeRate, lateFeeFixed);
+        }
+        int overdueMarked = feeObligationRepository.markOverdue(today);
+        if (lateFeeRows > 0) {
+            // Phí phạt làm đổi số phải thu của mọi kỳ có công nợ quá hạn
+            eventPublisher.publishEvent(ReportDataChangedEvent.obligations(List.of()));
+        }
+
+        return OverdueRunDTO.builder()
+                .runDate(today)
+                .overdueMarked(overdueMarked)
+                .lateFeeRows(lateFeeRows)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.PeriodTrendDTO;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
+import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.FeeObligationRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
+import com.hoangdo.quanlichungcu.service.PeriodSnapshotService;
+import com.hoangdo.quanlichungcu.service.snapshot.PeriodSnapshot;
+import com.hoangdo.quanlichungcu.service.snapshot.PeriodSnapshotBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PeriodSnapshotServiceImpl implements PeriodSnapshotService {
+
+    private final FeePeriodRepository feePeriodRepository;
+    private final FeeObligationRepository feeObligationRepository;
+
+    // Các file đã ánh xạ vào bộ nhớ, theo id kỳ thu
+    private final Map<Long, PeriodSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Value("${app.snapshots.dir:./data/period-snapshots}")
+    private String snapshotDir;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshots() {
+        Path dir = Paths.get(snapshotDir);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "period-*.col")) {
+                for (Path file : files) {
+                    PeriodSnapshot snapshot = PeriodSnapshot.open(file);
+                    snapshots.put(snapshot.getPeriodId(), snapshot);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.warn("Không đọc được thư mục file chụp kỳ thu {}: {}", dir, ex.getMessage());
+            }
+        }
+        // Kỳ chốt trước khi có file chụp: xuất một lần
+        for (FeePeriod period : feePeriodRepository.findByStatus("CLOSED")) {
+            if (!snapshots.containsKey(period.getId())) {
+                exportQuietly(period.getId());
+            }
+        }
+    }
+
+    @Override
+    public void exportAfterCommit(Long feePeriodId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                exportQuietly(feePeriodId);
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int export(Long feePeriodId) {
+        FeePeriod period = feePeriodRepository.findById(feePeriodId)
+                .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", feePeriodId));
+        if (!"CLOSED".equals(period.getStatus())) {
+            throw new BadRequestException("Chỉ xuất file chụp cho kỳ đã chốt sổ");
+        }
+
+        PeriodSnapshotBuilder builder = new PeriodSnapshotBuilder();
+        feeObligationRepository.scanPeriod(feePeriodId, builder::add);
+        Path file = Paths.get(snapshotDir, "period-" + feePeriodId + ".col");
+        try {
+            builder.writeTo(file, feePeriodId, period.getName(), period.getStartDate());
+            PeriodSnapshot snapshot = PeriodSnapshot.open(file);
+            snapshots.put(feePeriodId, snapshot);
+            return snapshot.getRows();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public List<PeriodTrendDTO> getHistory(int months, Long feeItemId, Long householdId) {
+        List<PeriodSnapshot> periods = new ArrayList<>(snapshots.values());
+        periods.sort(Comparator.comparing(PeriodSnapshot::getStartDate));
+        List<PeriodSnapshot> recent = periods.subList(Math.max(0, periods.size() - Math.max(months, 0)), periods.size());
+
+        List<PeriodTrendDTO> trend = new ArrayList<>(recent.size());
+        for (PeriodSnapshot snapshot : recent) {
+            trend.add(aggregate(snapshot, feeItemId, householdId));
+        }
+        return trend;
+    }
+
+    private PeriodTrendDTO aggregate(PeriodSnapshot snapshot, Long feeItemId, Long householdId) {
+        int from = 0;
+        int to = snapshot.getRows();
+        if (householdId != null) {
+            // Các dòng đã sắp theo hộ: tìm đoạn của hộ bằng tìm kiếm nhị phân
+            from = lowerBound(snapshot, householdId);
+            to = lowerBound(snapshot, householdId + 1);
+        }
+        int itemFilter = feeItemId != null ? feeItemId.intValue() : -1;
+
+        long expected = 0;
+        long paid = 0;
+        long obligations = 0;
+        long paidCount = 0;
+        long households = 0;
+        int lastHousehold = -1;
+        for (int row = from; row < to; row++) {
+            if (itemFilter >= 0 && snapshot.feeItemId(row) != itemFilter) {
+                continue;
+            }
+            expected += snapshot.expectedCents(row);
+            paid += snapshot.paidCents(row);
+            obligations++;
+            if (snapshot.status(row) == PeriodSnapshot.STATUS_PAID) {
+                paidCount++;
+            }
+            int household = snapshot.householdId(row);
+            if (household != lastHousehold) {
+                households++;
+                lastHousehold = household;
+            }
+        }
+
+        double rate = expected > 0 ? Math.round(paid * 1000.0 / expected) / 10.0 : 0.0;
+        return PeriodTrendDTO.builder()
+                .periodId(snapshot.getPeriodId())
+                .periodName(snapshot.getPeriodName())
+                .startDate(snapshot.getStartDate())
+                .totalReceivable(BigDecimal.valueOf(expected, 2))
+                .totalCollected(BigDecimal.valueOf(paid, 2))
+                .collectionRate(rate)
+                .obligationCount(obligations)
+                .paidCount(paidCount)
+                .householdCount(households)
+                .build();
+    }
+
+    private static int lowerBound(PeriodSnapshot snapshot, long householdId) {
+        int low = 0;
+        int high = snapshot.getRows();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.householdId(mid) < householdId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Lỗi ghi file chụp không được làm hỏng thao tác chốt sổ, có thể xuất lại qua API
+    private void exportQuietly(Long feePeriodId) {
+        try {
+            export(feePeriodId);
+        } catch (RuntimeException ex) {
+            log.warn("Không xuất được file chụp cho kỳ thu {}: {}", feePeriodId, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import com.hoangdo.quanlichungcu.dto.ReportExportJobDTO;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.entity.ReportExportJob;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
+import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
+import com.hoangdo.quanlichungcu.repository.FeeObligationRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodClosingRepository;
+import com.hoangdo.quanlichungcu.repository.FeePeriodRepository;
+import com.hoangdo.quanlichungcu.repository.ReportExportJobRepository;
+import com.hoangdo.quanlichungcu.service.ReportExportService;
+import com.hoangdo.quanlichungcu.service.export.TableWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ReportExportServiceImpl implements ReportExportService {
+
+    public static final String PERIOD_LEDGER = "PERIOD_LEDGER";
+
+    private static final Set<String> REPORT_TYPES = Set.of(PERIOD_LEDGER);
+    private static final Set<String> FORMATS = Set.of("CSV", "XLSX");
+    private static final List<String> UNFINISHED_STATUSES = List.of("PENDING", "RUNNING");
+    private static final List<String> REUSABLE_STATUSES = List.of("PENDING", "RUNNING", "DONE");
+
+    private static final String[] LEDGER_HEADER = {
+            "Mã công nợ", "Mã hộ", "Chủ hộ", "Tòa", "Tầng", "Căn", "Khoản thu", "Kỳ",
+            "Phải thu", "Đã thu", "Còn nợ", "Trạng thái", "Hạn nộp", "Ngày nộp", "Hình thức", "Người nộp", "Ghi chú"
+    };
+
+    private final ReportExportJobRepository jobRepository;
+    private final FeePeriodRepository feePeriodRepository;
+    private final FeePeriodClosingRepository feePeriodClosingRepository;
+    private final FeeObligationRepository feeObligationRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor reportExportExecutor;
+
+    // Các job đang thực sự chạy trong JVM này
+    private final Set<Long> activeJobIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.exports.dir:./data/exports}")
+    private String exportDir;
+
+    // MySQL Connector/J chỉ đọc từng dòng từ server khi fetch size = Integer.MIN_VALUE
+    @Value("${app.exports.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    @Override
+    public ReportExportJobDTO submit(String reportType, Long feePeriodId, String format) {
+        String type = reportType != null ? reportType.toUpperCase(Locale.ROOT) : PERIOD_LEDGER;
+        String fmt = format != null ? format.toUpperCase(Locale.ROOT) : "CSV";
+        if (!REPORT_TYPES.contains(type)) {
+            throw new BadRequestException("Loại báo cáo không hỗ trợ: " + reportType);
+        }
+        if (!FORMATS.contains(fmt)) {
+            throw new BadRequestException("Định dạng phải là CSV hoặc XLSX");
+        }
+        FeePeriod feePeriod = feePeriodRepository.findById(feePeriodId)
+                .orElseThrow(() -> new ResourceNotFoundException("FeePeriod", "id", feePeriodId));
+        String dataVersion = dataVersion(feePeriod);
+
+        ReportExportJob job = jobRepository
+                .findFirstByReportTypeAndFeePeriodIdAndFormatAndDataVersionAndStatusInOrderByIdDesc(
+                        type, feePeriodId, fmt, dataVersion, REUSABLE_STATUSES)
+                .orElse(null);
+        if (job != null && "DONE".equals(job.getStatus())) {
+            if (job.getFilePath() != null && Files.isRegularFile(Paths.get(job.getFilePath()))) {
+                return toDTO(job, true);
+            }
+            // File đã bị xóa khỏi đĩa: xuất lại
+            job.setStatus("EXPIRED");
+            job.setFilePath(null);
+            job = null;
+        }
+        if (job != null) {
+            return toDTO(job, false);
+        }
+
+        job = jobRepository.save(ReportExportJob.builder()
+                .reportType(type)
+                .feePeriodId(feePeriodId)
+                .format(fmt)
+                .dataVersion(dataVersion)
+                .status("PENDING")
+                .rowCount(0L)
+                .fileSize(0L)
+                .build());
+        dispatchAfterCommit(job.getId());
+        return toDTO(job, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReportExportJobDTO findById(Long jobId) {
+        return toDTO(getJob(jobId), false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Path getFile(Long jobId) {
+        ReportExportJob job = getJob(jobId);
+        if (!"DONE".equals(job.getStatus())) {
+            throw new BadRequestException("Job xuất báo cáo " + jobId + " chưa hoàn tất (" + job.getStatus() + ")");
+        }
+        Path file = Paths.get(job.getFilePath());
+        if (!Files.isRegularFile(file)) {
+            throw new BadRequestException("File kết quả của job " + jobId + " không còn, hãy tạo lại job xuất");
+        }
+        return file;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        // Job bị ngắt khi tắt server được xuất lại từ đầu, file tạm cũ bị ghi đè
+        jobRepository.findByStatusIn(UNFINISHED_STATUSES)
+                .forEach(job -> dispatch(job.getId()));
+    }
+
+    /**
+     * Kỳ đã chốt không đổi nữa nên phiên bản là thời điểm chốt;
+     * kỳ đang thu dùng dấu tổng hợp của sổ công nợ
+     */
+    private String dataVersion(FeePeriod feePeriod) {
+        if ("CLOSED".equals(feePeriod.getStatus())) {
+            return feePeriodClosingRepository.findById(feePeriod.getId())
+                    .map(closing -> "closed:" + closing.getClosedAt())
+                    .orElseGet(() -> feeObligationRepository.findLedgerVersion(feePeriod.getId()));
+        }
+        return feeObligationRepository.findLedgerVersion(feePeriod.getId());
+    }
+
+    private void dispatchAfterCommit(Long jobId) {
+        // Chỉ chạy job sau khi bản ghi job đã được commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(jobId);
+            }
+        });
+    }
+
+    private void dispatch(Long jobId) {
+        if (activeJobIds.add(jobId)) {
+            reportExportExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    activeJobIds.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(Long jobId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Path temp = null;
+        try {
+            ReportExportJob job = tx.execute(status -> {
+                ReportExportJob j = jobRepository.findById(jobId).orElseThrow();
+                j.setStatus("RUNNING");
+                j.setStartedAt(LocalDateTime.now());
+                return jobRepository.save(j);
+            });
+
+            Path dir = Paths.get(exportDir);
+            Files.createDirectories(dir);
+            String extension = job.getFormat().toLowerCase(Locale.ROOT);
+            Path target = dir.resolve("period-ledger-" + job.getFeePeriodId() + "-" + jobId + "." + extension);
+            temp = dir.resolve(target.getFileName() + ".part");
+
+            // Đọc con trỏ ngoài transaction JPA và ghi thẳng từng dòng ra file
+            long rows;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024);
+                 TableWriter writer = TableWriter.open(job.getFormat(), out, LEDGER_HEADER)) {
+                rows = feeObligationRepository.streamLedger(job.getFeePeriodId(), fetchSize, writer::writeRow);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(target);
+
+            tx.executeWithoutResult(status -> {
+                ReportExportJob j = jobRepository.findById(jobId).orElseThrow();
+                j.setStatus("DONE");
+                j.setFilePath(target.toString());
+                j.setRowCount(rows);
+                j.setFileSize(size);
+                j.setErrorMessage(null);
+                j.setFinishedAt(LocalDateTime.now());
+                jobRepository.save(j);
+                expireOlderFiles(j);
+            });
+        } catch (IOException | RuntimeException ex) {
+            Throwable cause = ex instanceof UncheckedIOException ? ex.getCause() : ex;
+            log.warn("Job xuất báo cáo {} thất bại: {}", jobId, cause.getMessage());
+            deleteQuietly(temp);
+            tx.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(j -> {
+                j.setStatus("FAILED");
+                j.setFinishedAt(LocalDateTime.now());
+                String message = String.valueOf(cause.getMessage());
+                j.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+                jobRepository.save(j);
+            }));
+        }
+    }
+
+    /**
+     * Mỗi (loại báo cáo, kỳ thu, định dạng) chỉ giữ file của phiên bản mới nhất
+     */
+    private void expireOlderFiles(ReportExportJob job) {
+        for (ReportExportJob old : jobRepository.findByReportTypeAndFeePeriodIdAndFormatAndStatusAndIdLessThan(
+                job.getReportType(), job.getFeePeriodId(), job.getFormat(), "DONE", job.getId())) {
+            if (old.getFilePath() != null) {
+                deleteQuietly(Paths.get(old.getFilePath()));
+            }
+            old.setStatus("EXPIRED");
+            old.setFilePath(null);
+            jobRepository.save(old);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Không xóa được file xuất {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private ReportExportJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("ReportExportJob", "id", jobId));
+    }
+
+    private ReportExportJobDTO toDTO(ReportExportJob job, boolean cached) {
+        return ReportExportJobDTO.builder()
+                .jobId(job.getId())
+                .reportType(job.getReportType())
+                .feePeriodId(job.getFeePeriodId())
+                .format(job.getFormat())
+                .dataVersion(job.getDataVersion())
+                .status(job.getStatus())
+                .rowCount(job.getRowCount())
+                .fileSize(job.getFileSize())
+                .fileName(job.getFilePath() != null ? Paths.get(job.getFilePath()).getFileName().toString() : null)
+                .cached(cached)
+                .errorMessage(job.getErrorMessage())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
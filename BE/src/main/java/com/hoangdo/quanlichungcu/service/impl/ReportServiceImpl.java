@@ -1,21 +1,38 @@
 package com.hoangdo.quanlichungcu.service.impl;
 
+import com.hoangdo.quanlichungcu.dto.ArrearsAgingDTO;
+import com.hoangdo.quanlichungcu.dto.ArrearsAgingReportDTO;
+import com.hoangdo.quanlichungcu.dto.CashierCollectionDTO;
+import com.hoangdo.quanlichungcu.dto.CollectionPointDTO;
+import com.hoangdo.quanlichungcu.dto.DailyCollectionDTO;
 import com.hoangdo.quanlichungcu.dto.DashboardAnalyticsDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemCollectionDTO;
 import com.hoangdo.quanlichungcu.dto.HouseholdPaymentStatDTO;
 import com.hoangdo.quanlichungcu.dto.PeriodStatDTO;
+import com.hoangdo.quanlichungcu.dto.ReportCacheStatsDTO;
 import com.hoangdo.quanlichungcu.dto.ReportSummaryDTO;
-import com.hoangdo.quanlichungcu.entity.FeePeriod;
-import com.hoangdo.quanlichungcu.entity.Household;
+import com.hoangdo.quanlichungcu.entity.FeePeriodClosing;
+import com.hoangdo.quanlichungcu.entity.FeePeriodHouseholdTotal;
+import com.hoangdo.quanlichungcu.entity.FeePeriodRollup;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
 import com.hoangdo.quanlichungcu.repository.*;
 import com.hoangdo.quanlichungcu.service.ReportService;
+import com.hoangdo.quanlichungcu.service.cache.ReportCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,11 +42,44 @@ public class ReportServiceImpl implements ReportService {
     private final HouseholdRepository householdRepository;
     private final ResidentRepository residentRepository;
     private final FeeItemRepository feeItemRepository;
-    private final FeeObligationRepository feeObligationRepository;
     private final FeePeriodRepository feePeriodRepository;
+    private final PaymentRepository paymentRepository;
+    private final FeePeriodRollupRepository feePeriodRollupRepository;
+    private final FeeHouseholdRollupRepository feeHouseholdRollupRepository;
+    private final FeePeriodClosingRepository feePeriodClosingRepository;
+    private final FeePeriodItemTotalRepository feePeriodItemTotalRepository;
+    private final FeePeriodHouseholdTotalRepository feePeriodHouseholdTotalRepository;
+    private final FeeObligationRepository feeObligationRepository;
+    private final FeeCollectionDailyRepository feeCollectionDailyRepository;
+    private final ReportCache reportCache;
+    
+    // Hòa tỷ lệ thì hộ có id nhỏ hơn đứng trước ở cả hai chiều
+    private static final Comparator<HouseholdPaymentStatDTO> BY_RATE_ASC = Comparator
+            .comparing(HouseholdPaymentStatDTO::getPaymentRate)
+            .thenComparing(HouseholdPaymentStatDTO::getHouseholdId);
+    private static final Comparator<HouseholdPaymentStatDTO> BY_RATE_DESC = Comparator
+            .comparing(HouseholdPaymentStatDTO::getPaymentRate, Comparator.reverseOrder())
+            .thenComparing(HouseholdPaymentStatDTO::getHouseholdId);
+    
+    @Value("${app.reports.max-ranking-size:50}")
+    private int maxRankingSize;
+    
+    @Value("${app.reports.max-trend-periods:36}")
+    private int maxTrendPeriods;
+    
+    @Value("${app.reports.max-timeseries-days:1830}")
+    private int maxTimeseriesDays;
 
     @Override
     public ReportSummaryDTO getSummary(String periodYm) {
+        // Hỗ trợ cả 2 format: "2025-12" hoặc "T12/2025"
+        String periodName = periodYm != null && !periodYm.isEmpty()
+                ? (periodYm.startsWith("T") ? periodYm : convertPeriodFormat(periodYm))
+                : null;
+        return reportCache.get(ReportCache.summaryKey(periodName), () -> loadSummary(periodName));
+    }
+    
+    private ReportSummaryDTO loadSummary(String formattedPeriod) {
         Long totalHouseholds = householdRepository.count();
         Long totalPersons = residentRepository.count();
         Long activeResidents = residentRepository.countByStatus("ACTIVE");
@@ -39,14 +89,20 @@ public class ReportServiceImpl implements ReportService {
         BigDecimal totalReceivable;
         BigDecimal totalCollected;
 
-        if (periodYm != null && !periodYm.isEmpty()) {
-            // Hỗ trợ cả 2 format: "2025-12" hoặc "T12/2025"
-            String formattedPeriod = periodYm.startsWith("T") ? periodYm : convertPeriodFormat(periodYm);
-            totalReceivable = feeObligationRepository.sumExpectedByPeriod(formattedPeriod);
-            totalCollected = feeObligationRepository.sumPaidByPeriod(formattedPeriod);
+        if (formattedPeriod != null) {
+            // Kỳ đã chốt sổ đọc số liệu chốt, kỳ đang mở đọc bảng tổng hợp
+            FeePeriodClosing closing = feePeriodClosingRepository.findByPeriodName(formattedPeriod).orElse(null);
+            if (closing != null) {
+                totalReceivable = closing.getExpectedTotal();
+                totalCollected = closing.getPaidTotal();
+            } else {
+                FeePeriodRollup rollup = feePeriodRollupRepository.findByPeriodName(formattedPeriod).orElse(null);
+                totalReceivable = rollup != null ? rollup.getExpectedTotal() : null;
+                totalCollected = rollup != null ? rollup.getPaidTotal() : null;
+            }
         } else {
-            totalReceivable = feeObligationRepository.sumAllExpected();
-            totalCollected = feeObligationRepository.sumAllPaid();
+            totalReceivable = feePeriodRollupRepository.sumAllExpected();
+            totalCollected = feePeriodRollupRepository.sumAllPaid();
         }
 
         if (totalReceivable == null) totalReceivable = BigDecimal.ZERO;
@@ -85,25 +141,25 @@ public class ReportServiceImpl implements ReportService {
     }
     
     @Override
-    public DashboardAnalyticsDTO getDashboardAnalytics() {
-        // Lấy 5 kỳ thu gần nhất (sắp xếp theo startDate giảm dần)
-        List<FeePeriod> allPeriods = feePeriodRepository.findAll()
-                .stream()
-                .sorted(Comparator.comparing(FeePeriod::getStartDate).reversed())
-                .limit(5)
-                .collect(Collectors.toList());
-        
-        // Đảo ngược để hiển thị từ cũ đến mới
-        List<FeePeriod> last5Periods = new ArrayList<>(allPeriods);
-        java.util.Collections.reverse(last5Periods);
+    public DashboardAnalyticsDTO getDashboardAnalytics(int periods, int topN, int bottomN) {
+        if (periods < 1 || periods > maxTrendPeriods) {
+            throw new BadRequestException("periods phải trong khoảng 1.." + maxTrendPeriods);
+        }
+        if (topN < 0 || topN > maxRankingSize || bottomN < 0 || bottomN > maxRankingSize) {
+            throw new BadRequestException("topN / bottomN phải trong khoảng 0.." + maxRankingSize);
+        }
+        return reportCache.get(ReportCache.analyticsKey(periods, topN, bottomN),
+                () -> loadDashboardAnalytics(periods, topN, bottomN));
+    }
+    
+    private DashboardAnalyticsDTO loadDashboardAnalytics(int periods, int topN, int bottomN) {
+        // N kỳ mới nhất và kỳ CLOSED mới nhất trong một câu lệnh (startDate giảm dần)
+        List<Object[]> rows = feePeriodRepository.findRecentPeriodStats(periods);
         
-        List<PeriodStatDTO> periodStats = new ArrayList<>();
-        for (FeePeriod period : last5Periods) {
-            BigDecimal totalReceivable = feeObligationRepository.sumExpectedAmountByPeriodId(period.getId());
-            BigDecimal totalCollected = feeObligationRepository.sumPaidAmountByPeriodId(period.getId());
-            
-            if (totalReceivable == null) totalReceivable = BigDecimal.ZERO;
-            if (totalCollected == null) totalCollected = BigDecimal.ZERO;
+        List<PeriodStatDTO> periodStats = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            BigDecimal totalReceivable = (BigDecimal) row[3];
+            BigDecimal totalCollected = (BigDecimal) row[4];
             
             Double rate = 0.0;
             if (totalReceivable.compareTo(BigDecimal.ZERO) > 0) {
@@ -112,61 +168,214 @@ public class ReportServiceImpl implements ReportService {
             }
             
             periodStats.add(PeriodStatDTO.builder()
-                    .periodId(period.getId())
-                    .periodName(period.getName())
-                    .status(period.getStatus())
+                    .periodId(((Number) row[0]).longValue())
+                    .periodName((String) row[1])
+                    .status((String) row[2])
                     .totalReceivable(totalReceivable)
                     .totalCollected(totalCollected)
                     .collectionRate(Math.round(rate * 10.0) / 10.0)
                     .build());
         }
         
-        // Tìm kỳ trước đó (kỳ đã đóng gần nhất hoặc kỳ thứ 2 trong danh sách)
-        FeePeriod previousPeriod = null;
-        List<FeePeriod> closedPeriods = feePeriodRepository.findByStatusOrderByStartDateDesc("CLOSED");
-        if (!closedPeriods.isEmpty()) {
-            previousPeriod = closedPeriods.get(0);
-        } else if (allPeriods.size() > 1) {
-            previousPeriod = allPeriods.get(1);
+        // Kỳ trước đó: kỳ đã đóng gần nhất, nếu chưa có thì kỳ thứ 2 trong danh sách
+        Long previousPeriodId = null;
+        String previousPeriodName = null;
+        if (!rows.isEmpty() && rows.get(0)[5] != null) {
+            previousPeriodId = ((Number) rows.get(0)[5]).longValue();
+            previousPeriodName = (String) rows.get(0)[6];
+        } else if (periodStats.size() > 1) {
+            previousPeriodId = periodStats.get(1).getPeriodId();
+            previousPeriodName = periodStats.get(1).getPeriodName();
         }
         
-        HouseholdPaymentStatDTO bestHousehold = null;
-        HouseholdPaymentStatDTO worstHousehold = null;
-        String previousPeriodName = null;
+        // Hiển thị từ cũ đến mới
+        Collections.reverse(periodStats);
         
-        if (previousPeriod != null) {
-            previousPeriodName = previousPeriod.getName();
-            List<HouseholdPaymentStatDTO> householdStats = getHouseholdPaymentStats(previousPeriod.getId());
-            
-            if (!householdStats.isEmpty()) {
-                // Sắp xếp theo tỷ lệ thanh toán
-                householdStats.sort(Comparator.comparing(HouseholdPaymentStatDTO::getPaymentRate).reversed());
-                bestHousehold = householdStats.get(0);
-                worstHousehold = householdStats.get(householdStats.size() - 1);
+        List<HouseholdPaymentStatDTO> topHouseholds = List.of();
+        List<HouseholdPaymentStatDTO> bottomHouseholds = List.of();
+        if (previousPeriodId != null) {
+            // Chỉ giữ topN / bottomN hộ trong hai heap giới hạn, không sắp xếp cả danh sách.
+            // Đỉnh heap là hộ "kém nhất" trong số đang giữ, bị loại đầu tiên khi heap đầy
+            PriorityQueue<HouseholdPaymentStatDTO> top = new PriorityQueue<>(BY_RATE_DESC.reversed());
+            PriorityQueue<HouseholdPaymentStatDTO> bottom = new PriorityQueue<>(BY_RATE_ASC.reversed());
+            for (HouseholdPaymentStatDTO stat : getHouseholdPaymentStats(previousPeriodId)) {
+                offerBounded(top, stat, topN);
+                offerBounded(bottom, stat, bottomN);
             }
+            topHouseholds = drainSorted(top, BY_RATE_DESC);
+            bottomHouseholds = drainSorted(bottom, BY_RATE_ASC);
         }
         
         return DashboardAnalyticsDTO.builder()
-                .last5PeriodStats(periodStats)
-                .bestPayingHousehold(bestHousehold)
-                .worstPayingHousehold(worstHousehold)
+                .periodStats(periodStats)
+                .bestPayingHousehold(topHouseholds.isEmpty() ? null : topHouseholds.get(0))
+                .worstPayingHousehold(bottomHouseholds.isEmpty() ? null : bottomHouseholds.get(0))
+                .topPayingHouseholds(topHouseholds)
+                .bottomPayingHouseholds(bottomHouseholds)
                 .previousPeriodName(previousPeriodName)
                 .build();
     }
     
+    private static <T> void offerBounded(PriorityQueue<T> heap, T item, int limit) {
+        if (limit <= 0) {
+            return;
+        }
+        heap.offer(item);
+        if (heap.size() > limit) {
+            heap.poll();
+        }
+    }
+    
+    private static <T> List<T> drainSorted(PriorityQueue<T> heap, Comparator<T> order) {
+        List<T> list = new ArrayList<>(heap);
+        list.sort(order);
+        return list;
+    }
+    
+    @Override
+    public ReportCacheStatsDTO getCacheStats() {
+        return reportCache.stats();
+    }
+    
+    @Override
+    public List<DailyCollectionDTO> getDailyCollections(LocalDate from, LocalDate to) {
+        return paymentRepository.sumDailyCollections(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    @Override
+    public List<CashierCollectionDTO> getCollectionsByCashier(LocalDate from, LocalDate to) {
+        return paymentRepository.sumCollectionsByCashier(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+    
+    @Override
+    public List<CollectionPointDTO> getCollectionTimeseries(LocalDate from, LocalDate to, String granularity,
+                                                            Long feeItemId, String block) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Ngày bắt đầu phải trước ngày kết thúc");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxTimeseriesDays) {
+            throw new BadRequestException("Khoảng thời gian tối đa " + maxTimeseriesDays + " ngày");
+        }
+        String unit = granularity != null ? granularity.toUpperCase() : "DAY";
+        if (!List.of("DAY", "WEEK", "MONTH").contains(unit)) {
+            throw new BadRequestException("granularity không hợp lệ: " + granularity + " (DAY, WEEK hoặc MONTH)");
+        }
+        String blockFilter = block != null && !block.isBlank() ? block.trim() : null;
+        
+        // Dựng sẵn mọi khoảng trong [from, to] để biểu đồ không bị hụt điểm
+        List<CollectionPointDTO> points = new ArrayList<>();
+        for (LocalDate start = bucketStart(from, unit); !start.isAfter(to); start = nextBucket(start, unit)) {
+            points.add(CollectionPointDTO.builder()
+                    .bucketStart(start)
+                    .bucketEnd(nextBucket(start, unit).minusDays(1))
+                    .amount(BigDecimal.ZERO)
+                    .paymentCount(0L)
+                    .build());
+        }
+        
+        // [ngày, tổng tiền, số phiếu thu], tăng dần theo ngày nên chỉ cần đi tiến trên danh sách khoảng
+        int index = 0;
+        for (Object[] row : feeCollectionDailyRepository.sumByDate(from, to, feeItemId, blockFilter)) {
+            LocalDate date = (LocalDate) row[0];
+            while (points.get(index).getBucketEnd().isBefore(date)) {
+                index++;
+            }
+            CollectionPointDTO point = points.get(index);
+            point.setAmount(point.getAmount().add((BigDecimal) row[1]));
+            point.setPaymentCount(point.getPaymentCount() + ((Number) row[2]).longValue());
+        }
+        return points;
+    }
+    
+    private LocalDate bucketStart(LocalDate date, String unit) {
+        return switch (unit) {
+            case "WEEK" -> date.with(DayOfWeek.MONDAY);
+            case "MONTH" -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
+    
+    private LocalDate nextBucket(LocalDate start, String unit) {
+        return switch (unit) {
+            case "WEEK" -> start.plusWeeks(1);
+            case "MONTH" -> start.plusMonths(1);
+            default -> start.plusDays(1);
+        };
+    }
+    
+    @Override
+    public List<FeeItemCollectionDTO> getFeeItemCollections(Long periodId) {
+        if (feePeriodClosingRepository.existsById(periodId)) {
+            return feePeriodItemTotalRepository.findByFeePeriodIdOrderByFeeItemNameAsc(periodId).stream()
+                    .map(t -> FeeItemCollectionDTO.builder()
+                            .feeItemId(t.getFeeItemId())
+                            .feeItemName(t.getFeeItemName())
+                            .obligationCount(t.getObligationCount().longValue())
+                            .paidCount(t.getPaidCount().longValue())
+                            .expectedTotal(t.getExpectedTotal())
+                            .paidTotal(t.getPaidTotal())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+        return feeObligationRepository.sumByFeeItem(periodId);
+    }
+    
+    @Override
+    public ArrearsAgingReportDTO getArrearsAging(LocalDate asOf, String block, String floor) {
+        String blockFilter = block != null && !block.isBlank() ? block.trim() : null;
+        String floorFilter = floor != null && !floor.isBlank() ? floor.trim() : null;
+        
+        List<ArrearsAgingDTO> households = new ArrayList<>();
+        BigDecimal[] totals = new BigDecimal[6];
+        Arrays.fill(totals, BigDecimal.ZERO);
+        long obligationCount = 0;
+        for (Object[] row : feeObligationRepository.findArrearsAging(asOf, blockFilter, floorFilter)) {
+            BigDecimal[] buckets = new BigDecimal[6];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = row[6 + i] != null ? (BigDecimal) row[6 + i] : BigDecimal.ZERO;
+                totals[i] = totals[i].add(buckets[i]);
+            }
+            long count = ((Number) row[12]).longValue();
+            obligationCount += count;
+            households.add(agingRow(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                    (String) row[3], (String) row[4], (String) row[5], buckets, count));
+        }
+        
+        return ArrearsAgingReportDTO.builder()
+                .asOf(asOf)
+                .block(blockFilter)
+                .floor(floorFilter)
+                .totals(agingRow(null, null, null, blockFilter, floorFilter, null, totals, obligationCount))
+                .households(households)
+                .build();
+    }
+    
+    private ArrearsAgingDTO agingRow(Long householdId, String householdCode, String ownerName,
+                                     String block, String floor, String unit, BigDecimal[] buckets, long count) {
+        return ArrearsAgingDTO.builder()
+                .householdId(householdId)
+                .householdCode(householdCode)
+                .ownerName(ownerName)
+                .block(block)
+                .floor(floor)
+                .unit(unit)
+                .notDue(buckets[0])
+                .days0To30(buckets[1])
+                .days31To60(buckets[2])
+                .days61To90(buckets[3])
+                .daysOver90(buckets[4])
+                .totalOutstanding(buckets[5])
+                .obligationCount(count)
+                .build();
+    }
+    
     private List<HouseholdPaymentStatDTO> getHouseholdPaymentStats(Long periodId) {
-        List<Long> householdIds = feeObligationRepository.findDistinctHouseholdIdsByPeriodId(periodId);
         List<HouseholdPaymentStatDTO> stats = new ArrayList<>();
         
-        for (Long householdId : householdIds) {
-            Household household = householdRepository.findById(householdId).orElse(null);
-            if (household == null) continue;
-            
-            BigDecimal totalReceivable = feeObligationRepository.sumExpectedByPeriodAndHousehold(periodId, householdId);
-            BigDecimal totalPaid = feeObligationRepository.sumPaidByPeriodAndHousehold(periodId, householdId);
-            
-            if (totalReceivable == null) totalReceivable = BigDecimal.ZERO;
-            if (totalPaid == null) totalPaid = BigDecimal.ZERO;
+        // [id hộ, mã hộ, chủ hộ, tòa, tầng, căn, tổng phải thu, tổng đã thu]
+        for (Object[] row : householdStatRows(periodId)) {
+            BigDecimal totalReceivable = (BigDecimal) row[6];
+            BigDecimal totalPaid = (BigDecimal) row[7];
             
             Double rate = 0.0;
             if (totalReceivable.compareTo(BigDecimal.ZERO) > 0) {
@@ -174,14 +383,12 @@ public class ReportServiceImpl implements ReportService {
                         .multiply(BigDecimal.valueOf(100)).doubleValue();
             }
             
-            String apartmentInfo = household.getApartment() != null 
-                    ? household.getApartment().getBlock() + "-" + household.getApartment().getFloor() + "-" + household.getApartment().getUnit()
-                    : "";
+            String apartmentInfo = row[3] != null ? row[3] + "-" + row[4] + "-" + row[5] : "";
             
             stats.add(HouseholdPaymentStatDTO.builder()
-                    .householdId(householdId)
-                    .householdCode(household.getHouseholdId())
-                    .ownerName(household.getOwnerName())
+                    .householdId((Long) row[0])
+                    .householdCode((String) row[1])
+                    .ownerName((String) row[2])
                     .apartmentInfo(apartmentInfo)
                     .totalReceivable(totalReceivable)
                     .totalPaid(totalPaid)
@@ -191,4 +398,17 @@ public class ReportServiceImpl implements ReportService {
         
         return stats;
     }
+    
+    // Kỳ đã chốt sổ đọc bản chụp số liệu theo hộ lúc chốt
+    private List<Object[]> householdStatRows(Long periodId) {
+        if (!feePeriodClosingRepository.existsById(periodId)) {
+            return feeHouseholdRollupRepository.findHouseholdStats(periodId);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (FeePeriodHouseholdTotal t : feePeriodHouseholdTotalRepository.findByFeePeriodId(periodId)) {
+            rows.add(new Object[]{t.getHouseholdId(), t.getHouseholdCode(), t.getOwnerName(),
+                    t.getBlock(), t.getFloor(), t.getUnit(), t.getExpectedTotal(), t.getPaidTotal()});
+        }
+        return rows;
+    }
 }
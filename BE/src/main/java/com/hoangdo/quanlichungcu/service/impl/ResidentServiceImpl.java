@@ -8,7 +8,9 @@ import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
 import com.hoangdo.quanlichungcu.repository.HouseholdRepository;
 import com.hoangdo.quanlichungcu.repository.ResidentRepository;
 import com.hoangdo.quanlichungcu.service.ResidentService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,7 @@ public class ResidentServiceImpl implements ResidentService {
 
     private final ResidentRepository residentRepository;
     private final HouseholdRepository householdRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -65,6 +68,7 @@ public class ResidentServiceImpl implements ResidentService {
                 .build();
         
         resident = residentRepository.save(resident);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.RESIDENTS));
         return toDTO(resident);
     }
 
@@ -118,6 +122,7 @@ public class ResidentServiceImpl implements ResidentService {
         resident.setStatus(dto.getStatus());
         
         resident = residentRepository.save(resident);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.RESIDENTS));
         return toDTO(resident);
     }
 
@@ -132,6 +137,7 @@ public class ResidentServiceImpl implements ResidentService {
         }
         
         residentRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.RESIDENTS));
     }
     
     @Override
@@ -165,6 +171,7 @@ public class ResidentServiceImpl implements ResidentService {
         
         // Xóa chủ hộ cũ
         residentRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.RESIDENTS));
     }
     
     @Override
@@ -3,11 +3,14 @@ package com.hoangdo.quanlichungcu.service.impl;
 import com.hoangdo.quanlichungcu.dto.VehicleDTO;
 import com.hoangdo.quanlichungcu.entity.Household;
 import com.hoangdo.quanlichungcu.entity.Vehicle;
+import com.hoangdo.quanlichungcu.exception.BadRequestException;
 import com.hoangdo.quanlichungcu.exception.ResourceNotFoundException;
 import com.hoangdo.quanlichungcu.repository.HouseholdRepository;
 import com.hoangdo.quanlichungcu.repository.VehicleRepository;
 import com.hoangdo.quanlichungcu.service.VehicleService;
+import com.hoangdo.quanlichungcu.service.cache.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +24,7 @@ public class VehicleServiceImpl implements VehicleService {
 
     private final VehicleRepository vehicleRepository;
     private final HouseholdRepository householdRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -53,7 +57,7 @@ public class VehicleServiceImpl implements VehicleService {
         
         Vehicle vehicle = Vehicle.builder()
                 .household(household)
-                .type(dto.getType())
+                .type(requireType(dto.getType()))
                 .plate(dto.getPlate())
                 .brand(dto.getBrand())
                 .color(dto.getColor())
@@ -61,6 +65,7 @@ public class VehicleServiceImpl implements VehicleService {
                 .build();
         
         vehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.VEHICLES));
         return toDTO(vehicle);
     }
 
@@ -75,22 +80,33 @@ public class VehicleServiceImpl implements VehicleService {
             vehicle.setHousehold(newHousehold);
         }
         
-        vehicle.setType(dto.getType());
+        vehicle.setType(requireType(dto.getType()));
         vehicle.setPlate(dto.getPlate());
         vehicle.setBrand(dto.getBrand());
         vehicle.setColor(dto.getColor());
         vehicle.setStatus(dto.getStatus());
         
         vehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.VEHICLES));
         return toDTO(vehicle);
     }
 
+    // Phí gửi xe khớp theo loại xe, loại lạ sẽ không bao giờ bị tính phí
+    private String requireType(String type) {
+        String canonical = Vehicle.canonicalType(type);
+        if (canonical == null) {
+            throw new BadRequestException("Loại xe không hợp lệ: " + type + " (chỉ nhận " + Vehicle.TYPES + ")");
+        }
+        return canonical;
+    }
+
     @Override
     public void delete(Long id) {
         if (!vehicleRepository.existsById(id)) {
             throw new ResourceNotFoundException("Vehicle", "id", id);
         }
         vehicleRepository.deleteById(id);
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(ReportDataChangedEvent.Topic.VEHICLES));
     }
 
     private VehicleDTO toDTO(Vehicle vehicle) {
@@ -0,0 +1,22 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Đơn giá x diện tích căn hộ
+@Component
+public class AreaPricingRule implements PricingRule {
+
+    @Override
+    public String unit() {
+        return "M2";
+    }
+
+    @Override
+    public CompiledPrice compile(FeeItem feeItem, TariffContext context) {
+        BigDecimal cost = context.costOf(feeItem);
+        return facts -> facts.getArea().signum() == 0 ? BigDecimal.ZERO : cost.multiply(facts.getArea());
+    }
+}
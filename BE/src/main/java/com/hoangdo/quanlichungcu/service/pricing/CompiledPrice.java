@@ -0,0 +1,10 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import java.math.BigDecimal;
+
+// Hàm tính tiền đã biên dịch của một khoản thu, không được truy vấn DB
+@FunctionalInterface
+public interface CompiledPrice {
+    
+    BigDecimal price(HouseholdFacts facts);
+}
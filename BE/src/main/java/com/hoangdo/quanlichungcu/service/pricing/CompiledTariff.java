@@ -0,0 +1,86 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.Apartment;
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.Household;
+import com.hoangdo.quanlichungcu.repository.ResidentRepository;
+import com.hoangdo.quanlichungcu.repository.VehicleRepository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng giá đã biên dịch cho một lượt sinh công nợ: mỗi khoản thu một hàm tính tiền,
+ * cùng thứ tự với danh sách khoản thu truyền vào PricingEngine.compile
+ */
+public class CompiledTariff {
+
+    private final List<FeeItem> feeItems;
+    private final CompiledPrice[] prices;
+    private final TariffContext context;
+    // id căn hộ -> lượng tiêu thụ theo công tơ trong kỳ
+    private final Map<Long, BigDecimal[]> consumptionByApartment;
+    private final ResidentRepository residentRepository;
+    private final VehicleRepository vehicleRepository;
+
+    CompiledTariff(List<FeeItem> feeItems, CompiledPrice[] prices, TariffContext context,
+                   Map<Long, BigDecimal[]> consumptionByApartment,
+                   ResidentRepository residentRepository, VehicleRepository vehicleRepository) {
+        this.feeItems = feeItems;
+        this.prices = prices;
+        this.context = context;
+        this.consumptionByApartment = consumptionByApartment;
+        this.residentRepository = residentRepository;
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    public List<FeeItem> getFeeItems() {
+        return feeItems;
+    }
+
+    public BigDecimal price(int itemIndex, HouseholdFacts facts) {
+        return prices[itemIndex].price(facts);
+    }
+
+    /**
+     * Nạp dữ liệu tính phí cho một lô hộ dân (đã JOIN FETCH căn hộ),
+     * tối đa một truy vấn nhân khẩu và một truy vấn xe cho cả lô
+     * @param households sắp xếp theo id tăng dần
+     */
+    public Map<Long, HouseholdFacts> prefetch(List<Household> households) {
+        Map<Long, HouseholdFacts> facts = new HashMap<>(households.size() * 2);
+        if (households.isEmpty()) {
+            return facts;
+        }
+        int vehicleTypeCount = context.getVehicleTypeSlots().size();
+        for (Household household : households) {
+            Apartment apartment = household.getApartment();
+            facts.put(household.getId(), new HouseholdFacts(household.getId(),
+                    apartment != null ? apartment.getArea() : null, vehicleTypeCount,
+                    apartment != null ? consumptionByApartment.get(apartment.getId()) : null));
+        }
+        Long fromId = households.get(0).getId();
+        Long toId = households.get(households.size() - 1).getId();
+
+        if (context.isResidentsRequired()) {
+            for (Object[] row : residentRepository.countActiveByHouseholdRange(fromId, toId)) {
+                HouseholdFacts f = facts.get((Long) row[0]);
+                if (f != null) {
+                    f.setActiveResidents(((Number) row[1]).intValue());
+                }
+            }
+        }
+        if (context.isVehiclesRequired()) {
+            Map<String, Integer> slots = context.getVehicleTypeSlots();
+            for (Object[] row : vehicleRepository.countActiveByHouseholdRange(fromId, toId)) {
+                HouseholdFacts f = facts.get((Long) row[0]);
+                if (f != null) {
+                    f.addVehicles(slots.getOrDefault((String) row[1], -2), ((Number) row[2]).intValue());
+                }
+            }
+        }
+        return facts;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.repository.FeeItemTierRepository;
+import org.springframework.stereotype.Component;
+
+// Tiền điện theo kWh
+@Component
+public class ElectricityPricingRule extends MeteredPricingRule {
+
+    public ElectricityPricingRule(FeeItemTierRepository feeItemTierRepository) {
+        super(feeItemTierRepository);
+    }
+
+    @Override
+    public String unit() {
+        return "KWH";
+    }
+}
@@ -0,0 +1,67 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeeItemPrice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Chỉ mục khoảng hiệu lực đơn giá trong bộ nhớ: mỗi khoản thu giữ mảng ngày bắt đầu đã sắp xếp,
+ * tra giá tại một ngày bằng tìm kiếm nhị phân
+ */
+public class FeeItemPriceIndex {
+
+    private final Map<Long, Versions> versionsByItem = new HashMap<>();
+
+    /**
+     * @param prices các phiên bản đơn giá đã sắp theo (fee_item_id, effective_from)
+     */
+    public FeeItemPriceIndex(List<FeeItemPrice> prices) {
+        int start = 0;
+        while (start < prices.size()) {
+            Long feeItemId = prices.get(start).getFeeItemId();
+            int end = start;
+            while (end < prices.size() && prices.get(end).getFeeItemId().equals(feeItemId)) {
+                end++;
+            }
+            versionsByItem.put(feeItemId, new Versions(prices.subList(start, end)));
+            start = end;
+        }
+    }
+
+    /**
+     * Đơn giá hiệu lực tại ngày cho trước, trước phiên bản đầu tiên thì lấy phiên bản đầu tiên.
+     * Ngày rơi vào khoảng trống giữa hai phiên bản (sửa tay dữ liệu) lấy phiên bản trước đó, không lấy giá hiện tại.
+     * Chỉ khoản thu chưa có lịch sử giá mới dùng đơn giá trên khoản thu
+     */
+    public BigDecimal costAt(FeeItem feeItem, LocalDate date) {
+        Versions versions = versionsByItem.get(feeItem.getId());
+        return versions != null ? versions.costAt(date.toEpochDay()) : feeItem.getCost();
+    }
+
+    private static final class Versions {
+        private final long[] from;
+        private final BigDecimal[] costs;
+
+        Versions(List<FeeItemPrice> prices) {
+            from = new long[prices.size()];
+            costs = new BigDecimal[prices.size()];
+            for (int i = 0; i < costs.length; i++) {
+                FeeItemPrice price = prices.get(i);
+                from[i] = price.getEffectiveFrom().toEpochDay();
+                costs[i] = price.getCost();
+            }
+        }
+
+        BigDecimal costAt(long day) {
+            int i = Arrays.binarySearch(from, day);
+            // Không trúng đúng ngày bắt đầu thì lấy phiên bản bắt đầu gần nhất trước đó
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return costs[Math.max(i, 0)];
+        }
+    }
+}
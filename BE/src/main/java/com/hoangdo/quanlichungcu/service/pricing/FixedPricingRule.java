@@ -0,0 +1,24 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Thu đúng đơn giá cho mỗi hộ
+@Component
+public class FixedPricingRule implements PricingRule {
+
+    static final String UNIT = "FIXED";
+
+    @Override
+    public String unit() {
+        return UNIT;
+    }
+
+    @Override
+    public CompiledPrice compile(FeeItem feeItem, TariffContext context) {
+        BigDecimal cost = context.costOf(feeItem);
+        return facts -> cost;
+    }
+}
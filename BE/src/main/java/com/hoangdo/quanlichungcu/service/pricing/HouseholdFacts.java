@@ -0,0 +1,50 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Dữ liệu của một hộ dùng để tính phí, được nạp sẵn theo lô trước khi tính
+ */
+@Getter
+public class HouseholdFacts {
+
+    private final Long householdId;
+    private final BigDecimal area;
+    private int activeResidents;
+    private int totalVehicles;
+    // Số xe theo loại, chỉ số do TariffContext cấp khi biên dịch
+    private final int[] vehicleCounts;
+    // Lượng tiêu thụ theo công tơ của căn hộ trong kỳ, chỉ số do TariffContext cấp; null = không có chỉ số
+    private final BigDecimal[] consumption;
+
+    HouseholdFacts(Long householdId, BigDecimal area, int vehicleTypeCount, BigDecimal[] consumption) {
+        this.householdId = householdId;
+        this.area = area != null ? area : BigDecimal.ZERO;
+        this.vehicleCounts = new int[vehicleTypeCount];
+        this.consumption = consumption;
+    }
+
+    public int getVehicleCount(int vehicleTypeSlot) {
+        return vehicleTypeSlot == TariffContext.ALL_VEHICLES ? totalVehicles : vehicleCounts[vehicleTypeSlot];
+    }
+
+    public BigDecimal getConsumption(int meterSlot) {
+        if (consumption == null || consumption[meterSlot] == null) {
+            return BigDecimal.ZERO;
+        }
+        return consumption[meterSlot];
+    }
+
+    void setActiveResidents(int activeResidents) {
+        this.activeResidents = activeResidents;
+    }
+
+    void addVehicles(int vehicleTypeSlot, int count) {
+        totalVehicles += count;
+        if (vehicleTypeSlot >= 0) {
+            vehicleCounts[vehicleTypeSlot] += count;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeeItemTier;
+import com.hoangdo.quanlichungcu.repository.FeeItemTierRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Tính tiền theo lượng tiêu thụ trên công tơ, áp biểu giá bậc thang kiểu EVN nếu khoản thu có cấu hình bậc,
+ * nếu không thì lượng tiêu thụ x đơn giá
+ */
+public abstract class MeteredPricingRule implements PricingRule {
+
+    private final FeeItemTierRepository feeItemTierRepository;
+
+    protected MeteredPricingRule(FeeItemTierRepository feeItemTierRepository) {
+        this.feeItemTierRepository = feeItemTierRepository;
+    }
+
+    @Override
+    public CompiledPrice compile(FeeItem feeItem, TariffContext context) {
+        int slot = context.meterSlot(feeItem.getId());
+        List<FeeItemTier> tiers = feeItemTierRepository.findByFeeItemIdOrderByTierOrderAsc(feeItem.getId());
+        if (tiers.isEmpty()) {
+            BigDecimal cost = context.costOf(feeItem);
+            return facts -> {
+                BigDecimal used = facts.getConsumption(slot);
+                return used.signum() == 0 ? BigDecimal.ZERO : used.multiply(cost).setScale(0, RoundingMode.HALF_UP);
+            };
+        }
+
+        BigDecimal[] upperBounds = new BigDecimal[tiers.size()];
+        BigDecimal[] unitPrices = new BigDecimal[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            upperBounds[i] = tiers.get(i).getUpTo();
+            unitPrices[i] = tiers.get(i).getUnitPrice();
+        }
+        return facts -> price(facts.getConsumption(slot), upperBounds, unitPrices);
+    }
+
+    static BigDecimal price(BigDecimal used, BigDecimal[] upperBounds, BigDecimal[] unitPrices) {
+        if (used.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal lower = BigDecimal.ZERO;
+        for (int i = 0; i < upperBounds.length; i++) {
+            BigDecimal upper = upperBounds[i];
+            // Bậc cuối luôn lấy hết phần còn lại
+            boolean lastTier = upper == null || i == upperBounds.length - 1 || used.compareTo(upper) <= 0;
+            BigDecimal inTier = (lastTier ? used : upper).subtract(lower);
+            if (inTier.signum() > 0) {
+                total = total.add(inTier.multiply(unitPrices[i]));
+            }
+            if (lastTier) {
+                break;
+            }
+            lower = upper;
+        }
+        return total.setScale(0, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeePeriod;
+import com.hoangdo.quanlichungcu.repository.FeeItemPriceRepository;
+import com.hoangdo.quanlichungcu.repository.MeterReadingRepository;
+import com.hoangdo.quanlichungcu.repository.ResidentRepository;
+import com.hoangdo.quanlichungcu.repository.VehicleRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class PricingEngine {
+
+    private final Map<String, PricingRule> rules = new HashMap<>();
+    private final PricingRule fallbackRule;
+    private final ResidentRepository residentRepository;
+    private final VehicleRepository vehicleRepository;
+    private final MeterReadingRepository meterReadingRepository;
+    private final FeeItemPriceRepository feeItemPriceRepository;
+
+    public PricingEngine(List<PricingRule> pricingRules, ResidentRepository residentRepository,
+                         VehicleRepository vehicleRepository, MeterReadingRepository meterReadingRepository,
+                         FeeItemPriceRepository feeItemPriceRepository) {
+        for (PricingRule rule : pricingRules) {
+            rules.put(rule.unit(), rule);
+        }
+        // Đơn vị tính chưa có quy tắc riêng thì thu đúng đơn giá như trước
+        this.fallbackRule = rules.get(FixedPricingRule.UNIT);
+        this.residentRepository = residentRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.meterReadingRepository = meterReadingRepository;
+        this.feeItemPriceRepository = feeItemPriceRepository;
+    }
+
+    /**
+     * Biên dịch bảng giá cho danh sách khoản thu, gọi một lần cho mỗi lượt sinh công nợ
+     * @param feePeriod kỳ thu: ngày bắt đầu chọn phiên bản đơn giá, id dùng để tính lượng tiêu thụ theo công tơ
+     */
+    public CompiledTariff compile(List<FeeItem> feeItems, FeePeriod feePeriod) {
+        TariffContext context = new TariffContext(loadPriceIndex(feeItems), feePeriod.getStartDate());
+        CompiledPrice[] prices = new CompiledPrice[feeItems.size()];
+        for (int i = 0; i < prices.length; i++) {
+            FeeItem feeItem = feeItems.get(i);
+            prices[i] = rules.getOrDefault(feeItem.getUnit(), fallbackRule).compile(feeItem, context);
+        }
+        
+        // Mỗi khoản thu theo công tơ: một truy vấn tính lượng tiêu thụ cho mọi căn hộ trong kỳ
+        Map<Long, BigDecimal[]> consumptionByApartment = new HashMap<>();
+        int meterCount = context.getMeterSlots().size();
+        context.getMeterSlots().forEach((feeItemId, slot) ->
+                meterReadingRepository.findConsumption(feeItemId, feePeriod.getId()).forEach((apartmentId, used) ->
+                        consumptionByApartment.computeIfAbsent(apartmentId, k -> new BigDecimal[meterCount])[slot] = used));
+        
+        return new CompiledTariff(List.copyOf(feeItems), prices, context, consumptionByApartment,
+                residentRepository, vehicleRepository);
+    }
+
+    // Một truy vấn nạp toàn bộ lịch sử giá của các khoản thu
+    private FeeItemPriceIndex loadPriceIndex(List<FeeItem> feeItems) {
+        List<Long> ids = feeItems.stream().map(FeeItem::getId).collect(Collectors.toList());
+        return new FeeItemPriceIndex(ids.isEmpty() ? List.of()
+                : feeItemPriceRepository.findByFeeItemIdInOrderByFeeItemIdAscEffectiveFromAsc(ids));
+    }
+}
@@ -0,0 +1,21 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+
+/**
+ * Quy tắc tính tiền cho một đơn vị tính (FeeItem.unit).
+ * Thêm đơn vị tính mới bằng cách khai báo thêm một bean cài đặt interface này.
+ */
+public interface PricingRule {
+    
+    /**
+     * Đơn vị tính mà quy tắc xử lý, ví dụ "M2", "SLOT"
+     */
+    String unit();
+    
+    /**
+     * Biên dịch khoản thu thành hàm tính tiền, chạy một lần cho mỗi lượt sinh công nợ
+     * @param context dùng để đăng ký dữ liệu hộ dân cần nạp trước
+     */
+    CompiledPrice compile(FeeItem feeItem, TariffContext context);
+}
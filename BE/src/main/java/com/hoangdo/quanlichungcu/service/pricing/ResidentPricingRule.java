@@ -0,0 +1,25 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Đơn giá x số nhân khẩu đang ở của hộ
+@Component
+public class ResidentPricingRule implements PricingRule {
+
+    @Override
+    public String unit() {
+        return "PERSON";
+    }
+
+    @Override
+    public CompiledPrice compile(FeeItem feeItem, TariffContext context) {
+        context.requireResidents();
+        BigDecimal cost = context.costOf(feeItem);
+        return facts -> facts.getActiveResidents() == 0
+                ? BigDecimal.ZERO
+                : cost.multiply(BigDecimal.valueOf(facts.getActiveResidents()));
+    }
+}
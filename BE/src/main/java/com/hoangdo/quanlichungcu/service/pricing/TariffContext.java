@@ -0,0 +1,80 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ghi nhận những dữ liệu hộ dân mà các khoản thu đã biên dịch cần,
+ * để CompiledTariff chỉ chạy đúng các truy vấn nạp trước cần thiết
+ */
+public class TariffContext {
+
+    public static final int ALL_VEHICLES = -1;
+
+    private final FeeItemPriceIndex priceIndex;
+    private final LocalDate pricingDate;
+    private final Map<String, Integer> vehicleTypeSlots = new HashMap<>();
+    private final Map<Long, Integer> meterSlots = new LinkedHashMap<>();
+    private boolean residentsRequired;
+    private boolean vehiclesRequired;
+
+    /**
+     * @param pricingDate ngày bắt đầu kỳ thu, dùng để chọn phiên bản đơn giá
+     */
+    public TariffContext(FeeItemPriceIndex priceIndex, LocalDate pricingDate) {
+        this.priceIndex = priceIndex;
+        this.pricingDate = pricingDate;
+    }
+
+    /**
+     * Đơn giá của khoản thu có hiệu lực tại kỳ đang biên dịch
+     */
+    public BigDecimal costOf(FeeItem feeItem) {
+        return priceIndex.costAt(feeItem, pricingDate);
+    }
+
+    /**
+     * Cấp chỉ số cho một loại xe để tra cứu bằng mảng khi tính tiền
+     * @param vehicleType loại xe, null = mọi loại xe
+     */
+    public int vehicleTypeSlot(String vehicleType) {
+        vehiclesRequired = true;
+        if (vehicleType == null || vehicleType.isBlank()) {
+            return ALL_VEHICLES;
+        }
+        return vehicleTypeSlots.computeIfAbsent(vehicleType.trim().toUpperCase(Locale.ROOT), k -> vehicleTypeSlots.size());
+    }
+
+    /**
+     * Cấp chỉ số cho lượng tiêu thụ theo công tơ của một khoản thu (điện, nước)
+     */
+    public int meterSlot(Long feeItemId) {
+        return meterSlots.computeIfAbsent(feeItemId, k -> meterSlots.size());
+    }
+
+    public void requireResidents() {
+        residentsRequired = true;
+    }
+
+    Map<String, Integer> getVehicleTypeSlots() {
+        return vehicleTypeSlots;
+    }
+
+    Map<Long, Integer> getMeterSlots() {
+        return meterSlots;
+    }
+
+    boolean isResidentsRequired() {
+        return residentsRequired;
+    }
+
+    boolean isVehiclesRequired() {
+        return vehiclesRequired;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Đơn giá x số xe đang gửi đúng loại xe của khoản thu
+@Component
+public class VehiclePricingRule implements PricingRule {
+
+    @Override
+    public String unit() {
+        return "SLOT";
+    }
+
+    @Override
+    public CompiledPrice compile(FeeItem feeItem, TariffContext context) {
+        int slot = context.vehicleTypeSlot(feeItem.getVehicleType());
+        BigDecimal cost = context.costOf(feeItem);
+        return facts -> {
+            int count = facts.getVehicleCount(slot);
+            return count == 0 ? BigDecimal.ZERO : cost.multiply(BigDecimal.valueOf(count));
+        };
+    }
+}
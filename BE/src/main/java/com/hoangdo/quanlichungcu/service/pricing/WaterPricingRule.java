@@ -0,0 +1,18 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.repository.FeeItemTierRepository;
+import org.springframework.stereotype.Component;
+
+// Tiền nước theo m3
+@Component
+public class WaterPricingRule extends MeteredPricingRule {
+
+    public WaterPricingRule(FeeItemTierRepository feeItemTierRepository) {
+        super(feeItemTierRepository);
+    }
+
+    @Override
+    public String unit() {
+        return "M3";
+    }
+}
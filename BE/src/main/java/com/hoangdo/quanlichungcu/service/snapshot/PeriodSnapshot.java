@@ -0,0 +1,164 @@
+package com.hoangdo.quanlichungcu.service.snapshot;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * File chụp công nợ của một kỳ đã chốt, lưu theo cột kiểu nguyên thủy và đọc qua memory-mapped I/O.
+ * <pre>
+ * header : magic(int) version(int) periodId(long) startEpochDay(long) rows(int) nameLength(int) name(UTF-8)
+ * cột    : household_id int[rows] | fee_item_id int[rows] | status byte[rows] | expected long[rows] | paid long[rows]
+ * </pre>
+ * Số tiền lưu theo đơn vị xu (x100), các cột long được căn lề 8 byte, thứ tự byte little-endian.
+ */
+public final class PeriodSnapshot {
+
+    public static final byte STATUS_UNPAID = 0;
+    public static final byte STATUS_PARTIAL = 1;
+    public static final byte STATUS_PAID = 2;
+    public static final byte STATUS_OVERDUE = 3;
+
+    private static final int MAGIC = 0x51434331; // "QCC1"
+    private static final int VERSION = 1;
+    private static final int FIXED_HEADER = 4 + 4 + 8 + 8 + 4 + 4;
+
+    private final long periodId;
+    private final String periodName;
+    private final LocalDate startDate;
+    private final int rows;
+    private final IntBuffer householdIds;
+    private final IntBuffer feeItemIds;
+    private final ByteBuffer statuses;
+    private final LongBuffer expected;
+    private final LongBuffer paid;
+
+    private PeriodSnapshot(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Không phải file chụp kỳ thu hợp lệ");
+        }
+        periodId = buffer.getLong(8);
+        startDate = LocalDate.ofEpochDay(buffer.getLong(16));
+        rows = buffer.getInt(24);
+        int nameLength = buffer.getInt(28);
+        byte[] name = new byte[nameLength];
+        buffer.get(FIXED_HEADER, name);
+        periodName = new String(name, StandardCharsets.UTF_8);
+
+        int offset = align(FIXED_HEADER + nameLength);
+        householdIds = slice(buffer, offset, rows * 4).asIntBuffer();
+        offset += rows * 4;
+        feeItemIds = slice(buffer, offset, rows * 4).asIntBuffer();
+        offset += rows * 4;
+        statuses = slice(buffer, offset, rows);
+        offset = align(offset + rows);
+        expected = slice(buffer, offset, rows * 8).asLongBuffer();
+        offset += rows * 8;
+        paid = slice(buffer, offset, rows * 8).asLongBuffer();
+    }
+
+    /**
+     * Ánh xạ file vào bộ nhớ (chỉ đọc), dữ liệu cột không được sao chép lên heap
+     */
+    public static PeriodSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PeriodSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Ghi file chụp ra file tạm rồi đổi tên, người đọc không bao giờ thấy file ghi dở
+     */
+    public static void write(Path file, long periodId, String periodName, LocalDate startDate,
+                             int rows, int[] householdIds, int[] feeItemIds, byte[] statuses,
+                             long[] expected, long[] paid) throws IOException {
+        byte[] name = periodName.getBytes(StandardCharsets.UTF_8);
+        int columnsStart = align(FIXED_HEADER + name.length);
+        int longsStart = align(columnsStart + rows * 9);
+        ByteBuffer buffer = ByteBuffer.allocate(longsStart + rows * 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(periodId).putLong(startDate.toEpochDay())
+                .putInt(rows).putInt(name.length).put(name);
+        buffer.position(columnsStart);
+        buffer.asIntBuffer().put(householdIds, 0, rows);
+        buffer.position(columnsStart + rows * 4);
+        buffer.asIntBuffer().put(feeItemIds, 0, rows);
+        buffer.position(columnsStart + rows * 8);
+        buffer.put(statuses, 0, rows);
+        buffer.position(longsStart);
+        buffer.asLongBuffer().put(expected, 0, rows);
+        buffer.position(longsStart + rows * 8);
+        buffer.asLongBuffer().put(paid, 0, rows);
+        buffer.rewind();
+
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static byte statusCode(String status) {
+        return switch (status) {
+            case "PAID" -> STATUS_PAID;
+            case "PARTIAL" -> STATUS_PARTIAL;
+            case "OVERDUE" -> STATUS_OVERDUE;
+            default -> STATUS_UNPAID;
+        };
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        return buffer.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    public long getPeriodId() {
+        return periodId;
+    }
+
+    public String getPeriodName() {
+        return periodName;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int householdId(int row) {
+        return householdIds.get(row);
+    }
+
+    public int feeItemId(int row) {
+        return feeItemIds.get(row);
+    }
+
+    public byte status(int row) {
+        return statuses.get(row);
+    }
+
+    public long expectedCents(int row) {
+        return expected.get(row);
+    }
+
+    public long paidCents(int row) {
+        return paid.get(row);
+    }
+}
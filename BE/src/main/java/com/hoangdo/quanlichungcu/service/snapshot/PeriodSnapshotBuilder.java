@@ -0,0 +1,45 @@
+package com.hoangdo.quanlichungcu.service.snapshot;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Gom các dòng công nợ vào mảng nguyên thủy trước khi ghi file chụp
+ */
+public class PeriodSnapshotBuilder {
+
+    private int rows;
+    private int[] householdIds = new int[1024];
+    private int[] feeItemIds = new int[1024];
+    private byte[] statuses = new byte[1024];
+    private long[] expected = new long[1024];
+    private long[] paid = new long[1024];
+
+    public void add(long householdId, long feeItemId, String status, BigDecimal expectedAmount, BigDecimal paidAmount) {
+        if (rows == householdIds.length) {
+            int capacity = rows * 2;
+            householdIds = Arrays.copyOf(householdIds, capacity);
+            feeItemIds = Arrays.copyOf(feeItemIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            expected = Arrays.copyOf(expected, capacity);
+            paid = Arrays.copyOf(paid, capacity);
+        }
+        householdIds[rows] = Math.toIntExact(householdId);
+        feeItemIds[rows] = Math.toIntExact(feeItemId);
+        statuses[rows] = PeriodSnapshot.statusCode(status);
+        expected[rows] = toCents(expectedAmount);
+        paid[rows] = toCents(paidAmount);
+        rows++;
+    }
+
+    public void writeTo(Path file, long periodId, String periodName, LocalDate startDate) throws IOException {
+        PeriodSnapshot.write(file, periodId, periodName, startDate, rows, householdIds, feeItemIds, statuses, expected, paid);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValueExact();
+    }
+}
@@ -0,0 +1,173 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.ApartmentDTO;
+import com.hoangdo.quanlichungcu.dto.FeeItemDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeePeriodDTO;
+import com.hoangdo.quanlichungcu.dto.HouseholdDTO;
+import com.hoangdo.quanlichungcu.dto.PaymentDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sổ thu chỉ ghi thêm, không có API xóa phiếu thu, nên test chạy trên một schema dùng một lần
+ * dựng từ init-db (cùng thứ tự với docker-entrypoint) và xóa cả schema khi xong, không đụng dữ liệu thật
+ */
+@SpringBootTest
+@DirtiesContext
+class FeeObligationPaymentConcurrencyTests {
+
+	private static final int THREADS = 16;
+	private static final int PAYMENTS_PER_THREAD = 25;
+	private static final BigDecimal AMOUNT = new BigDecimal("1000.00");
+
+	// Tài khoản root của docker-compose, apartment_user không có quyền tạo schema
+	private static final String SERVER_URL = "jdbc:mysql://localhost:3307/";
+	private static final String URL_OPTIONS = "?useSSL=false&serverTimezone=Asia/Ho_Chi_Minh&allowPublicKeyRetrieval=true" +
+			"&characterEncoding=UTF-8&useUnicode=true&rewriteBatchedStatements=true";
+	private static final String ADMIN_USER = "root";
+	private static final String ADMIN_PASSWORD = "root123";
+	private static final String SCHEMA = "apartment_mgmt_stress_" + System.currentTimeMillis();
+
+	@Autowired
+	private FeeObligationService feeObligationService;
+
+	@Autowired
+	private FeePeriodService feePeriodService;
+
+	@Autowired
+	private ApartmentService apartmentService;
+
+	@Autowired
+	private HouseholdService householdService;
+
+	@Autowired
+	private FeeItemService feeItemService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long periodId;
+	private Long obligationId;
+
+	@DynamicPropertySource
+	static void disposableSchema(DynamicPropertyRegistry registry) throws SQLException, IOException {
+		try (Connection connection = DriverManager.getConnection(SERVER_URL + URL_OPTIONS, ADMIN_USER, ADMIN_PASSWORD);
+			 Statement statement = connection.createStatement();
+			 Stream<Path> scripts = Files.list(Paths.get("init-db"))) {
+			statement.execute("CREATE DATABASE " + SCHEMA + " CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+			connection.setCatalog(SCHEMA);
+			for (Path script : scripts.filter(p -> p.toString().endsWith(".sql")).sorted().toList()) {
+				ScriptUtils.executeSqlScript(connection, new EncodedResource(new FileSystemResource(script), StandardCharsets.UTF_8));
+			}
+		}
+		registry.add("spring.datasource.url", () -> SERVER_URL + SCHEMA + URL_OPTIONS);
+		registry.add("spring.datasource.username", () -> ADMIN_USER);
+		registry.add("spring.datasource.password", () -> ADMIN_PASSWORD);
+	}
+
+	@AfterAll
+	static void dropSchema() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(SERVER_URL + URL_OPTIONS, ADMIN_USER, ADMIN_PASSWORD);
+			 Statement statement = connection.createStatement()) {
+			statement.execute("DROP DATABASE IF EXISTS " + SCHEMA);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		// Schema mới cho mỗi lần chạy nên tên cố định không trùng
+		ApartmentDTO apartment = apartmentService.create(ApartmentDTO.builder()
+				.block("Z")
+				.floor("99")
+				.unit("9901")
+				.area(new BigDecimal("50"))
+				.build());
+		HouseholdDTO household = householdService.create(HouseholdDTO.builder()
+				.householdId("STRESS")
+				.apartmentId(apartment.getId())
+				.ownerName("stress")
+				.build());
+		FeeItemDTO feeItem = feeItemService.create(FeeItemDTO.builder()
+				.name("Phí stress test")
+				.type("SERVICE")
+				.unit("FIXED")
+				.cost(AMOUNT)
+				.build());
+		FeePeriodDTO period = feePeriodService.create(FeePeriodDTO.builder()
+				.name("STRESS")
+				.startDate(LocalDate.of(2099, 1, 1))
+				.endDate(LocalDate.of(2099, 1, 31))
+				.build());
+		periodId = period.getId();
+
+		FeeObligationDTO obligation = feeObligationService.create(FeeObligationDTO.builder()
+				.householdId(household.getId())
+				.feeItemId(feeItem.getId())
+				.feePeriodId(periodId)
+				.expectedAmount(AMOUNT.multiply(BigDecimal.valueOf(THREADS * PAYMENTS_PER_THREAD)))
+				.build());
+		obligationId = obligation.getId();
+	}
+
+	@Test
+	void concurrentPaymentsAreNeverLost() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+					feeObligationService.pay(obligationId, PaymentDTO.builder()
+							.paidAmount(AMOUNT)
+							.payerName("stress")
+							.paymentMethod("CASH")
+							.build());
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		FeeObligationDTO result = feeObligationService.findById(obligationId);
+		assertThat(result.getPaidAmount()).isEqualByComparingTo(result.getExpectedAmount());
+		assertThat(result.getStatus()).isEqualTo("PAID");
+		assertThat(feeObligationService.findPayments(obligationId)).hasSize(THREADS * PAYMENTS_PER_THREAD);
+		assertThat(jdbcTemplate.queryForObject("SELECT paid_total FROM fee_period_rollups WHERE fee_period_id = ?",
+				BigDecimal.class, periodId)).isEqualByComparingTo(result.getExpectedAmount());
+	}
+}
@@ -0,0 +1,65 @@
+package com.hoangdo.quanlichungcu.service;
+
+import com.hoangdo.quanlichungcu.dto.FeeObligationDTO;
+import com.hoangdo.quanlichungcu.dto.FeeObligationFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FeeObligationQueryCountTests {
+
+	@Autowired
+	private FeeObligationService feeObligationService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void findByHouseholdIdUsesSingleStatement() {
+		assertSingleStatement(() -> feeObligationService.findByHouseholdId(1L));
+	}
+
+	@Test
+	void findByFeePeriodIdUsesSingleStatement() {
+		assertSingleStatement(() -> feeObligationService.findByFeePeriodId(1L));
+	}
+
+	@Test
+	void findByStatusUsesSingleStatement() {
+		assertSingleStatement(() -> feeObligationService.findByStatus("PAID"));
+	}
+
+	@Test
+	void searchUsesSingleStatement() {
+		assertSingleStatement(() -> feeObligationService.search(new FeeObligationFilter(), null, 100).getItems());
+	}
+
+	private void assertSingleStatement(Supplier<List<FeeObligationDTO>> call) {
+		statistics.clear();
+		List<FeeObligationDTO> result = call.get();
+
+		assertThat(result).isNotEmpty();
+		assertThat(result).allSatisfy(dto -> {
+			assertThat(dto.getHouseholdCode()).isNotNull();
+			assertThat(dto.getPeriodStatus()).isNotNull();
+		});
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,42 @@
+package com.hoangdo.quanlichungcu.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BankReconciliationAmountTests {
+
+	@Test
+	void dotsAsThousandSeparators() {
+		assertThat(BankReconciliationServiceImpl.parseAmount("1.500.000")).isEqualByComparingTo("1500000");
+	}
+
+	@Test
+	void commaThousandsWithZeroDecimals() {
+		assertThat(BankReconciliationServiceImpl.parseAmount("1,500,000.00")).isEqualByComparingTo("1500000");
+	}
+
+	@Test
+	void zeroDecimalsAreNotScaledUp() {
+		assertThat(BankReconciliationServiceImpl.parseAmount("500.00")).isEqualByComparingTo("500");
+	}
+
+	@Test
+	void spacesAndCurrencySuffix() {
+		assertThat(BankReconciliationServiceImpl.parseAmount("1 500 000 VND")).isEqualByComparingTo("1500000");
+	}
+
+	@Test
+	void nonZeroFractionIsRejected() {
+		assertThat(BankReconciliationServiceImpl.parseAmount("500.50")).isNull();
+		assertThat(BankReconciliationServiceImpl.parseAmount("1.500.000,5")).isNull();
+	}
+
+	@Test
+	void headerIsNotAnAmount() {
+		BigDecimal amount = BankReconciliationServiceImpl.parseAmount("So tien");
+		assertThat(amount).isNull();
+	}
+}
@@ -0,0 +1,69 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import com.hoangdo.quanlichungcu.entity.FeeItem;
+import com.hoangdo.quanlichungcu.entity.FeeItemPrice;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeeItemPriceIndexTests {
+
+	private static final FeeItem ITEM = FeeItem.builder().id(1L).cost(new BigDecimal("9999")).build();
+	private static final FeeItem OTHER = FeeItem.builder().id(2L).cost(new BigDecimal("7000")).build();
+
+	// 01/01-31/03: 5.000, khoảng trống 01/04-30/04, 01/05-31/07: 6.000, từ 01/08: 8.000 (chưa có ngày kết thúc)
+	private static final FeeItemPriceIndex INDEX = new FeeItemPriceIndex(List.of(
+			version(1L, "5000", "2025-01-01", "2025-03-31"),
+			version(1L, "6000", "2025-05-01", "2025-07-31"),
+			version(1L, "8000", "2025-08-01", null),
+			version(3L, "1000", "2025-01-01", null)));
+
+	private static FeeItemPrice version(Long feeItemId, String cost, String from, String to) {
+		return FeeItemPrice.builder()
+				.feeItemId(feeItemId)
+				.cost(new BigDecimal(cost))
+				.effectiveFrom(LocalDate.parse(from))
+				.effectiveTo(to != null ? LocalDate.parse(to) : null)
+				.build();
+	}
+
+	private static BigDecimal costAt(FeeItem feeItem, String date) {
+		return INDEX.costAt(feeItem, LocalDate.parse(date));
+	}
+
+	@Test
+	void beforeFirstVersionUsesFirstVersion() {
+		assertThat(costAt(ITEM, "2024-12-31")).isEqualByComparingTo("5000");
+	}
+
+	@Test
+	void exactEffectiveFromDayUsesNewVersion() {
+		assertThat(costAt(ITEM, "2025-01-01")).isEqualByComparingTo("5000");
+		assertThat(costAt(ITEM, "2025-05-01")).isEqualByComparingTo("6000");
+		assertThat(costAt(ITEM, "2025-08-01")).isEqualByComparingTo("8000");
+	}
+
+	@Test
+	void lastDayOfVersionStaysOnIt() {
+		assertThat(costAt(ITEM, "2025-07-31")).isEqualByComparingTo("6000");
+	}
+
+	@Test
+	void dateInGapUsesEarlierVersion() {
+		assertThat(costAt(ITEM, "2025-04-15")).isEqualByComparingTo("5000");
+	}
+
+	@Test
+	void openEndedLastVersionCoversFutureDates() {
+		assertThat(costAt(ITEM, "2030-01-01")).isEqualByComparingTo("8000");
+	}
+
+	@Test
+	void itemWithoutHistoryUsesItemCost() {
+		assertThat(costAt(OTHER, "2025-06-01")).isEqualByComparingTo("7000");
+	}
+}
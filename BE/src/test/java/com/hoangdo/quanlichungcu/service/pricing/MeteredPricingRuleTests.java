@@ -0,0 +1,57 @@
+package com.hoangdo.quanlichungcu.service.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MeteredPricingRuleTests {
+
+	// 0-50: 1.000, 50-100: 2.000, trên 100: 3.000
+	private static final BigDecimal[] UPPER_BOUNDS = {new BigDecimal("50"), new BigDecimal("100"), null};
+	private static final BigDecimal[] UNIT_PRICES = {new BigDecimal("1000"), new BigDecimal("2000"), new BigDecimal("3000")};
+
+	private static BigDecimal price(String used) {
+		return MeteredPricingRule.price(new BigDecimal(used), UPPER_BOUNDS, UNIT_PRICES);
+	}
+
+	@Test
+	void zeroConsumption() {
+		assertThat(price("0")).isEqualByComparingTo("0");
+	}
+
+	@Test
+	void withinFirstTier() {
+		assertThat(price("30")).isEqualByComparingTo("30000");
+	}
+
+	@Test
+	void exactlyOnTierBoundary() {
+		assertThat(price("50")).isEqualByComparingTo("50000");
+		assertThat(price("100")).isEqualByComparingTo("150000");
+	}
+
+	@Test
+	void spansSeveralTiers() {
+		assertThat(price("120")).isEqualByComparingTo("210000");
+	}
+
+	@Test
+	void openEndedLastTierTakesTheRest() {
+		assertThat(price("1000")).isEqualByComparingTo("2850000");
+	}
+
+	@Test
+	void boundedLastTierStillTakesTheRest() {
+		BigDecimal[] upperBounds = {new BigDecimal("50"), new BigDecimal("100")};
+		BigDecimal[] unitPrices = {new BigDecimal("1000"), new BigDecimal("2000")};
+		assertThat(MeteredPricingRule.price(new BigDecimal("150"), upperBounds, unitPrices)).isEqualByComparingTo("250000");
+	}
+
+	@Test
+	void fractionalConsumptionRoundsToWholeDong() {
+		assertThat(price("10.5")).isEqualByComparingTo("10500");
+		assertThat(MeteredPricingRule.price(new BigDecimal("0.0005"), UPPER_BOUNDS, UNIT_PRICES)).isEqualByComparingTo("1");
+	}
+}
@@ -14,9 +14,9 @@ const VehicleForm: React.FC<VehicleFormProps> = ({ form }) => {
         rules={[{ required: true, message: "Vui lòng chọn loại xe" }]}
       >
         <Select placeholder="Chọn loại xe">
-          <Select.Option value="CAR">Ô tô</Select.Option>
-          <Select.Option value="MOTORBIKE">Xe máy</Select.Option>
-          <Select.Option value="BICYCLE">Xe đạp</Select.Option>
+          <Select.Option value="Car">Ô tô</Select.Option>
+          <Select.Option value="Motorbike">Xe máy</Select.Option>
+          <Select.Option value="Bicycle">Xe đạp</Select.Option>
         </Select>
       </Form.Item>
 
@@ -1,6 +1,6 @@
 "use client";
 
-import React, { useEffect, useState } from "react";
+import React, { useEffect, useRef, useState } from "react";
 import { Card, Row, Col, message, Spin, Tag, Table } from "antd";
 import { api } from "../services/api"; 
 import { Column } from '@ant-design/charts';
@@ -43,8 +43,16 @@ interface HouseholdPaymentStat {
   paymentRate: number;
 }
 
+interface DashboardDelta {
+  seq: number;
+  snapshot: boolean;
+  totalHouseholds: number;
+  periods: PeriodStat[];
+  newlyPaidHouseholds: HouseholdPaymentStat[];
+}
+
 interface Analytics {
-  last5PeriodStats: PeriodStat[];
+  periodStats: PeriodStat[];
   bestPayingHousehold: HouseholdPaymentStat | null;
   worstPayingHousehold: HouseholdPaymentStat | null;
   previousPeriodName: string;
@@ -86,6 +94,33 @@ const Dashboard: React.FC = () => {
     fetchData();
   }, []);
 
+  // Nhận thay đổi trực tiếp từ server thay vì tải lại định kỳ
+  const periodIdRef = useRef<number | null>(null);
+  periodIdRef.current = currentPeriod?.id ?? null;
+  useEffect(() => {
+    const source = new EventSource("http://localhost:8080/api/dashboard/stream");
+    let lastSeq = -1;
+    const apply = (e: MessageEvent) => {
+      const delta: DashboardDelta = JSON.parse(e.data);
+      if (!delta.snapshot && delta.seq <= lastSeq) return;
+      lastSeq = delta.seq;
+      const stat = delta.periods.find(p => p.periodId === periodIdRef.current);
+      setData(prev => prev && {
+        ...prev,
+        totalHouseholds: delta.totalHouseholds,
+        ...(stat ? {
+          totalReceivable: stat.totalReceivable,
+          totalCollected: stat.totalCollected,
+          collectionRate: stat.collectionRate,
+        } : {}),
+      });
+      delta.newlyPaidHouseholds?.forEach(h => message.success(`Hộ ${h.householdCode} (${h.ownerName}) đã nộp đủ`));
+    };
+    source.addEventListener("snapshot", apply as EventListener);
+    source.addEventListener("delta", apply as EventListener);
+    return () => source.close();
+  }, []);
+
   const getStatusTag = (status: string) => {
     const statusMap: Record<string, { color: string; label: string }> = {
       'DRAFT': { color: 'default', label: 'Nháp' },
@@ -97,7 +132,7 @@ const Dashboard: React.FC = () => {
   };
 
   // Cấu hình biểu đồ cột
-  const chartData = analytics?.last5PeriodStats?.map(stat => ({
+  const chartData = analytics?.periodStats?.map(stat => ({
     period: stat.periodName,
     'Tỷ lệ thu': stat.collectionRate,
   })) || [];
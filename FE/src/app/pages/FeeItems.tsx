@@ -1,13 +1,15 @@
 import React, { useEffect, useState } from "react";
-import { Table, Card, Button, Modal, Form, Input, Select, InputNumber, message, Tag, Space, Popconfirm, Row, Col } from "antd";
+import { Table, Card, Button, Modal, Form, Input, Select, InputNumber, DatePicker, message, Tag, Space, Popconfirm, Row, Col } from "antd";
 import { PlusOutlined, SearchOutlined, EditOutlined, DeleteOutlined, ReloadOutlined, DollarOutlined } from "@ant-design/icons";
 import { api } from "../services/api";
+import type { Dayjs } from "dayjs";
 
 interface FeeItem {
   id: string;
   name: string;
   type: string;
   unit: string;
+  vehicleType?: string;
   cost: number;
   status: string;
 }
@@ -58,7 +60,8 @@ const FeeItems = () => {
 
   const handleSave = async () => {
     try {
-      const values = await form.validateFields();
+      const { effectiveFrom, ...rest } = await form.validateFields();
+      const values = { ...rest, effectiveFrom: effectiveFrom ? (effectiveFrom as Dayjs).format('YYYY-MM-DD') : undefined };
       if (editingItem) {
         await api.put(`/fee-items/${editingItem.id}`, values);
         message.success("Cập nhật khoản thu thành công");
@@ -118,6 +121,7 @@ const FeeItems = () => {
         const unitMap: Record<string, string> = {
           'M2': 'Theo m²',
           'SLOT': 'Theo chiếc',
+          'PERSON': 'Theo nhân khẩu',
           'FIXED': 'Cố định'
         };
         return unitMap[unit] || unit;
@@ -225,9 +229,21 @@ const FeeItems = () => {
             <Select options={[
               { value: 'M2', label: 'Theo m² (diện tích căn hộ)' }, 
               { value: 'SLOT', label: 'Theo chiếc (xe)' }, 
+              { value: 'PERSON', label: 'Theo nhân khẩu đang ở' }, 
               { value: 'FIXED', label: 'Cố định/tháng' }
             ]} />
           </Form.Item>
+          <Form.Item noStyle shouldUpdate={(prev, cur) => prev.unit !== cur.unit}>
+            {({ getFieldValue }) => getFieldValue('unit') === 'SLOT' && (
+              <Form.Item name="vehicleType" label="Loại xe áp dụng">
+                <Select allowClear placeholder="Mọi loại xe" options={[
+                  { value: 'CAR', label: 'Ô tô' }, 
+                  { value: 'MOTORBIKE', label: 'Xe máy' }, 
+                  { value: 'BICYCLE', label: 'Xe đạp' }
+                ]} />
+              </Form.Item>
+            )}
+          </Form.Item>
           <Form.Item name="cost" label="Đơn giá (VNĐ)" rules={[{ required: true, message: "Vui lòng nhập đơn giá" }]}>
             <InputNumber 
               style={{ width: '100%' }} 
@@ -236,6 +252,9 @@ const FeeItems = () => {
               placeholder="VD: 7000" 
             />
           </Form.Item>
+          <Form.Item name="effectiveFrom" label="Áp dụng đơn giá từ ngày" extra="Để trống: áp dụng từ hôm nay, các kỳ trước giữ đơn giá cũ">
+            <DatePicker style={{ width: '100%' }} format="YYYY-MM-DD" />
+          </Form.Item>
           <Form.Item name="status" label="Trạng thái">
             <Select options={[
               { value: 'ACTIVE', label: 'Hoạt động' }, 
@@ -22,27 +22,59 @@ interface Obligation {
   note: string;
 }
 
+interface ObligationSummary {
+  obligationCount: number;
+  paidCount: number;
+  partialCount: number;
+  unpaidCount: number;
+  overdueCount: number;
+  expectedTotal: number;
+  paidTotal: number;
+}
+
+interface FeePeriodOption {
+  id: number;
+  name: string;
+}
+
+const PAGE_SIZE = 200;
+
 const FeeObligations = () => {
   const [data, setData] = useState<Obligation[]>([]);
-  const [filteredData, setFilteredData] = useState<Obligation[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [summary, setSummary] = useState<ObligationSummary | null>(null);
+  const [periods, setPeriods] = useState<FeePeriodOption[]>([]);
   const [loading, setLoading] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   
   // State thu tiền
   const [isPayModalOpen, setIsPayModalOpen] = useState(false);
   const [selectedOb, setSelectedOb] = useState<Obligation | null>(null);
   const [payForm] = Form.useForm();
 
-  // Filters
+  // Filters (lọc ở server, danh sách tải theo con trỏ)
   const [searchText, setSearchText] = useState("");
+  const [keyword, setKeyword] = useState("");
   const [searchStatus, setSearchStatus] = useState<string | undefined>(undefined);
-  const [searchPeriod, setSearchPeriod] = useState<string | undefined>(undefined);
+  const [searchPeriod, setSearchPeriod] = useState<number | undefined>(undefined);
+
+  const filterParams = () => ({
+    periodId: searchPeriod,
+    status: searchStatus,
+    keyword: keyword || undefined,
+  });
 
   const fetchData = async () => {
     setLoading(true);
     try {
-      const obRes = await api.get("/fee-obligations");
-      setData(obRes.data);
-      setFilteredData(obRes.data);
+      const params = filterParams();
+      const [obRes, summaryRes] = await Promise.all([
+        api.get("/fee-obligations", { params: { ...params, limit: PAGE_SIZE } }),
+        api.get("/fee-obligations/summary", { params }),
+      ]);
+      setData(obRes.data.items);
+      setNextCursor(obRes.data.nextCursor);
+      setSummary(summaryRes.data);
     } catch (err) {
       message.error("Lỗi tải dữ liệu");
     } finally {
@@ -50,32 +82,33 @@ const FeeObligations = () => {
     }
   };
 
-  useEffect(() => { fetchData(); }, []);
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const res = await api.get("/fee-obligations", { params: { ...filterParams(), limit: PAGE_SIZE, cursor: nextCursor } });
+      setData(prev => [...prev, ...res.data.items]);
+      setNextCursor(res.data.nextCursor);
+    } catch (err) {
+      message.error("Lỗi tải thêm dữ liệu");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  useEffect(() => {
+    api.get("/fee-periods")
+      .then(res => setPeriods(res.data))
+      .catch(() => message.error("Lỗi tải danh sách kỳ thu"));
+  }, []);
 
-  // Filter logic
+  // Chờ người dùng gõ xong mới gửi từ khóa lên server
   useEffect(() => {
-    let result = [...data];
-    
-    if (searchText) {
-      result = result.filter(item => {
-        return (
-          item.feeItemName.toLowerCase().includes(searchText.toLowerCase()) ||
-          item.ownerName.toLowerCase().includes(searchText.toLowerCase()) ||
-          item.householdCode.toLowerCase().includes(searchText.toLowerCase())
-        );
-      });
-    }
-    
-    if (searchStatus) {
-      result = result.filter(item => item.status === searchStatus);
-    }
+    const timer = setTimeout(() => setKeyword(searchText.trim()), 400);
+    return () => clearTimeout(timer);
+  }, [searchText]);
 
-    if (searchPeriod) {
-      result = result.filter(item => item.periodYm === searchPeriod);
-    }
-    
-    setFilteredData(result);
-  }, [searchText, searchStatus, searchPeriod, data]);
+  useEffect(() => { fetchData(); }, [keyword, searchStatus, searchPeriod]);
 
   const handlePay = async () => {
     try {
@@ -100,14 +133,12 @@ const FeeObligations = () => {
     return `${item.householdCode} - ${item.ownerName}`;
   };
 
-  // Thống kê
-  const totalExpected = data.reduce((sum, o) => sum + o.expectedAmount, 0);
-  const totalPaid = data.reduce((sum, o) => sum + o.paidAmount, 0);
-  const paidCount = data.filter(o => o.status === 'PAID').length;
-  const unpaidCount = data.filter(o => o.status === 'UNPAID').length;
-
-  // Lấy danh sách kỳ unique
-  const uniquePeriods = [...new Set(data.map(o => o.periodYm))];
+  // Thống kê trên toàn bộ kết quả lọc, không chỉ các dòng đã tải
+  const totalExpected = summary?.expectedTotal ?? 0;
+  const totalPaid = summary?.paidTotal ?? 0;
+  const paidCount = summary?.paidCount ?? 0;
+  const unpaidCount = summary?.unpaidCount ?? 0;
+  const totalCount = summary?.obligationCount ?? 0;
 
   const columns = [
     { 
@@ -145,7 +176,9 @@ const FeeObligations = () => {
     { 
       title: "Trạng thái", 
       dataIndex: "status",
-      render: (s: string) => (
+      render: (s: string) => s === 'OVERDUE' ? (
+        <Tag icon={<ClockCircleOutlined />} color="error">Quá hạn</Tag>
+      ) : (
         <Tag icon={s === 'PAID' ? <CheckCircleOutlined /> : <ClockCircleOutlined />} color={s === 'PAID' ? 'success' : 'warning'}>
           {s === 'PAID' ? 'Đã thu' : 'Chưa thu'}
         </Tag>
@@ -209,7 +242,7 @@ const FeeObligations = () => {
             onChange={setSearchPeriod}
             allowClear
             style={{ width: "100%" }}
-            options={uniquePeriods.map(p => ({ value: p, label: p }))}
+            options={periods.map(p => ({ value: p.id, label: p.name }))}
           />
         </Col>
         <Col xs={24} sm={8} md={4}>
@@ -222,6 +255,7 @@ const FeeObligations = () => {
             options={[
               { value: "PAID", label: "Đã thu" },
               { value: "UNPAID", label: "Chưa thu" },
+              { value: "OVERDUE", label: "Quá hạn" },
             ]}
           />
         </Col>
@@ -237,10 +271,15 @@ const FeeObligations = () => {
       <Table 
         loading={loading} 
         rowKey="id" 
-        dataSource={filteredData} 
+        dataSource={data} 
         columns={columns}
-        pagination={{ pageSize: 10, showSizeChanger: true, showTotal: (total) => `Tổng ${total} công nợ` }}
+        pagination={{ pageSize: 10, showSizeChanger: true, showTotal: (loaded) => `Đã tải ${loaded} / ${totalCount} công nợ` }}
       />
+      {nextCursor && (
+        <div style={{ textAlign: 'center', marginTop: 16 }}>
+          <Button onClick={loadMore} loading={loadingMore}>Tải thêm</Button>
+        </div>
+      )}
       
       <Modal 
         title="Xác nhận thu tiền" 
@@ -104,6 +104,25 @@ const FeePeriods = () => {
     }
   };
 
+  const handleTopUp = async (id: string) => {
+    try {
+      const res = await api.post(`/fee-periods/${id}/generate/top-up`);
+      message.success(`Đã bổ sung ${res.data.inserted} công nợ (${res.data.newHouseholds} hộ mới, ${res.data.newFeeItems} khoản thu mới)`);
+    } catch (e) {
+      message.error("Lỗi khi bổ sung công nợ");
+    }
+  };
+
+  const handleRollover = async (id: string) => {
+    try {
+      const res = await api.post(`/fee-periods/${id}/rollover`);
+      message.success(`Đã mở kỳ ${res.data.period.name} với ${res.data.cloned} công nợ`);
+      fetchPeriods();
+    } catch (e) {
+      message.error("Lỗi khi mở kỳ tiếp theo");
+    }
+  };
+
   const handleClose = async (id: string) => {
     try {
       await api.patch(`/fee-periods/${id}/close`);
@@ -167,18 +186,38 @@ const FeePeriods = () => {
             </>
           )}
           {record.status === 'OPEN' && (
+            <>
+              <Popconfirm
+                title="Tạo công nợ cho hộ mới chuyển đến và khoản thu mới áp dụng?"
+                onConfirm={() => handleTopUp(record.id)}
+                okText="Bổ sung"
+                cancelText="Hủy"
+              >
+                <Button icon={<PlayCircleOutlined />} size="small">Bổ sung công nợ</Button>
+              </Popconfirm>
+              <Popconfirm
+                title="Chốt sổ kỳ thu này? Sau khi chốt không thể sửa đổi."
+                onConfirm={() => handleClose(record.id)}
+                okText="Chốt sổ"
+                cancelText="Hủy"
+              >
+                <Button icon={<LockOutlined />} size="small" danger>Chốt sổ</Button>
+              </Popconfirm>
+            </>
+          )}
+          {record.status === 'CLOSED' && (
+            <Tag color="green">Đã hoàn thành</Tag>
+          )}
+          {record.status !== 'DRAFT' && (
             <Popconfirm
-              title="Chốt sổ kỳ thu này? Sau khi chốt không thể sửa đổi."
-              onConfirm={() => handleClose(record.id)}
-              okText="Chốt sổ"
+              title="Mở kỳ tháng kế tiếp và sao chép công nợ từ kỳ này (tính lại theo đơn giá mới)?"
+              onConfirm={() => handleRollover(record.id)}
+              okText="Mở kỳ"
               cancelText="Hủy"
             >
-              <Button icon={<LockOutlined />} size="small" danger>Chốt sổ</Button>
+              <Button icon={<PlusOutlined />} size="small">Mở kỳ tiếp theo</Button>
             </Popconfirm>
           )}
-          {record.status === 'CLOSED' && (
-            <Tag color="green">Đã hoàn thành</Tag>
-          )}
         </Space>
       )
     }
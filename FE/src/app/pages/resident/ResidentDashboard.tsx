@@ -108,7 +108,7 @@ const ResidentDashboard: React.FC = () => {
   // Tính toán thống kê
   const totalExpected = fees.reduce((sum, f) => sum + (f.expectedAmount || 0), 0);
   const totalPaid = fees.reduce((sum, f) => sum + (f.paidAmount || 0), 0);
-  const unpaidFees = fees.filter(f => f.status === 'UNPAID');
+  const unpaidFees = fees.filter(f => f.status === 'UNPAID' || f.status === 'OVERDUE');
   const paidFees = fees.filter(f => f.status === 'PAID');
   const paymentRate = totalExpected > 0 ? (totalPaid / totalExpected) * 100 : 0;
 
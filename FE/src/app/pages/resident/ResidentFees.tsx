@@ -85,7 +85,7 @@ const ResidentFees: React.FC = () => {
   }, [householdId]);
 
   // Phân loại phí
-  const unpaidFees = fees.filter(f => f.status === 'UNPAID');
+  const unpaidFees = fees.filter(f => f.status === 'UNPAID' || f.status === 'OVERDUE');
   const paidFees = fees.filter(f => f.status === 'PAID');
   
   // Tính tổng
@@ -97,7 +97,7 @@ const ResidentFees: React.FC = () => {
   // - Kỳ đã chốt sổ (CLOSED) + chưa đóng phí = QUÁ HẠN
   // - Kỳ đang hiện hành (OPEN) = hiển thị hạn nộp bình thường
   const isOverdue = (record: FeeObligation) => {
-    return record.periodStatus === 'CLOSED' && record.status !== 'PAID';
+    return record.status === 'OVERDUE' || (record.periodStatus === 'CLOSED' && record.status !== 'PAID');
   };
 
   const columns: ColumnsType<FeeObligation> = [
@@ -108,7 +108,7 @@ const ResidentFees: React.FC = () => {
       render: (text, record) => (
         <div>
           <Text strong>{text}</Text>
-          {record.status === 'UNPAID' && isOverdue(record) && (
+          {record.status !== 'PAID' && isOverdue(record) && (
             <Tooltip title="Đã quá hạn thanh toán">
               <ExclamationCircleOutlined style={{ color: '#ff4d4f', marginLeft: 8 }} />
             </Tooltip>